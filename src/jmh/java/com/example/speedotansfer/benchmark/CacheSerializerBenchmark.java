@@ -0,0 +1,72 @@
+package com.example.speedotansfer.benchmark;
+
+import com.example.speedotansfer.config.VersionedCacheSerializer;
+import com.example.speedotansfer.dto.accountDTO.AccountDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Encode/decode cost of the "accounts" cache entry for each codec, with the entry's encoded size
+// reported next to the timings as the encodedBytes counter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheSerializerBenchmark {
+
+    @Param({"SMILE", "JSON", "GENERIC"})
+    public String codec;
+
+    private RedisSerializer<Object> serializer;
+    private List<AccountDTO> accounts;
+    private byte[] encoded;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        serializer = codec.equals("GENERIC")
+                ? new GenericJackson2JsonRedisSerializer().configure(mapper -> mapper.registerModule(new JavaTimeModule()))
+                : (RedisSerializer<Object>) (RedisSerializer<?>) VersionedCacheSerializer.listOf(
+                        VersionedCacheSerializer.Codec.valueOf(codec), 1, AccountDTO.class);
+
+        accounts = new ArrayList<>();
+        for (Currency currency : Currency.values()) {
+            accounts.add(AccountDTO.builder()
+                    .accountNumber("12345678901234" + currency.ordinal())
+                    .balance(100)
+                    .userId(1L)
+                    .currency(currency)
+                    .cardNumber("111122223333444" + currency.ordinal())
+                    .cardholderName("User Name")
+                    .cvv(123)
+                    .expirationDate("12/26")
+                    .build());
+        }
+        encoded = serializer.serialize(accounts);
+    }
+
+    // Set rather than counted, so it reads as the size of one entry whatever the number of calls
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long encodedBytes;
+    }
+
+    @Benchmark
+    public byte[] encode(Size size) {
+        byte[] bytes = serializer.serialize(accounts);
+        size.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object decode(Size size) {
+        size.encodedBytes = encoded.length;
+        return serializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.speedotansfer.benchmark;
+
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.service.impl.helpers.AccountNumberGenerator;
+import com.example.speedotansfer.service.impl.helpers.CurrencyExchangeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HelpersBenchmark {
+
+    @Param({"EGY", "USD"})
+    public Currency from;
+
+    @Param({"USD", "EUR"})
+    public Currency to;
+
+    @Benchmark
+    public double getExchangeRate() {
+        return CurrencyExchangeService.getExchangeRate(from, to);
+    }
+
+    @Benchmark
+    public String generateAccountNumber() {
+        return AccountNumberGenerator.generateNumber();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.speedotansfer.benchmark;
+
+import com.example.speedotansfer.dto.accountDTO.AccountDTO;
+import com.example.speedotansfer.dto.transactionDTOs.AllTransactionsDTO;
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.Transaction;
+import com.example.speedotansfer.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// History size mirrors what TransactionService.getHistory maps and serializes per request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int historySize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Account account;
+    private List<Transaction> transactions;
+    private AllTransactionsDTO history;
+
+    @Setup
+    public void setUp() {
+        User sender = User.builder().internalId(1L).username("senderUsername").build();
+        User receiver = User.builder().internalId(2L).username("receiverUsername").build();
+
+        account = Account.builder()
+                .id(1L)
+                .accountNumber("123456789012345")
+                .balance(100)
+                .currency(Currency.EGY)
+                .user(sender)
+                .cardNumber("1111222233334444")
+                .cardholderName("User Name")
+                .cvv(123)
+                .expirationDate("12/26")
+                .build();
+
+        transactions = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            transactions.add(Transaction.builder()
+                    .id(i)
+                    .amount(10 + i)
+                    .currency(Currency.USD)
+                    .status(i % 10 != 0)
+                    .sender(i % 2 == 0 ? sender : receiver)
+                    .receiver(i % 2 == 0 ? receiver : sender)
+                    .build());
+        }
+        history = new AllTransactionsDTO(toDtos());
+    }
+
+    @Benchmark
+    public AccountDTO accountToDto() {
+        return account.toDTO();
+    }
+
+    @Benchmark
+    public List<TransferResponseDTO> transactionsToDto() {
+        return toDtos();
+    }
+
+    @Benchmark
+    public byte[] serializeHistory() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(history);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeHistory() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new AllTransactionsDTO(toDtos()));
+    }
+
+    private List<TransferResponseDTO> toDtos() {
+        List<TransferResponseDTO> dtos = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            dtos.add(transaction.toDto());
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.speedotansfer.archive;
+
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// A transactions row as kept in an archive file; account legs and receivedAmount are null on older rows
+public record ArchivedTransaction(long id, LocalDateTime timeStamp, double amount, Currency currency, boolean status,
+                                  long senderId, long receiverId, Long senderAccountId, Long receiverAccountId,
+                                  Double receivedAmount) {
+
+    public TransferResponseDTO toDto(Map<Long, String> usernames) {
+        return TransferResponseDTO.builder()
+                .transactionId(id)
+                .fromAccount(usernames.get(senderId))
+                .toAccount(usernames.get(receiverId))
+                .amount(amount)
+                .status(status)
+                .timestamp(timeStamp)
+                .build();
+    }
+}
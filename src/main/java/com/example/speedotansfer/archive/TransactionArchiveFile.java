@@ -0,0 +1,311 @@
+package com.example.speedotansfer.archive;
+
+import com.example.speedotansfer.enums.Currency;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// A month of transactions stored column by column, each column deflated on its own, so a lookup by
+// user inflates the sender and receiver columns and touches the rest only when something matched.
+//
+//   magic int, version short, rows int, column count byte
+//   per column: offset long, length long
+//   currency name count byte, names
+//   the column blocks, in Column order
+//
+// Rows are appended in id order. Ids and timestamps are zigzag varlong deltas from the previous row,
+// user and account ids varlongs with 0 for no account, amounts raw doubles with NaN for none, the
+// currency one byte per row indexing the name table and the status one byte per row.
+public final class TransactionArchiveFile {
+
+    public static final String SUFFIX = ".tcol";
+
+    private static final int MAGIC = 0x53505441;
+    private static final short VERSION = 1;
+
+    private enum Column {
+        ID, TIME_STAMP, SENDER, RECEIVER, SENDER_ACCOUNT, RECEIVER_ACCOUNT, AMOUNT, RECEIVED_AMOUNT, CURRENCY, STATUS
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private TransactionArchiveFile() {
+    }
+
+    public static Writer writer(Path target) throws IOException {
+        return new Writer(target);
+    }
+
+    // Each column is spilled to a file of its own while rows come in, and only the finished
+    // blocks are copied into the archive, so a month of any size is written in constant memory
+    public static class Writer implements Closeable {
+
+        private final Path target;
+        private final Path[] spills = new Path[COLUMNS.length];
+        private final DataOutputStream[] columns = new DataOutputStream[COLUMNS.length];
+        private final Map<Currency, Integer> currencies = new LinkedHashMap<>();
+        private int rows;
+        private long lastId;
+        private long lastTime;
+        private boolean finished;
+
+        private Writer(Path target) throws IOException {
+            this.target = target;
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            for (Column column : COLUMNS) {
+                spills[column.ordinal()] = Files.createTempFile(target.toAbsolutePath().getParent(), column.name(), ".spill");
+                columns[column.ordinal()] = new DataOutputStream(new BufferedOutputStream(
+                        new DeflaterOutputStream(Files.newOutputStream(spills[column.ordinal()])), 1 << 16));
+            }
+        }
+
+        public void append(ArchivedTransaction row) throws IOException {
+            long time = micros(row.timeStamp());
+            writeVarLong(columns[Column.ID.ordinal()], row.id() - lastId);
+            writeVarLong(columns[Column.TIME_STAMP.ordinal()], time - lastTime);
+            writeVarLong(columns[Column.SENDER.ordinal()], row.senderId());
+            writeVarLong(columns[Column.RECEIVER.ordinal()], row.receiverId());
+            writeVarLong(columns[Column.SENDER_ACCOUNT.ordinal()], row.senderAccountId() == null ? 0 : row.senderAccountId());
+            writeVarLong(columns[Column.RECEIVER_ACCOUNT.ordinal()], row.receiverAccountId() == null ? 0 : row.receiverAccountId());
+            columns[Column.AMOUNT.ordinal()].writeDouble(row.amount());
+            columns[Column.RECEIVED_AMOUNT.ordinal()].writeDouble(row.receivedAmount() == null ? Double.NaN : row.receivedAmount());
+            columns[Column.CURRENCY.ordinal()].writeByte(currencies.computeIfAbsent(row.currency(), currency -> currencies.size()));
+            columns[Column.STATUS.ordinal()].writeBoolean(row.status());
+            lastId = row.id();
+            lastTime = time;
+            rows++;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        // Writes the archive next to its final name, forces it and moves it into place, so a
+        // file under that name is always complete. Returns its size in bytes.
+        public long finish() throws IOException {
+            for (DataOutputStream column : columns) {
+                column.close();
+            }
+            finished = true;
+
+            ByteArrayOutputStream names = new ByteArrayOutputStream();
+            DataOutputStream namesOut = new DataOutputStream(names);
+            namesOut.writeByte(currencies.size());
+            for (Currency currency : currencies.keySet()) {
+                namesOut.writeUTF(currency.name());
+            }
+
+            long offset = 4 + 2 + 4 + 1 + COLUMNS.length * 16L + names.size();
+            Path partial = target.resolveSibling(target.getFileName() + ".partial");
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+                DataOutputStream header = new DataOutputStream(out);
+                header.writeInt(MAGIC);
+                header.writeShort(VERSION);
+                header.writeInt(rows);
+                header.writeByte(COLUMNS.length);
+                for (Path spill : spills) {
+                    long length = Files.size(spill);
+                    header.writeLong(offset);
+                    header.writeLong(length);
+                    offset += length;
+                }
+                names.writeTo(header);
+                for (Path spill : spills) {
+                    Files.copy(spill, header);
+                }
+                header.flush();
+                channel.force(true);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return Files.size(target);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                for (DataOutputStream column : columns) {
+                    if (column != null) {
+                        column.close();
+                    }
+                }
+            }
+            for (Path spill : spills) {
+                if (spill != null) {
+                    Files.deleteIfExists(spill);
+                }
+            }
+        }
+    }
+
+    // Every row the user sent or received, in id order
+    public static List<ArchivedTransaction> readByUser(Path file, long userId) throws IOException {
+        Header header = Header.read(file);
+        BitSet matches = new BitSet(header.rows());
+        for (Column column : new Column[]{Column.SENDER, Column.RECEIVER}) {
+            try (DataInputStream in = header.open(file, column)) {
+                for (int row = 0; row < header.rows(); row++) {
+                    if (readVarLong(in) == userId) {
+                        matches.set(row);
+                    }
+                }
+            }
+        }
+        return matches.isEmpty() ? List.of() : read(file, header, matches);
+    }
+
+    private static List<ArchivedTransaction> read(Path file, Header header, BitSet selected) throws IOException {
+        int count = selected.cardinality();
+        long[][] longs = new long[Column.RECEIVER_ACCOUNT.ordinal() + 1][count];
+        double[] amounts = new double[count];
+        double[] received = new double[count];
+        Currency[] currencies = new Currency[count];
+        boolean[] statuses = new boolean[count];
+
+        for (Column column : COLUMNS) {
+            try (DataInputStream in = header.open(file, column)) {
+                long value = 0;
+                for (int row = 0, slot = 0; row < header.rows() && slot < count; row++) {
+                    boolean keep = selected.get(row);
+                    switch (column) {
+                        case ID, TIME_STAMP -> {
+                            value += readVarLong(in);
+                            if (keep) longs[column.ordinal()][slot] = value;
+                        }
+                        case SENDER, RECEIVER, SENDER_ACCOUNT, RECEIVER_ACCOUNT -> {
+                            value = readVarLong(in);
+                            if (keep) longs[column.ordinal()][slot] = value;
+                        }
+                        case AMOUNT -> {
+                            double amount = in.readDouble();
+                            if (keep) amounts[slot] = amount;
+                        }
+                        case RECEIVED_AMOUNT -> {
+                            double amount = in.readDouble();
+                            if (keep) received[slot] = amount;
+                        }
+                        case CURRENCY -> {
+                            int index = in.readUnsignedByte();
+                            if (keep) currencies[slot] = header.currencies().get(index);
+                        }
+                        case STATUS -> {
+                            boolean status = in.readBoolean();
+                            if (keep) statuses[slot] = status;
+                        }
+                    }
+                    if (keep) {
+                        slot++;
+                    }
+                }
+            }
+        }
+
+        List<ArchivedTransaction> rows = new ArrayList<>(count);
+        for (int slot = 0; slot < count; slot++) {
+            long senderAccount = longs[Column.SENDER_ACCOUNT.ordinal()][slot];
+            long receiverAccount = longs[Column.RECEIVER_ACCOUNT.ordinal()][slot];
+            rows.add(new ArchivedTransaction(
+                    longs[Column.ID.ordinal()][slot],
+                    timeStamp(longs[Column.TIME_STAMP.ordinal()][slot]),
+                    amounts[slot],
+                    currencies[slot],
+                    statuses[slot],
+                    longs[Column.SENDER.ordinal()][slot],
+                    longs[Column.RECEIVER.ordinal()][slot],
+                    senderAccount == 0 ? null : senderAccount,
+                    receiverAccount == 0 ? null : receiverAccount,
+                    Double.isNaN(received[slot]) ? null : received[slot]));
+        }
+        return rows;
+    }
+
+    private record Header(int rows, long[] offsets, List<Currency> currencies) {
+
+        static Header read(Path file) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(file + " is not a transaction archive");
+                }
+                short version = in.readShort();
+                if (version != VERSION) {
+                    throw new IOException(file + " has archive version " + version + ", expected " + VERSION);
+                }
+                int rows = in.readInt();
+                int columns = in.readUnsignedByte();
+                if (columns != COLUMNS.length) {
+                    throw new IOException(file + " has " + columns + " columns, expected " + COLUMNS.length);
+                }
+                long[] offsets = new long[columns];
+                for (int column = 0; column < columns; column++) {
+                    offsets[column] = in.readLong();
+                    in.readLong();
+                }
+                int names = in.readUnsignedByte();
+                List<Currency> currencies = new ArrayList<>(names);
+                for (int name = 0; name < names; name++) {
+                    currencies.add(Currency.valueOf(in.readUTF()));
+                }
+                return new Header(rows, offsets, currencies);
+            }
+        }
+
+        DataInputStream open(Path file, Column column) throws IOException {
+            InputStream in = Files.newInputStream(file);
+            in.skipNBytes(offsets[column.ordinal()]);
+            return new DataInputStream(new BufferedInputStream(new InflaterInputStream(in), 1 << 16));
+        }
+    }
+
+    private static long micros(LocalDateTime timeStamp) {
+        return timeStamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timeStamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime timeStamp(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) (zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.speedotansfer.config;
+
+import com.example.speedotansfer.dto.accountDTO.AccountDTO;
+import com.example.speedotansfer.dto.userDTOs.UserDTO;
+import com.example.speedotansfer.model.Favourite;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String ACCOUNTS = "accounts";
+    public static final String FAVOURITES = "favourites";
+    public static final String USERNAMES = "usernames";
+
+    @Value("${app.cache.ttl.users:30m}")
+    private Duration usersTtl;
+    @Value("${app.cache.ttl.accounts:5m}")
+    private Duration accountsTtl;
+    @Value("${app.cache.ttl.favourites:10m}")
+    private Duration favouritesTtl;
+    @Value("${app.cache.ttl.usernames:30m}")
+    private Duration usernamesTtl;
+
+    @Value("${app.cache.codec:SMILE}")
+    private VersionedCacheSerializer.Codec codec;
+    // Bump whenever a cached DTO changes shape
+    @Value("${app.cache.version:1}")
+    private int version;
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer(RedisCacheConfiguration cacheConfiguration) {
+        // Evictions are deferred until the surrounding transaction commits
+        return builder -> builder
+                .withCacheConfiguration(USERS, typed(cacheConfiguration, usersTtl,
+                        VersionedCacheSerializer.of(codec, version, UserDTO.class)))
+                .withCacheConfiguration(ACCOUNTS, typed(cacheConfiguration, accountsTtl,
+                        VersionedCacheSerializer.listOf(codec, version, AccountDTO.class)))
+                .withCacheConfiguration(FAVOURITES, typed(cacheConfiguration, favouritesTtl,
+                        VersionedCacheSerializer.listOf(codec, version, Favourite.class)))
+                .withCacheConfiguration(USERNAMES, typed(cacheConfiguration, usernamesTtl,
+                        VersionedCacheSerializer.of(codec, version, Long.class)))
+                .transactionAware();
+    }
+
+    private RedisCacheConfiguration typed(RedisCacheConfiguration base, Duration ttl, RedisSerializer<?> serializer) {
+        return base.entryTtl(ttl)
+                .prefixCacheNameWith("v" + version + ":")
+                .serializeValuesWith(SerializationPair.fromSerializer(serializer));
+    }
+}
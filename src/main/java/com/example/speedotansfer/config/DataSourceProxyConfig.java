@@ -0,0 +1,53 @@
+package com.example.speedotansfer.config;
+
+import com.example.speedotansfer.metrics.timing.StatementTimingListener;
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.listener.logging.SLF4JSlowQueryListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Wraps the application's DataSource so statement listeners see every query, JPA and JdbcTemplate alike
+@Configuration
+@ConditionalOnExpression("${app.server-timing.enabled:false} or ${app.datasource.slow-query.enabled:false}")
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(Environment environment) {
+        Binder binder = Binder.get(environment);
+        boolean serverTiming = binder.bind("app.server-timing.enabled", Boolean.class).orElse(false);
+        boolean slowQueries = binder.bind("app.datasource.slow-query.enabled", Boolean.class).orElse(false);
+        Duration threshold = binder.bind("app.datasource.slow-query.threshold", Duration.class).orElse(Duration.ofMillis(500));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // With the replica enabled this is the routing DataSource, so both pools are covered
+                if (!beanName.equals("dataSource") || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+                if (serverTiming) {
+                    builder.listener(new StatementTimingListener());
+                }
+                if (slowQueries) {
+                    // Logged once a statement passes the threshold, while it is still running
+                    SLF4JSlowQueryListener slowQueryListener = new SLF4JSlowQueryListener(threshold.toMillis(), TimeUnit.MILLISECONDS);
+                    slowQueryListener.setLogger("speedo.slow-query");
+                    slowQueryListener.setLogLevel(SLF4JLogLevel.WARN);
+                    builder.listener(slowQueryListener);
+                }
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.speedotansfer.config;
+
+import com.example.speedotansfer.ledger.MappedTransferJournal;
+import com.example.speedotansfer.ledger.TransferJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The journal is written by the ledger when app.ledger.enabled, otherwise by TransferJournalWriter
+@Configuration
+@ConditionalOnExpression("${app.journal.enabled:false} or ${app.ledger.enabled:false}")
+public class JournalConfig {
+
+    // Closed after its writers have drained into it
+    @Bean(destroyMethod = "close")
+    public TransferJournal transferJournal(@Value("${app.journal.dir:journal}") Path directory,
+                                           @Value("${app.journal.segment-records:262144}") int segmentRecords,
+                                           @Value("${app.journal.retain-segments:16}") int retainSegments,
+                                           @Value("${app.ledger.enabled:false}") boolean ledger) throws IOException {
+        // The ledger still needs every record its snapshotter hasn't applied, and truncates by itself
+        return new MappedTransferJournal(directory, segmentRecords, ledger ? 0 : retainSegments);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.speedotansfer.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps a user's reads on the primary for a while after they write, so they
+// never read their own write back from a replica that hasn't caught up yet.
+public class ReplicaLagGuard {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReplicaLagGuard(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void pin(Long userId) {
+        if (userId == null || windowNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (pinnedUntil.size() > PURGE_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until - now <= 0);
+        }
+        pinnedUntil.put(userId, now + windowNanos);
+    }
+
+    public boolean isPinned(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(userId, until);
+        return false;
+    }
+}
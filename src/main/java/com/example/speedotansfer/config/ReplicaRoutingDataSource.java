@@ -0,0 +1,73 @@
+package com.example.speedotansfer.config;
+
+import com.example.speedotansfer.security.UserDetailsImpl;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only
+// known once the transaction has started, after the connection would normally be taken.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = ThreadLocal.withInitial(() -> false);
+
+    private final ReplicaLagGuard lagGuard;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard lagGuard) {
+        this.lagGuard = lagGuard;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY_READS.get() || lagGuard.isPinned(userId) ? Route.PRIMARY : Route.REPLICA;
+        }
+
+        if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lagGuard.pin(userId);
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+
+    // Runs the read's connections against the primary even in read-only transactions, for results
+    // shared beyond the current user, such as cache entries: the lag guard only pins a writer, and
+    // only on its own node. Connections already taken by the caller's transaction keep their route.
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        boolean outer = PRIMARY_READS.get();
+        PRIMARY_READS.set(true);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_READS.set(outer);
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.speedotansfer.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+// Every entry starts with a two byte header (magic, version); entries written
+// by another codec or version read back as null, which the cache treats as a miss.
+@Slf4j
+public class VersionedCacheSerializer<T> implements RedisSerializer<T> {
+
+    public enum Codec {
+        SMILE,
+        JSON
+    }
+
+    private static final byte MAGIC = (byte) 0xCE;
+    private static final int HEADER_LENGTH = 2;
+
+    private final byte version;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public VersionedCacheSerializer(Codec codec, int version, JavaType type) {
+        ObjectMapper mapper = codec == Codec.SMILE ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        this.version = (byte) (codec.ordinal() << 6 | version & 0x3F);
+        this.reader = mapper.readerFor(type);
+        this.writer = mapper.writerFor(type);
+    }
+
+    public static <T> VersionedCacheSerializer<T> of(Codec codec, int version, Class<T> type) {
+        return new VersionedCacheSerializer<>(codec, version, TypeFactory.defaultInstance().constructType(type));
+    }
+
+    public static <T> VersionedCacheSerializer<T> listOf(Codec codec, int version, Class<?> elementType) {
+        return new VersionedCacheSerializer<>(codec, version,
+                TypeFactory.defaultInstance().constructCollectionType(ArrayList.class, elementType));
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] payload = writer.writeValueAsBytes(value);
+            byte[] bytes = new byte[payload.length + HEADER_LENGTH];
+            bytes[0] = MAGIC;
+            bytes[1] = version;
+            System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache entry", e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length <= HEADER_LENGTH || bytes[0] != MAGIC || bytes[1] != version) {
+            return null;
+        }
+        try {
+            return reader.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        } catch (IOException e) {
+            log.warn("Dropping unreadable cache entry: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.speedotansfer.config;
 import com.example.speedotansfer.security.AuthEntryPointJwt;
 import com.example.speedotansfer.security.AuthTokenFilter;
 import com.example.speedotansfer.security.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -35,7 +36,10 @@ public class WebSecurityConfig {
         http.csrf(AbstractHttpConfigurer::disable)
                 .exceptionHandling(e -> e.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authorizeHttpRequests(auth -> auth.requestMatchers("swagger-ui.html",
+                .authorizeHttpRequests(auth -> auth
+                        // Re-dispatch that completes an already authorized async response, e.g. an event stream
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("swagger-ui.html",
                                 "/api/auth/**", "/swagger-ui/**", "/h2-console/**",
                                 "/v3/api-docs/**", "/swagger-resources/**", "/actuator/**").
                         permitAll().anyRequest().authenticated())
@@ -2,19 +2,26 @@ package com.example.speedotansfer.contoller;
 
 import com.example.speedotansfer.dto.accountDTO.AccountDTO;
 import com.example.speedotansfer.dto.accountDTO.AccountNumberDTO;
+import com.example.speedotansfer.dto.accountDTO.RecipientDTO;
+import com.example.speedotansfer.dto.accountDTO.RecipientLookupDTO;
 import com.example.speedotansfer.dto.userDTOs.BalanceDTO;
 import com.example.speedotansfer.exception.custom.AccountNotFoundException;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
 import com.example.speedotansfer.exception.response.ErrorDetails;
 import com.example.speedotansfer.service.impl.AccountService;
+import com.example.speedotansfer.service.impl.RecipientService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/account")
@@ -23,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class AccountController {
 
     private final AccountService accountService;
+    private final RecipientService recipientService;
 
     @Operation(summary = "Add new Account to User")
     @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = AccountDTO.class), mediaType = "application/json")})
@@ -50,4 +58,22 @@ public class AccountController {
             throws AccountNotFoundException {
         return accountService.getBalanceUsingAccountNumber(token, acc.getAccountNumber());
     }
+
+    @Operation(summary = "Preview the owner of an account before sending to it")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = RecipientDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", description = "Unauthorized", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "400", description = "Account Not Found", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @GetMapping("/recipient/{accountNumber}")
+    public RecipientDTO getRecipient(@RequestHeader("Authorization") String token, @PathVariable String accountNumber)
+            throws AccountNotFoundException {
+        return recipientService.preview(token, accountNumber);
+    }
+
+    @Operation(summary = "Preview the owners of up to 50 accounts; unknown numbers come back with found = false")
+    @ApiResponse(responseCode = "200", content = {@Content(array = @ArraySchema(schema = @Schema(implementation = RecipientDTO.class)), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", description = "Unauthorized", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @PostMapping("/recipients")
+    public List<RecipientDTO> getRecipients(@RequestHeader("Authorization") String token, @RequestBody @Valid RecipientLookupDTO lookup) {
+        return recipientService.preview(token, lookup.getAccountNumbers());
+    }
 }
@@ -0,0 +1,58 @@
+package com.example.speedotansfer.contoller;
+
+import com.example.speedotansfer.dto.standingOrderDTOs.CreateStandingOrderDTO;
+import com.example.speedotansfer.dto.standingOrderDTOs.StandingOrderDTO;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.exception.response.ErrorDetails;
+import com.example.speedotansfer.service.impl.StandingOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/standing-orders")
+@RequiredArgsConstructor
+@Validated
+@CrossOrigin(origins = "http://localhost:4200", allowCredentials = "true", allowedHeaders = "*")
+
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+
+    @Operation(summary = "Create a Recurring Transfer")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = StandingOrderDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "404", description = "User Not Found", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", description = "Unauthorized", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "400", description = "Unknown Receiver Account or No Account in the Send Currency", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @PostMapping
+    public StandingOrderDTO create
+            (@RequestHeader("Authorization") String token, @RequestBody @Valid CreateStandingOrderDTO createStandingOrderDTO)
+            throws UserNotFoundException, AccountNotFoundException {
+        return standingOrderService.create(token, createStandingOrderDTO);
+    }
+
+    @Operation(summary = "Get All Recurring Transfers")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = StandingOrderDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", description = "Unauthorized", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @GetMapping
+    public List<StandingOrderDTO> getStandingOrders(@RequestHeader("Authorization") String token) {
+        return standingOrderService.getStandingOrders(token);
+    }
+
+    @Operation(summary = "Cancel a Recurring Transfer")
+    @ApiResponse(responseCode = "200")
+    @ApiResponse(responseCode = "404", description = "Standing Order Not Found", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", description = "Unauthorized", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @DeleteMapping("/{standingOrderId}")
+    public void cancel(@PathVariable long standingOrderId, @RequestHeader("Authorization") String token) {
+        standingOrderService.cancel(token, standingOrderId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.speedotansfer.contoller;
 
 import com.example.speedotansfer.dto.transactionDTOs.AllTransactionsDTO;
+import com.example.speedotansfer.dto.transactionDTOs.StatementDTO;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
 import com.example.speedotansfer.exception.response.ErrorDetails;
 import com.example.speedotansfer.service.impl.TransactionService;
@@ -13,6 +14,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/transaction")
@@ -34,5 +37,28 @@ public class TransactionController {
         return transactionService.getHistory(token);
     }
 
+    @Operation(summary = "Get Transactions for a Range of Months, Archived Months Included")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = AllTransactionsDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "400", description = "Invalid Range", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "404", description = "User Not Found", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", description = "Unauthenticated", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @GetMapping("/export")
+    public AllTransactionsDTO exportTransactions(@RequestHeader("Authorization") String token,
+                                                 @RequestParam("from") YearMonth from, @RequestParam("to") YearMonth to)
+            throws UserNotFoundException {
+        return transactionService.getHistory(token, from, to);
+    }
+
+    @Operation(summary = "Get Sent and Received Totals per Currency for a Month, the Current One by Default")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = StatementDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "404", description = "User Not Found", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", description = "Unauthenticated", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @GetMapping("/statement")
+    public StatementDTO getStatement(@RequestHeader("Authorization") String token,
+                                     @RequestParam(value = "month", required = false) YearMonth month)
+            throws UserNotFoundException {
+        return transactionService.getStatement(token, month == null ? YearMonth.now() : month);
+    }
+
 
 }
@@ -1,11 +1,17 @@
 package com.example.speedotansfer.contoller;
 
+import com.example.speedotansfer.dto.transactionDTOs.AsyncTransferDTO;
 import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithUsernameDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferResponseDTO;
 import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
 import com.example.speedotansfer.exception.custom.AccountNotFoundException;
 import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
 import com.example.speedotansfer.exception.response.ErrorDetails;
+import com.example.speedotansfer.service.impl.AsyncTransferService;
 import com.example.speedotansfer.service.impl.TransferService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,8 +19,14 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.util.UUID;
 
 @RestController
 @RequiredArgsConstructor
@@ -25,6 +37,7 @@ import org.springframework.web.bind.annotation.*;
 public class TransferController {
 
     private final TransferService transferService;
+    private final AsyncTransferService asyncTransferService;
 
     @Operation(summary = "Transfer Money using Account Number")
     @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = TransferResponseDTO.class), mediaType = "application/json")})
@@ -32,12 +45,72 @@ public class TransferController {
             content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
     @ApiResponse(responseCode = "401",
             content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
-    @ApiResponse(responseCode = "400", description = "Insufficient Amount", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "400", description = "Insufficient Amount or Currency Mismatch", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
     @PostMapping
     public TransferResponseDTO transferUsingAccountNumber
             (@RequestHeader("Authorization") String token, @RequestBody @Valid SendMoneyWithAccNumberDTO details)
-            throws UserNotFoundException, InsufficientAmountException, AccountNotFoundException {
+            throws UserNotFoundException, InsufficientAmountException, AccountNotFoundException, InvalidTransferException {
         return transferService.transferUsingAccNumber(token, details);
 
     }
+
+    @Operation(summary = "Transfer Money using the recipient's Username")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = TransferResponseDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "404",
+            content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401",
+            content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "400", description = "Insufficient Amount or No Account in the Receive Currency", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @PostMapping("/username")
+    public TransferResponseDTO transferUsingUsername
+            (@RequestHeader("Authorization") String token, @RequestBody @Valid SendMoneyWithUsernameDTO details)
+            throws UserNotFoundException, InsufficientAmountException, AccountNotFoundException, InvalidTransferException {
+        return transferService.transferUsingUsername(token, details);
+    }
+
+    @Operation(summary = "Split a Payment Between Several Accounts")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = SplitTransferResponseDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "404",
+            content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401",
+            content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "400", description = "Insufficient Amount or Currency Mismatch on Any Leg", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @PostMapping("/split")
+    public SplitTransferResponseDTO splitTransfer
+            (@RequestHeader("Authorization") String token, @RequestBody @Valid SplitTransferDTO details)
+            throws UserNotFoundException, InsufficientAmountException, AccountNotFoundException, InvalidTransferException {
+        return transferService.splitTransfer(token, details);
+    }
+
+    @Operation(summary = "Queue a Transfer using Account Number and Return Immediately")
+    @ApiResponse(responseCode = "202", content = {@Content(schema = @Schema(implementation = AsyncTransferDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "404", description = "Unknown Receiver Account", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "429", description = "Transfer Queue Full, Retry Later", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @PostMapping("/async")
+    public ResponseEntity<AsyncTransferDTO> submitTransfer
+            (@RequestHeader("Authorization") String token, @RequestBody @Valid SendMoneyWithAccNumberDTO details)
+            throws UserNotFoundException {
+        AsyncTransferDTO accepted = asyncTransferService.submit(token, details);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/transfer/async/" + accepted.getTransferId()))
+                .body(accepted);
+    }
+
+    @Operation(summary = "Get the Status of a Queued Transfer")
+    @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = AsyncTransferDTO.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "404", description = "Unknown or Expired Transfer", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @ApiResponse(responseCode = "401", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @GetMapping("/async/{transferId}")
+    public AsyncTransferDTO getTransferStatus(@RequestHeader("Authorization") String token, @PathVariable UUID transferId) {
+        return asyncTransferService.getStatus(token, transferId);
+    }
+
+    @Operation(summary = "Stream the Outcome of a Queued Transfer")
+    @ApiResponse(responseCode = "200", description = "One completed or failed event, then the stream closes")
+    @ApiResponse(responseCode = "404", description = "Unknown or Expired Transfer", content = {@Content(schema = @Schema(implementation = ErrorDetails.class), mediaType = "application/json")})
+    @GetMapping(value = "/async/{transferId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTransferStatus(@RequestHeader("Authorization") String token, @PathVariable UUID transferId) {
+        return asyncTransferService.subscribe(token, transferId);
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.speedotansfer.dto.accountDTO;
+
+import com.example.speedotansfer.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientDTO {
+    private String accountNumber;
+    private boolean found;
+    // Masked, e.g. "Mo***** Ah***"; null when not found
+    private String ownerName;
+    private Currency currency;
+}
@@ -0,0 +1,15 @@
+package com.example.speedotansfer.dto.accountDTO;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RecipientLookupDTO {
+    @NotEmpty
+    @Size(max = 50)
+    private List<@NotBlank String> accountNumbers;
+}
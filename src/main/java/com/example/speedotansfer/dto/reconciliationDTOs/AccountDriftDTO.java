@@ -0,0 +1,23 @@
+package com.example.speedotansfer.dto.reconciliationDTOs;
+
+import com.example.speedotansfer.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountDriftDTO {
+    private long accountId;
+    private String accountNumber;
+    private Currency currency;
+    private double balance;
+    private double expected;
+
+    public double getDrift() {
+        return balance - expected;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.speedotansfer.dto.reconciliationDTOs;
+
+import com.example.speedotansfer.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyTotalsDTO {
+    private Currency currency;
+    private long accounts;
+    private double balance;
+    private double opening;
+    private double received;
+    private double sent;
+
+    // balance - (opening + received - sent); zero when money was conserved
+    public double getDrift() {
+        return balance - (opening + received - sent);
+    }
+}
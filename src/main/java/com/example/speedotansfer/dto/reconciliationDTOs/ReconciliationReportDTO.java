@@ -0,0 +1,30 @@
+package com.example.speedotansfer.dto.reconciliationDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReportDTO {
+    private LocalDateTime checkedAt;
+    private double tolerance;
+    private List<CurrencyTotalsDTO> currencies;
+    private List<AccountDriftDTO> driftedAccounts;
+    private long negativeBalances;
+    // Rows written before account legs and opening balances were recorded
+    private long unreconciledAccounts;
+    private long unreconciledTransactions;
+
+    public boolean isBalanced() {
+        return negativeBalances == 0
+                && driftedAccounts.isEmpty()
+                && currencies.stream().allMatch(totals -> Math.abs(totals.getDrift()) <= tolerance * Math.max(1, totals.getAccounts()));
+    }
+}
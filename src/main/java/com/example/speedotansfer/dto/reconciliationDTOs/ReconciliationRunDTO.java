@@ -0,0 +1,23 @@
+package com.example.speedotansfer.dto.reconciliationDTOs;
+
+import com.example.speedotansfer.enums.ReconciliationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunDTO {
+    private long runId;
+    private ReconciliationStatus status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int partitions;
+    private long accountsChecked;
+    private long discrepancies;
+}
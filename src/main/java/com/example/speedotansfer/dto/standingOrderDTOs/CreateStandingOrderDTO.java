@@ -0,0 +1,37 @@
+package com.example.speedotansfer.dto.standingOrderDTOs;
+
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Frequency;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateStandingOrderDTO {
+    @NotNull
+    private String accountNumber;
+    @NotNull
+    @Positive
+    private Double amount;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Currency sendCurrency;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Currency receiveCurrency;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Frequency frequency;
+    // First run; now when missing or in the past
+    private LocalDateTime startAt;
+}
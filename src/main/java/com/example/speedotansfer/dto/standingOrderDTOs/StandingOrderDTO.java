@@ -0,0 +1,28 @@
+package com.example.speedotansfer.dto.standingOrderDTOs;
+
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Frequency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrderDTO {
+    private long id;
+    private String accountNumber;
+    private double amount;
+    private Currency sendCurrency;
+    private Currency receiveCurrency;
+    private Frequency frequency;
+    private LocalDateTime nextRunAt;
+    private int runs;
+    private int attempts;
+    private boolean active;
+    private String lastError;
+}
@@ -0,0 +1,25 @@
+package com.example.speedotansfer.dto.transactionDTOs;
+
+import com.example.speedotansfer.enums.AsyncTransferStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsyncTransferDTO {
+    private UUID transferId;
+    private AsyncTransferStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+    // Set once COMPLETED
+    private TransferResponseDTO result;
+    // Set once FAILED
+    private String error;
+}
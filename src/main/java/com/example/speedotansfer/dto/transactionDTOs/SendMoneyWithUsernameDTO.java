@@ -1,5 +1,8 @@
 package com.example.speedotansfer.dto.transactionDTOs;
 
+import com.example.speedotansfer.enums.Currency;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -9,4 +12,11 @@ public class SendMoneyWithUsernameDTO {
     private String username;
     @NotNull
     private Double amount;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Currency sendCurrency;
+    // The recipient's account in this currency is credited
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Currency receiveCurrency;
 }
@@ -0,0 +1,27 @@
+package com.example.speedotansfer.dto.transactionDTOs;
+
+import com.example.speedotansfer.enums.Currency;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SplitLegDTO {
+    @NotNull
+    private String accountNumber;
+    // In the sender's currency
+    @NotNull
+    @Positive
+    private Double amount;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Currency receiveCurrency;
+}
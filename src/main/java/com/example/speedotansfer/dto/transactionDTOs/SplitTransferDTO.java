@@ -0,0 +1,30 @@
+package com.example.speedotansfer.dto.transactionDTOs;
+
+import com.example.speedotansfer.enums.Currency;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SplitTransferDTO {
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Currency sendCurrency;
+    // Every leg's account is row-locked for the whole transfer
+    @NotEmpty
+    @Size(max = 50)
+    @Valid
+    private List<SplitLegDTO> legs;
+}
@@ -0,0 +1,20 @@
+package com.example.speedotansfer.dto.transactionDTOs;
+
+import com.example.speedotansfer.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SplitTransferResponseDTO {
+    private String fromAccount;
+    private double totalAmount;
+    private Currency currency;
+    private List<TransferResponseDTO> legs;
+}
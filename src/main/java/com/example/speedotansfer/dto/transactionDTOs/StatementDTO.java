@@ -0,0 +1,19 @@
+package com.example.speedotansfer.dto.transactionDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementDTO {
+    private YearMonth month;
+    // One per currency the user sent or received in that month
+    private List<StatementLineDTO> currencies;
+}
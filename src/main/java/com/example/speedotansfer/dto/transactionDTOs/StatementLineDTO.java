@@ -0,0 +1,19 @@
+package com.example.speedotansfer.dto.transactionDTOs;
+
+import com.example.speedotansfer.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementLineDTO {
+    private Currency currency;
+    private double sent;
+    private long sentTransfers;
+    private double received;
+    private long receivedTransfers;
+}
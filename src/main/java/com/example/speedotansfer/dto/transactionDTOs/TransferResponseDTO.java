@@ -1,12 +1,16 @@
 package com.example.speedotansfer.dto.transactionDTOs;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class TransferResponseDTO {
     private long transactionId;
     private String fromAccount;
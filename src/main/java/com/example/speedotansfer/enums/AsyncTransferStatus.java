@@ -0,0 +1,8 @@
+package com.example.speedotansfer.enums;
+
+public enum AsyncTransferStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,19 @@
+package com.example.speedotansfer.enums;
+
+import java.time.LocalDateTime;
+
+public enum Frequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    // Counted from the first run rather than the previous one, so an order starting on the
+    // 31st lands on shorter month ends without drifting to the 28th for good
+    public LocalDateTime occurrence(LocalDateTime start, int n) {
+        return switch (this) {
+            case DAILY -> start.plusDays(n);
+            case WEEKLY -> start.plusWeeks(n);
+            case MONTHLY -> start.plusMonths(n);
+        };
+    }
+}
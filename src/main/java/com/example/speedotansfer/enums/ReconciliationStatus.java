@@ -0,0 +1,6 @@
+package com.example.speedotansfer.enums;
+
+public enum ReconciliationStatus {
+    RUNNING,
+    COMPLETED
+}
@@ -0,0 +1,6 @@
+package com.example.speedotansfer.event;
+
+import com.example.speedotansfer.enums.Currency;
+
+public record AccountCreatedEvent(String accountNumber, long accountId, long ownerId, Currency currency) {
+}
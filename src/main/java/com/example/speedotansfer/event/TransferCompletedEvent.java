@@ -0,0 +1,10 @@
+package com.example.speedotansfer.event;
+
+import com.example.speedotansfer.enums.Currency;
+
+import java.time.LocalDateTime;
+
+public record TransferCompletedEvent(long transactionId, long senderAccountId, long receiverAccountId,
+                                     long senderUserId, long receiverUserId, Currency currency,
+                                     double amount, double receivedAmount, LocalDateTime timestamp) {
+}
@@ -5,6 +5,7 @@ import com.example.speedotansfer.exception.response.ErrorDetails;
 import com.example.speedotansfer.exception.response.ValidationFailedResponse;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -129,6 +130,26 @@ public class GlobalExceptionHandler {
                 request.getDescription(false), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(TransferNotFoundException.class)
+    public ResponseEntity<Object> transferNotFoundExceptionHandler(TransferNotFoundException exception, WebRequest request) {
+        return new ResponseEntity<>(new ErrorDetails(LocalDateTime.now(), exception.getMessage(),
+                request.getDescription(false), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(TransferQueueFullException.class)
+    public ResponseEntity<Object> transferQueueFullExceptionHandler(TransferQueueFullException exception, WebRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorDetails(LocalDateTime.now(), exception.getMessage(),
+                        request.getDescription(false), HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    @ExceptionHandler(StandingOrderNotFoundException.class)
+    public ResponseEntity<Object> standingOrderNotFoundExceptionHandler(StandingOrderNotFoundException exception, WebRequest request) {
+        return new ResponseEntity<>(new ErrorDetails(LocalDateTime.now(), exception.getMessage(),
+                request.getDescription(false), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(AccountAlreadyExists.class)
     public ResponseEntity<Object> accountAlreadyExistsHandler(AccountAlreadyExists exception, WebRequest request) {
         return new ResponseEntity<>(new ErrorDetails(LocalDateTime.now(), exception.getMessage(),
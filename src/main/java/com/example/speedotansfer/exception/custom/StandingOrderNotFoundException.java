@@ -0,0 +1,7 @@
+package com.example.speedotansfer.exception.custom;
+
+public class StandingOrderNotFoundException extends RuntimeException {
+    public StandingOrderNotFoundException(String message) {
+        super(message);
+    }
+}
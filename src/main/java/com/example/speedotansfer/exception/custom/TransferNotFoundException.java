@@ -0,0 +1,7 @@
+package com.example.speedotansfer.exception.custom;
+
+public class TransferNotFoundException extends RuntimeException {
+    public TransferNotFoundException(String message) {
+        super(message);
+    }
+}
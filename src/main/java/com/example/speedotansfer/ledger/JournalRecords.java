@@ -0,0 +1,72 @@
+package com.example.speedotansfer.ledger;
+
+import com.example.speedotansfer.enums.Currency;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+// On-disk layout shared by journal segments: a header of magic, version and the position of the
+// segment's first record, then fixed-size records, each a CRC32 of its payload followed by the payload
+final class JournalRecords {
+
+    static final int MAGIC = 0x53504a31;
+    static final int VERSION = 2;
+    static final int HEADER = 16;
+    static final int PAYLOAD = 5 * Long.BYTES + 1 + 2 * Double.BYTES + 3 * Long.BYTES;
+    static final int RECORD = Integer.BYTES + PAYLOAD;
+
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private JournalRecords() {
+    }
+
+    static void writeHeader(ByteBuffer target, long base) {
+        target.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, base);
+    }
+
+    // Base position from a header, or -1 if it isn't one
+    static long readHeader(ByteBuffer source) {
+        if (source.limit() < HEADER || source.getInt(0) != MAGIC || source.getInt(4) != VERSION) {
+            return -1;
+        }
+        return source.getLong(8);
+    }
+
+    static void encode(ByteBuffer target, int offset, LedgerRecord record, CRC32 crc) {
+        int payload = offset + Integer.BYTES;
+        target.putLong(payload, record.transferId())
+                .putLong(payload + 8, record.senderAccountId())
+                .putLong(payload + 16, record.receiverAccountId())
+                .putLong(payload + 24, record.senderUserId())
+                .putLong(payload + 32, record.receiverUserId())
+                .put(payload + 40, (byte) record.currency().ordinal())
+                .putDouble(payload + 41, record.amount())
+                .putDouble(payload + 49, record.receivedAmount())
+                .putLong(payload + 57, record.timestamp())
+                // All zeroes for no key, which no name-based UUID is
+                .putLong(payload + 65, record.requestKey() == null ? 0 : record.requestKey().getMostSignificantBits())
+                .putLong(payload + 73, record.requestKey() == null ? 0 : record.requestKey().getLeastSignificantBits());
+        crc.reset();
+        crc.update(target.slice(payload, PAYLOAD));
+        target.putInt(offset, (int) crc.getValue());
+    }
+
+    // Null when the checksum doesn't match, which is also how never-written, zero-filled space reads
+    static LedgerRecord decode(ByteBuffer source, int offset) {
+        int payload = offset + Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(source.slice(payload, PAYLOAD));
+        if ((int) crc.getValue() != source.getInt(offset)) {
+            return null;
+        }
+        return new LedgerRecord(source.getLong(payload), source.getLong(payload + 8), source.getLong(payload + 16),
+                source.getLong(payload + 24), source.getLong(payload + 32), CURRENCIES[source.get(payload + 40)],
+                source.getDouble(payload + 41), source.getDouble(payload + 49), source.getLong(payload + 57),
+                requestKey(source.getLong(payload + 65), source.getLong(payload + 73)));
+    }
+
+    private static UUID requestKey(long most, long least) {
+        return most == 0 && least == 0 ? null : new UUID(most, least);
+    }
+}
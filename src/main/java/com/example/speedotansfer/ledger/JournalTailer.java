@@ -0,0 +1,41 @@
+package com.example.speedotansfer.ledger;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Follows the journal for a downstream consumer, which stores position() wherever it keeps its own
+// progress and resumes from it after a restart. Only ever sees durable records. Not thread-safe.
+public class JournalTailer {
+
+    private static final long IDLE_NANOS = Duration.ofMillis(1).toNanos();
+
+    private final TransferJournal journal;
+    private long position;
+
+    public JournalTailer(TransferJournal journal, long from) {
+        this.journal = journal;
+        this.position = from;
+    }
+
+    public long position() {
+        return position;
+    }
+
+    // Hands over what is there now, at most `max` records, and returns how many
+    public int poll(int max, Consumer<LedgerRecord> consumer) throws IOException {
+        long before = position;
+        position = journal.read(position, max, consumer);
+        return (int) (position - before);
+    }
+
+    // Like poll, but waits up to `wait` for a first record to arrive
+    public int poll(int max, Duration wait, Consumer<LedgerRecord> consumer) throws IOException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (journal.end() <= position && deadline - System.nanoTime() > 0) {
+            LockSupport.parkNanos(IDLE_NANOS);
+        }
+        return poll(max, consumer);
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.speedotansfer.ledger;
+
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.event.AccountCreatedEvent;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.exception.custom.TransferQueueFullException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.service.impl.helpers.CurrencyExchangeService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Balances live in memory, each account owned by one of `partitions` threads picked by account number,
+// so a balance is only ever read and written by that thread. A transfer is a message to the sender's
+// partition, which checks and debits. The journaller then appends it together with everything else that
+// arrived meanwhile, forces the journal once for the lot, acknowledges the callers and only then sends
+// each credit to the receiver's partition. LedgerSnapshotter folds the journal back into the accounts
+// table. Single node only: nothing else may write balances while the ledger is enabled.
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.ledger.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class LedgerEngine {
+
+    private static final int BATCH = 1024;
+    private static final int PURGE_THRESHOLD = 10_000;
+    // Transfer ids become the ids of their transactions rows, so they start far above anything the
+    // table's own sequence hands out, yet stay exact as JSON numbers
+    static final long FIRST_TRANSFER_ID = 1_000_000_000_000_000L;
+
+    private final AccountRepository accountRepository;
+    private final TransferJournal journal;
+    private final LedgerSnapshotter snapshotter;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.ledger.partitions:4}")
+    private int partitionCount;
+    // Debits waiting per partition before new transfers are turned away
+    @Value("${app.ledger.queue-capacity:10000}")
+    private int queueCapacity;
+    // A transfer that times out may still complete; its outcome shows up in the history
+    @Value("${app.ledger.timeout:5s}")
+    private Duration timeout;
+    @Value("${app.ledger.request-retention:1d}")
+    private Duration requestRetention;
+
+    private final Map<String, LedgerAccount> accounts = new ConcurrentHashMap<>();
+    private final Map<String, LedgerAccount> accountsByOwner = new ConcurrentHashMap<>();
+    private final BlockingQueue<Pending> journalQueue = new LinkedBlockingQueue<>();
+    private final AtomicLong transferIds = new AtomicLong();
+    // Keyed transfers that went through, so a repeat gets the original's outcome. Keys are checked and
+    // added on the sender's partition, so two tries from the same sender can't both get past the check.
+    private final Map<UUID, Request> requests = new ConcurrentHashMap<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private Partition[] partitions;
+    private volatile boolean running;
+    private volatile Throwable failure;
+
+    // Fields other than balance never change; balance belongs to the owning partition's thread
+    private static final class LedgerAccount {
+        final long id;
+        final String accountNumber;
+        final long ownerId;
+        final Currency currency;
+        double balance;
+
+        LedgerAccount(long id, String accountNumber, long ownerId, Currency currency, double balance) {
+            this.id = id;
+            this.accountNumber = accountNumber;
+            this.ownerId = ownerId;
+            this.currency = currency;
+            this.balance = balance;
+        }
+    }
+
+    private record Request(long at, CompletableFuture<TransferResponseDTO> result) {
+    }
+
+    private record Pending(LedgerRecord record, LedgerAccount sender, LedgerAccount receiver,
+                           CompletableFuture<TransferResponseDTO> result) {
+    }
+
+    // Unbounded so the journaller can always hand over a credit; debits are bounded by `waiting` instead
+    private final class Partition implements Runnable {
+        final BlockingQueue<Runnable> inbox = new LinkedBlockingQueue<>();
+        final AtomicInteger waiting = new AtomicInteger();
+
+        @Override
+        public void run() {
+            List<Runnable> batch = new ArrayList<>(BATCH);
+            while (running || !inbox.isEmpty()) {
+                try {
+                    Runnable first = inbox.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    inbox.drainTo(batch, BATCH - 1);
+                    batch.forEach(Runnable::run);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Ledger partition task failed", e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        // Whatever was acknowledged before the last stop reaches the table before balances are loaded from it
+        snapshotter.catchUp();
+        transferIds.set(Math.max(snapshotter.lastTransferId(), FIRST_TRANSFER_ID - 1));
+        long now = System.currentTimeMillis();
+        snapshotter.recentRequests().forEach((key, transferId) -> requests.put(key, new Request(now,
+                CompletableFuture.completedFuture(TransferResponseDTO.builder().transactionId(transferId).status(true).build()))));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = accountRepository.streamForLedger()) {
+                rows.forEach(row -> register(new LedgerAccount((Long) row[0], (String) row[1], (Long) row[2],
+                        (Currency) row[3], (Double) row[4])));
+            }
+        });
+
+        running = true;
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition();
+            threads.add(Thread.ofPlatform().name("ledger-partition-" + i).start(partitions[i]));
+        }
+        threads.add(Thread.ofPlatform().name("ledger-journaller").start(this::journal));
+        log.info("Ledger holds {} accounts in {} partitions", accounts.size(), partitionCount);
+    }
+
+    // Partitions finish their debits first so the journaller sees all of them; credits still queued when
+    // the partitions stop are in the journal, and the final catch-up puts them in the table
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        snapshotter.catchUp();
+    }
+
+    // Same checks, order and messages as DatabaseTransferService, except that refused transfers leave no row behind
+    // and the response names accounts by number and carries the journal's transfer id
+    public TransferResponseDTO transfer(long senderUserId, String receiverAccountNumber, double amount,
+                                        Currency sendCurrency, Currency expectedReceiveCurrency)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        return transfer(senderUserId, receiverAccountNumber, amount, sendCurrency, expectedReceiveCurrency, null);
+    }
+
+    // A transfer repeated with the key of one that went through within app.ledger.request-retention
+    // isn't paid again; it gets the first one's response, which after a restart only has the transfer id
+    public TransferResponseDTO transfer(long senderUserId, String receiverAccountNumber, double amount,
+                                        Currency sendCurrency, Currency expectedReceiveCurrency, UUID requestKey)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        if (failure != null)
+            throw new IllegalStateException("Ledger stopped after a journal failure", failure);
+
+        LedgerAccount receiver = accounts.get(receiverAccountNumber);
+        if (receiver == null)
+            throw new UserNotFoundException("Could not find receiver's account");
+
+        LedgerAccount sender = accountsByOwner.get(ownerKey(senderUserId, sendCurrency));
+        if (sender == null)
+            throw new AccountNotFoundException("You Don't have an account with this Currency");
+
+        Partition partition = partitionOf(sender);
+        if (partition.waiting.incrementAndGet() > queueCapacity) {
+            partition.waiting.decrementAndGet();
+            throw new TransferQueueFullException("Too many transfers waiting, try again shortly");
+        }
+
+        CompletableFuture<TransferResponseDTO> result = new CompletableFuture<>();
+        partition.inbox.add(() -> debit(partition, sender, receiver, amount, sendCurrency, expectedReceiveCurrency, requestKey, result));
+
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InsufficientAmountException insufficient)
+                throw insufficient;
+            if (e.getCause() instanceof InvalidTransferException invalid)
+                throw invalid;
+            if (e.getCause() instanceof RuntimeException runtime)
+                throw runtime;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Ledger did not answer within " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ledger");
+        }
+    }
+
+    public Optional<String> accountNumberOf(long ownerId, Currency currency) {
+        return Optional.ofNullable(accountsByOwner.get(ownerKey(ownerId, currency)))
+                .map(account -> account.accountNumber);
+    }
+
+    // Read on the owning partition, after every debit and credit queued there before it
+    public CompletableFuture<Double> balanceOf(String accountNumber) {
+        LedgerAccount account = accounts.get(accountNumber);
+        if (account == null) {
+            return CompletableFuture.failedFuture(new AccountNotFoundException("Can't find an account with this number"));
+        }
+        CompletableFuture<Double> balance = new CompletableFuture<>();
+        partitionOf(account).inbox.add(() -> balance.complete(account.balance));
+        return balance;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountCreated(AccountCreatedEvent event) {
+        accountRepository.findById(event.accountId()).ifPresent(account -> register(new LedgerAccount(account.getId(),
+                account.getAccountNumber(), event.ownerId(), account.getCurrency(), account.getBalance())));
+    }
+
+    // Runs on the sender's partition
+    private void debit(Partition partition, LedgerAccount sender, LedgerAccount receiver, double amount,
+                       Currency sendCurrency, Currency expectedReceiveCurrency, UUID requestKey,
+                       CompletableFuture<TransferResponseDTO> result) {
+        partition.waiting.decrementAndGet();
+        Request earlier = requestKey == null ? null : requests.get(requestKey);
+        if (earlier != null) {
+            earlier.result().whenComplete((response, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            });
+            return;
+        }
+        if (sender.balance < amount) {
+            result.completeExceptionally(new InsufficientAmountException("Insufficient funds"));
+            return;
+        }
+        if (receiver.currency != expectedReceiveCurrency) {
+            result.completeExceptionally(new InvalidTransferException("This Account is not with same Currency"));
+            return;
+        }
+
+        sender.balance -= amount;
+        double received = amount * CurrencyExchangeService.getExchangeRate(sendCurrency, receiver.currency);
+        LedgerRecord record = new LedgerRecord(transferIds.incrementAndGet(), sender.id, receiver.id,
+                sender.ownerId, receiver.ownerId, sendCurrency, amount, received, System.currentTimeMillis(), requestKey);
+        if (requestKey != null) {
+            remember(requestKey, result);
+        }
+        journalQueue.add(new Pending(record, sender, receiver, result));
+    }
+
+    private void journal() {
+        List<Pending> batch = new ArrayList<>(BATCH);
+        while (running || !journalQueue.isEmpty()) {
+            try {
+                Pending first = journalQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                journalQueue.drainTo(batch, BATCH - 1);
+                if (failure == null) {
+                    for (Pending pending : batch) {
+                        journal.append(pending.record());
+                    }
+                    journal.sync();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // The debits are only in memory and can't be made durable; stop taking transfers, a
+                // restart rebuilds the balances from the table and the journal
+                log.error("Transfer journal failed, the ledger stops accepting transfers", e);
+                failure = e;
+            }
+
+            for (Pending pending : batch) {
+                if (failure != null) {
+                    pending.result().completeExceptionally(new IllegalStateException("Ledger journal unavailable", failure));
+                    continue;
+                }
+                LedgerRecord record = pending.record();
+                partitionOf(pending.receiver()).inbox.add(() -> pending.receiver().balance += record.receivedAmount());
+                pending.result().complete(TransferResponseDTO.builder()
+                        .transactionId(record.transferId())
+                        .fromAccount(pending.sender().accountNumber)
+                        .toAccount(pending.receiver().accountNumber)
+                        .amount(record.amount())
+                        .status(true)
+                        .timestamp(LocalDateTime.now())
+                        .build());
+            }
+            batch.clear();
+        }
+    }
+
+    private void remember(UUID requestKey, CompletableFuture<TransferResponseDTO> result) {
+        long now = System.currentTimeMillis();
+        if (requests.size() > PURGE_THRESHOLD) {
+            requests.values().removeIf(request -> now - request.at() > requestRetention.toMillis());
+        }
+        requests.put(requestKey, new Request(now, result));
+    }
+
+    private void register(LedgerAccount account) {
+        // The concurrent map publishes the opening balance to the partition thread
+        accounts.putIfAbsent(account.accountNumber, account);
+        accountsByOwner.putIfAbsent(ownerKey(account.ownerId, account.currency), account);
+    }
+
+    private Partition partitionOf(LedgerAccount account) {
+        return partitions[Math.floorMod(account.accountNumber.hashCode(), partitions.length)];
+    }
+
+    private static String ownerKey(long ownerId, Currency currency) {
+        return ownerId + ":" + currency;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.speedotansfer.ledger;
+
+import com.example.speedotansfer.enums.Currency;
+
+import java.util.UUID;
+
+// One acknowledged transfer as the journal keeps it; amount is in the sender's currency,
+// receivedAmount in the receiver's. requestKey is the caller's idempotency key, if it gave one.
+public record LedgerRecord(long transferId,
+                           long senderAccountId,
+                           long receiverAccountId,
+                           long senderUserId,
+                           long receiverUserId,
+                           Currency currency,
+                           double amount,
+                           double receivedAmount,
+                           long timestamp,
+                           UUID requestKey) {
+}
@@ -0,0 +1,184 @@
+package com.example.speedotansfer.ledger;
+
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.LedgerCheckpoint;
+import com.example.speedotansfer.model.Transaction;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.LedgerCheckpointRepository;
+import com.example.speedotansfer.repository.LedgerRequests;
+import com.example.speedotansfer.repository.StatementRollups;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.service.impl.CacheService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Brings the accounts and transactions tables up to date from the journal. Each batch adds every
+// account's net change to its balance, inserts the transfers' rows, adds them to the statement
+// rollups, records the idempotency keys the transfers carried and moves the checkpoint in one
+// transaction, so after a crash the tables and the checkpoint still agree and the rest is replayed.
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.ledger.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class LedgerSnapshotter {
+
+    private final TransferJournal journal;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final StatementRollups statementRollups;
+    private final LedgerRequests ledgerRequests;
+    private final CacheService cacheService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.ledger.snapshot-batch:10000}")
+    private int batchSize;
+    // How long a keyed transfer can be repeated and still be recognised
+    @Value("${app.ledger.request-retention:1d}")
+    private Duration requestRetention;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // ISO-8601, the only duration format @Scheduled reads
+    @Scheduled(fixedDelayString = "${app.ledger.snapshot-interval:PT1S}")
+    public void snapshot() {
+        // A lock rather than synchronized: the batch waits on the database, and scheduled jobs may run on virtual threads
+        lock.lock();
+        try {
+            int applied;
+            do {
+                applied = applyBatch();
+            } while (applied == batchSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Everything durable in the journal, however long that takes
+    public void catchUp() {
+        lock.lock();
+        try {
+            int applied;
+            long total = 0;
+            while ((applied = applyBatch()) > 0) {
+                total += applied;
+            }
+            if (total > 0) {
+                log.info("Applied {} journalled transfers to the accounts table", total);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastTransferId() {
+        return checkpointRepository.findById(LedgerCheckpoint.ID)
+                .map(LedgerCheckpoint::getLastTransferId)
+                .orElse(0L);
+    }
+
+    // Transfer id by idempotency key, for keys still within the retention
+    public Map<UUID, Long> recentRequests() {
+        return ledgerRequests.since(LocalDateTime.now().minus(requestRetention));
+    }
+
+    private int applyBatch() {
+        LedgerCheckpoint checkpoint = checkpointRepository.findById(LedgerCheckpoint.ID)
+                .orElseGet(() -> LedgerCheckpoint.builder().id(LedgerCheckpoint.ID).position(journal.start()).build());
+
+        List<LedgerRecord> records = new ArrayList<>();
+        long next;
+        try {
+            next = journal.read(checkpoint.getPosition(), batchSize, records::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!records.isEmpty()) {
+            Map<Long, Double> deltas = new HashMap<>();
+            Set<Long> owners = new HashSet<>();
+            List<Transaction> transactions = new ArrayList<>(records.size());
+            List<LedgerRequests.Request> requests = new ArrayList<>();
+            StatementRollups.Batch rollups = new StatementRollups.Batch();
+            long lastTransferId = checkpoint.getLastTransferId();
+            for (LedgerRecord record : records) {
+                deltas.merge(record.senderAccountId(), -record.amount(), Double::sum);
+                deltas.merge(record.receiverAccountId(), record.receivedAmount(), Double::sum);
+                owners.add(record.senderUserId());
+                owners.add(record.receiverUserId());
+                Transaction transaction = toTransaction(record);
+                transactions.add(transaction);
+                rollups.sent(record.senderUserId(), record.senderAccountId(), transaction.getTimeStamp(), record.amount())
+                        .received(record.receiverUserId(), record.receiverAccountId(), transaction.getTimeStamp(), record.receivedAmount());
+                if (record.requestKey() != null) {
+                    requests.add(new LedgerRequests.Request(record.requestKey(), record.transferId(), transaction.getTimeStamp()));
+                }
+                lastTransferId = Math.max(lastTransferId, record.transferId());
+            }
+
+            checkpoint.setPosition(next);
+            checkpoint.setLastTransferId(lastTransferId);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                accountRepository.addToBalances(deltas);
+                transactionRepository.insertAllWithIds(transactions);
+                statementRollups.add(rollups);
+                if (!requests.isEmpty()) {
+                    ledgerRequests.addAll(requests);
+                    ledgerRequests.deleteBefore(LocalDateTime.now().minus(requestRetention));
+                }
+                checkpointRepository.save(checkpoint);
+            });
+
+            // The balance updates went around Hibernate
+            deltas.keySet().forEach(id -> entityManagerFactory.getCache().evict(Account.class, id));
+            owners.forEach(cacheService::evictAccounts);
+        }
+
+        try {
+            journal.truncate(next);
+        } catch (IOException e) {
+            log.warn("Could not truncate the transfer journal at {}", next, e);
+        }
+        return records.size();
+    }
+
+    private static Transaction toTransaction(LedgerRecord record) {
+        return Transaction.builder()
+                .id(record.transferId())
+                .status(true)
+                .sender(User.builder().internalId(record.senderUserId()).build())
+                .receiver(User.builder().internalId(record.receiverUserId()).build())
+                .senderAccount(Account.builder().id(record.senderAccountId()).build())
+                .receiverAccount(Account.builder().id(record.receiverAccountId()).build())
+                .amount(record.amount())
+                .receivedAmount(record.receivedAmount())
+                .currency(record.currency())
+                .timeStamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault()))
+                .build();
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.speedotansfer.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static com.example.speedotansfer.ledger.JournalRecords.HEADER;
+import static com.example.speedotansfer.ledger.JournalRecords.RECORD;
+
+// Segment files of a fixed number of records, each mapped into memory whole and named after the
+// position of its first record. Appends are plain memory writes under the journal's lock. Syncs
+// are group commits: one caller forces the pages written since the last force while the others
+// wait on it, and most of them then find their own records already durable. Locks rather than
+// synchronized, so virtual threads waiting on a force don't pin their carriers.
+@Slf4j
+public class MappedTransferJournal implements TransferJournal {
+
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final int retainSegments;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final CRC32 crc = new CRC32();
+    private Segment current;
+    private long appended;
+    private volatile long durable;
+
+    private record Segment(long base, int capacity, Path path, MappedByteBuffer buffer) {
+        long end() {
+            return base + capacity;
+        }
+
+        int offset(long position) {
+            return HEADER + (int) (position - base) * RECORD;
+        }
+    }
+
+    // retainSegments of 0 keeps everything until truncate; otherwise the oldest segments are
+    // deleted as new ones are rolled, whether or not every reader is done with them
+    public MappedTransferJournal(Path directory, int segmentRecords, int retainSegments) throws IOException {
+        // With a single segment, rolling would delete records that may not have been forced yet
+        if (retainSegments == 1)
+            throw new IllegalArgumentException("Retain at least two journal segments, or 0 for all");
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.retainSegments = retainSegments;
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            // Names are zero-padded positions, so they sort in journal order
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            Segment segment = map(file, -1);
+            segments.put(segment.base(), segment);
+        }
+
+        if (segments.isEmpty()) {
+            current = create(0);
+            appended = 0;
+        } else {
+            appended = recover();
+            current = segments.lastEntry().getValue();
+        }
+        durable = appended;
+        log.info("Transfer journal in {} holds positions {} to {}", directory, start(), appended);
+    }
+
+    @Override
+    public long append(LedgerRecord record) throws IOException {
+        appendLock.lock();
+        try {
+            if (appended == current.end()) {
+                roll();
+            }
+            JournalRecords.encode(current.buffer(), current.offset(appended), record, crc);
+            return appended++;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void sync() throws IOException {
+        sync(appended() - 1);
+    }
+
+    @Override
+    public void sync(long position) throws IOException {
+        if (durable > position) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            long from = durable;
+            if (from > position) {
+                return;
+            }
+            long to = appended();
+            Long oldest = segments.floorKey(from);
+            for (Segment segment : segments.subMap(oldest == null ? segments.firstKey() : oldest, true, to, false).values()) {
+                long first = Math.max(from, segment.base());
+                long last = Math.min(to, segment.end());
+                if (first < last) {
+                    segment.buffer().force(segment.offset(first), (int) (last - first) * RECORD);
+                }
+            }
+            durable = to;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    @Override
+    public long read(long from, int max, Consumer<LedgerRecord> consumer) throws IOException {
+        long to = Math.min(durable, from + max);
+        long position = from;
+        while (position < to) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(position);
+            if (entry == null || position >= entry.getValue().end())
+                throw new IllegalStateException("Journal starts at " + start() + ", position " + position + " is gone");
+            Segment segment = entry.getValue();
+            long last = Math.min(to, segment.end());
+            for (; position < last; position++) {
+                LedgerRecord record = JournalRecords.decode(segment.buffer(), segment.offset(position));
+                if (record == null)
+                    throw new IOException("Corrupt journal record at position " + position + " in " + segment.path());
+                consumer.accept(record);
+            }
+        }
+        return Math.max(from, to);
+    }
+
+    @Override
+    public long start() {
+        return segments.firstKey();
+    }
+
+    @Override
+    public long end() {
+        return durable;
+    }
+
+    // Whole segments only, and never the one being written
+    @Override
+    public boolean truncate(long position) throws IOException {
+        appendLock.lock();
+        try {
+            boolean dropped = false;
+            Iterator<Segment> oldest = segments.values().iterator();
+            while (oldest.hasNext()) {
+                Segment segment = oldest.next();
+                if (segment == current || segment.end() > position) {
+                    break;
+                }
+                oldest.remove();
+                Files.deleteIfExists(segment.path());
+                dropped = true;
+            }
+            return dropped;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+    }
+
+    private long appended() {
+        appendLock.lock();
+        try {
+            return appended;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        // Written pages of the full segment still get forced by the next sync
+        current = create(appended);
+        if (retainSegments > 0) {
+            List<Segment> expired = new ArrayList<>();
+            while (segments.size() > retainSegments) {
+                expired.add(segments.pollFirstEntry().getValue());
+            }
+            for (Segment segment : expired) {
+                Files.deleteIfExists(segment.path());
+            }
+        }
+    }
+
+    private Segment create(long base) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", base, SUFFIX));
+        Segment segment = map(path, base);
+        segments.put(base, segment);
+        return segment;
+    }
+
+    // A new file when base is given, an existing one when it is -1
+    private Segment map(Path path, long base) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = base < 0 ? channel.size() : HEADER + (long) segmentRecords * RECORD;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (base >= 0) {
+                JournalRecords.writeHeader(buffer, base);
+                buffer.force(0, HEADER);
+            } else if ((base = JournalRecords.readHeader(buffer)) < 0) {
+                throw new IOException(path + " is not a transfer journal segment");
+            }
+            // The mapping stays valid after the channel is closed
+            return new Segment(base, (int) ((size - HEADER) / RECORD), path, buffer);
+        }
+    }
+
+    // The journal ends at its first record failing the checksum: the torn tail of a write that was
+    // never synced, so never acknowledged. That can sit in an earlier segment than the last, when the
+    // process died after rolling but before the records ahead of the roll were forced, so every
+    // segment is checked, and the ones after the torn record are deleted.
+    private long recover() throws IOException {
+        Iterator<Segment> iterator = segments.values().iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            long end = recoverTail(segment);
+            if (end < segment.end()) {
+                while (iterator.hasNext()) {
+                    Segment later = iterator.next();
+                    iterator.remove();
+                    Files.deleteIfExists(later.path());
+                    log.warn("Dropped journal segment {}, written past a torn record at position {}", later.path(), end);
+                }
+                return end;
+            }
+        }
+        return segments.lastEntry().getValue().end();
+    }
+
+    // Returns the position of the segment's first bad record, or its end if there is none. What
+    // follows a bad record is zeroed, since the OS may have written later pages before the torn one
+    // and those records would otherwise reappear after the next crash.
+    private long recoverTail(Segment segment) {
+        long position = segment.base();
+        while (position < segment.end() && JournalRecords.decode(segment.buffer(), segment.offset(position)) != null) {
+            position++;
+        }
+        if (position < segment.end()) {
+            int from = segment.offset(position);
+            int length = segment.buffer().capacity() - from;
+            segment.buffer().put(from, new byte[length]);
+            segment.buffer().force(from, length);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.speedotansfer.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// Append-only log of ledger transfers. Positions count records from the first one ever written and
+// keep counting across truncations, so a stored position means the same record for the journal's lifetime.
+public interface TransferJournal extends Closeable {
+
+    // Buffers the record and returns its position; it is durable only once sync returns
+    long append(LedgerRecord record) throws IOException;
+
+    // Writes out and forces everything appended so far
+    void sync() throws IOException;
+
+    // Returns once the record at `position` and everything before it is durable
+    void sync(long position) throws IOException;
+
+    // Hands durable records from `from` to the consumer, at most `max` of them, and returns the position after the last
+    long read(long from, int max, Consumer<LedgerRecord> consumer) throws IOException;
+
+    // Position of the oldest record still held
+    long start();
+
+    // Position after the last durable record
+    long end();
+
+    // Drops records before `position` if the journal can; returns whether it did
+    boolean truncate(long position) throws IOException;
+}
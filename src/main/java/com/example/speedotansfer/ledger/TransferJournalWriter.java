@@ -0,0 +1,38 @@
+package com.example.speedotansfer.ledger;
+
+import com.example.speedotansfer.event.TransferCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.ZoneId;
+
+// Journals transfers made against the database, in the transfer's transaction just before it commits,
+// so an acknowledged transfer is always in the journal. A journal that can't be written or synced fails
+// the transfer and rolls it back. A commit that fails after the sync leaves a record whose transaction
+// id never reached the transactions table.
+@Slf4j
+@Service
+@ConditionalOnExpression("${app.journal.enabled:false} and !${app.ledger.enabled:false}")
+@RequiredArgsConstructor
+public class TransferJournalWriter {
+
+    private final TransferJournal journal;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTransferCompleted(TransferCompletedEvent event) {
+        LedgerRecord record = new LedgerRecord(event.transactionId(), event.senderAccountId(), event.receiverAccountId(),
+                event.senderUserId(), event.receiverUserId(), event.currency(), event.amount(), event.receivedAmount(),
+                event.timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), null);
+        try {
+            journal.sync(journal.append(record));
+        } catch (IOException e) {
+            log.error("Could not journal transfer {}, rolling it back", event.transactionId(), e);
+            throw new IllegalStateException("Transfer journal unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.speedotansfer.metrics;
+
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithUsernameDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitLegDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Times every way money leaves an account: the ITansfer methods on TransferService, and the ledger's keyed
+// transfers that standing orders make without it. TransferService calls into the ledger and into
+// DatabaseTransferService directly, not through these pointcuts, so each transfer is counted once.
+// Tag values are all bounded: 4 outcomes (+ unauthorized/error), 3 kinds, 12 currency pairs, 4 amount buckets
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TransferMetricsAspect {
+
+    public static final String TRANSFER_TIMER = "speedo.transfer";
+    public static final String TRANSFER_VOLUME = "speedo.transfer.volume";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* com.example.speedotansfer.service.impl.TransferService.transferUsingAccNumber(..)) && args(token, details)")
+    public Object timeTransfer(ProceedingJoinPoint joinPoint, String token, SendMoneyWithAccNumberDTO details) throws Throwable {
+        return time(joinPoint, "account_number", details.getAmount(), details.getSendCurrency(), details.getReceiveCurrency());
+    }
+
+    @Around("execution(* com.example.speedotansfer.service.impl.TransferService.transferFromUser(..)) && args(userId, details)")
+    public Object timeTransferFromUser(ProceedingJoinPoint joinPoint, long userId, SendMoneyWithAccNumberDTO details) throws Throwable {
+        return time(joinPoint, "account_number", details.getAmount(), details.getSendCurrency(), details.getReceiveCurrency());
+    }
+
+    @Around("execution(* com.example.speedotansfer.service.impl.TransferService.transferUsingUsername(..)) && args(token, details)")
+    public Object timeTransferUsingUsername(ProceedingJoinPoint joinPoint, String token, SendMoneyWithUsernameDTO details) throws Throwable {
+        return time(joinPoint, "username", details.getAmount(), details.getSendCurrency(), details.getReceiveCurrency());
+    }
+
+    // One sample for the whole split; the pair's receiving side is "MIXED" when the legs differ
+    @Around("execution(* com.example.speedotansfer.service.impl.TransferService.splitTransfer(..)) && args(token, details)")
+    public Object timeSplitTransfer(ProceedingJoinPoint joinPoint, String token, SplitTransferDTO details) throws Throwable {
+        List<SplitLegDTO> legs = details.getLegs() == null ? List.of() : details.getLegs();
+        double total = legs.stream().map(SplitLegDTO::getAmount).filter(Objects::nonNull).mapToDouble(Double::doubleValue).sum();
+        Set<Currency> receiving = legs.stream().map(SplitLegDTO::getReceiveCurrency).collect(Collectors.toSet());
+        Object receiveCurrency = receiving.size() == 1 ? receiving.iterator().next() : "MIXED";
+        return time(joinPoint, "split", total, details.getSendCurrency(), receiveCurrency);
+    }
+
+    @Around("execution(* com.example.speedotansfer.ledger.LedgerEngine.transfer(long, String, double, " +
+            "com.example.speedotansfer.enums.Currency, com.example.speedotansfer.enums.Currency, java.util.UUID)) " +
+            "&& args(senderUserId, receiverAccountNumber, amount, sendCurrency, receiveCurrency, requestKey)")
+    public Object timeLedgerTransfer(ProceedingJoinPoint joinPoint, long senderUserId, String receiverAccountNumber, double amount,
+                                     Currency sendCurrency, Currency receiveCurrency, UUID requestKey) throws Throwable {
+        return time(joinPoint, "account_number", amount, sendCurrency, receiveCurrency);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String kind, Double amount, Currency sendCurrency, Object receiveCurrency)
+            throws Throwable {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            Tags tags = Tags.of(
+                    "outcome", outcome,
+                    "kind", kind,
+                    "currency_pair", sendCurrency + "_" + receiveCurrency,
+                    "amount_bucket", amountBucket(amount));
+            Timer.builder(TRANSFER_TIMER)
+                    .description("Transfers by how the receiver was named")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            if (outcome.equals("success")) {
+                Counter.builder(TRANSFER_VOLUME)
+                        .description("Amount moved, in the sender's currency")
+                        .tag("currency", String.valueOf(sendCurrency))
+                        .register(meterRegistry)
+                        .increment(amount == null ? 0 : amount);
+            }
+        }
+    }
+
+    static String outcomeOf(Throwable e) {
+        if (e instanceof InsufficientAmountException) {
+            return "insufficient_funds";
+        }
+        if (e instanceof InvalidTransferException) {
+            return "currency_mismatch";
+        }
+        if (e instanceof UserNotFoundException || e instanceof AccountNotFoundException) {
+            return "not_found";
+        }
+        if (e instanceof AuthenticationErrorException) {
+            return "unauthorized";
+        }
+        return "error";
+    }
+
+    static String amountBucket(Double amount) {
+        if (amount == null || amount < 100) {
+            return "lt_100";
+        }
+        if (amount < 1_000) {
+            return "100_1k";
+        }
+        if (amount < 10_000) {
+            return "1k_10k";
+        }
+        return "gte_10k";
+    }
+}
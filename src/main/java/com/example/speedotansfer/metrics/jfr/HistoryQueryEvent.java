@@ -0,0 +1,39 @@
+package com.example.speedotansfer.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// TransactionService.getHistory, with the rows each side of the history returned
+@Name("speedo.HistoryQuery")
+@Label("History Query")
+@Category({"Speedo", "Transfers"})
+@StackTrace(false)
+public class HistoryQueryEvent extends jdk.jfr.Event {
+
+    @Label("User")
+    long userId;
+
+    @Label("Sent Rows")
+    int sentRows;
+
+    @Label("Received Rows")
+    int receivedRows;
+
+    public static HistoryQueryEvent start() {
+        HistoryQueryEvent event = new HistoryQueryEvent();
+        event.begin();
+        return event;
+    }
+
+    public void end(long userId, int sentRows, int receivedRows) {
+        end();
+        if (shouldCommit()) {
+            this.userId = userId;
+            this.sentRows = sentRows;
+            this.receivedRows = receivedRows;
+            commit();
+        }
+    }
+}
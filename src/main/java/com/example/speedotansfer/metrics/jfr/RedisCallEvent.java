@@ -0,0 +1,35 @@
+package com.example.speedotansfer.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// A token store round trip from RedisService
+@Name("speedo.RedisCall")
+@Label("Redis Call")
+@Category({"Speedo", "Redis"})
+@StackTrace(false)
+public class RedisCallEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Hit")
+    boolean hit;
+
+    public static RedisCallEvent start(String operation) {
+        RedisCallEvent event = new RedisCallEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public void end(boolean hit) {
+        end();
+        if (shouldCommit()) {
+            this.hit = hit;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.speedotansfer.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// The bearer token check in AuthTokenFilter: JWT parsing and signature check, then the user lookup
+@Name("speedo.TokenAuthentication")
+@Label("Token Authentication")
+@Category({"Speedo", "Security"})
+@StackTrace(false)
+public class TokenAuthenticationEvent extends jdk.jfr.Event {
+
+    @Label("JWT Parsing")
+    @Description("Part of the duration spent parsing and verifying the token")
+    @Timespan(Timespan.NANOSECONDS)
+    long jwtParsing;
+
+    @Label("Outcome")
+    String outcome;
+
+    // JFR skips transient fields
+    private transient long started;
+
+    public static TokenAuthenticationEvent start() {
+        TokenAuthenticationEvent event = new TokenAuthenticationEvent();
+        event.begin();
+        if (event.isEnabled()) {
+            event.started = System.nanoTime();
+        }
+        return event;
+    }
+
+    public void parsed() {
+        if (isEnabled()) {
+            jwtParsing = System.nanoTime() - started;
+        }
+    }
+
+    public void end(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.speedotansfer.metrics.jfr;
+
+import com.example.speedotansfer.enums.Currency;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One per phase of a single transfer: resolve (sender and receiver lookups), lock (the row locks),
+// convert (the exchange rate) and persist (the transaction insert; balance updates flush at commit)
+@Name("speedo.TransferPhase")
+@Label("Transfer Phase")
+@Category({"Speedo", "Transfers"})
+@StackTrace(false)
+public class TransferPhaseEvent extends jdk.jfr.Event {
+
+    public static final String RESOLVE = "resolve";
+    public static final String LOCK = "lock";
+    public static final String CONVERT = "convert";
+    public static final String PERSIST = "persist";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Sender")
+    @Description("Internal id of the sending user")
+    long userId;
+
+    @Label("Currency Pair")
+    String currencyPair;
+
+    @Label("Rows")
+    @Description("Rows written, for the persist phase")
+    int rows;
+
+    public static TransferPhaseEvent start(String phase) {
+        TransferPhaseEvent event = new TransferPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public void end(long userId, Currency from, Currency to) {
+        end(userId, from, to, 0);
+    }
+
+    // Fields are only filled in when the event is kept, so a disabled event costs a timestamp
+    public void end(long userId, Currency from, Currency to, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.userId = userId;
+            this.currencyPair = from + "_" + to;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
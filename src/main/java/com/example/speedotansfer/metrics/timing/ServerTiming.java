@@ -0,0 +1,107 @@
+package com.example.speedotansfer.metrics.timing;
+
+// Phase totals for one sampled request, written out as a Server-Timing header. ServerTimingFilter installs an
+// instance for the request's thread; open and close are no-ops on threads without one, so instrumented code
+// can call them unconditionally. A phase holds one open interval at a time, which fits calls that don't nest.
+public final class ServerTiming {
+
+    public enum Phase {
+        JWT("jwt", "JWT validation", null),
+        REDIS("redis", "Redis", "calls"),
+        DB("db", "Database", "statements"),
+        SERIALIZATION("ser", "Serialization", null);
+
+        private final String metric;
+        private final String description;
+        private final String unit;
+
+        Phase(String metric, String description, String unit) {
+            this.metric = metric;
+            this.description = description;
+            this.unit = unit;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long started = System.nanoTime();
+    private final long[] opened = new long[PHASES.length];
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+
+    private ServerTiming() {
+    }
+
+    static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    void end() {
+        CURRENT.remove();
+    }
+
+    public static void open(Phase phase) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.opened[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    public static void close(Phase phase) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.stop(phase);
+        }
+    }
+
+    void stop(Phase phase) {
+        int i = phase.ordinal();
+        if (opened[i] != 0) {
+            nanos[i] += System.nanoTime() - opened[i];
+            counts[i]++;
+            opened[i] = 0;
+        }
+    }
+
+    long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    int count(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    // e.g. jwt;dur=0.41;desc="JWT validation", db;dur=3.20;desc="Database, 4 statements", total;dur=5.87
+    String header() {
+        StringBuilder header = new StringBuilder(192);
+        for (Phase phase : PHASES) {
+            int i = phase.ordinal();
+            if (counts[i] == 0) {
+                continue;
+            }
+            header.append(phase.metric).append(";dur=");
+            appendMillis(header, nanos[i]);
+            header.append(";desc=\"").append(phase.description);
+            if (phase.unit != null) {
+                header.append(", ").append(counts[i]).append(' ').append(phase.unit);
+            }
+            header.append("\", ");
+        }
+        header.append("total;dur=");
+        appendMillis(header, System.nanoTime() - started);
+        return header.toString();
+    }
+
+    private static void appendMillis(StringBuilder out, long nanos) {
+        long hundredths = (nanos + 5_000) / 10_000;
+        out.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.speedotansfer.metrics.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Adds a Server-Timing header to app.server-timing.sample-rate of requests. The header has to go out before the
+// response commits, so flushes from the body are held until the chain returns; a body larger than the
+// container's buffer commits on its own and goes without the header, as do responses written through getWriter.
+@Component
+@ConditionalOnProperty(name = "app.server-timing.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    @Value("${app.server-timing.sample-rate:1.0}")
+    private double sampleRate;
+
+    // Browsers only show the timings to scripts from an origin listed in Timing-Allow-Origin
+    @Value("${app.server-timing.allow-origin:}")
+    private String allowOrigin;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ServerTiming timing = ServerTiming.begin();
+        HeldFlushResponse held = new HeldFlushResponse(response);
+        try {
+            filterChain.doFilter(request, held);
+        } finally {
+            // Opened by SerializationTimingAdvice just before the body was written
+            timing.stop(ServerTiming.Phase.SERIALIZATION);
+            timing.end();
+            if (!response.isCommitted()) {
+                response.setHeader(HEADER, timing.header());
+                if (StringUtils.hasText(allowOrigin)) {
+                    response.setHeader("Timing-Allow-Origin", allowOrigin);
+                }
+            }
+            held.release();
+        }
+    }
+
+    private static class HeldFlushResponse extends HttpServletResponseWrapper {
+
+        private boolean released;
+        private boolean flushRequested;
+        private ServletOutputStream outputStream;
+
+        HeldFlushResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new HeldFlushOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flush();
+        }
+
+        // Streams that flush after the chain returns, e.g. server-sent events, go straight through
+        void flush() throws IOException {
+            if (released) {
+                getResponse().flushBuffer();
+            } else {
+                flushRequested = true;
+            }
+        }
+
+        void release() throws IOException {
+            released = true;
+            if (flushRequested) {
+                getResponse().flushBuffer();
+            }
+        }
+
+        private class HeldFlushOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            HeldFlushOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                HeldFlushResponse.this.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Closing commits the response, so it waits for the header like a flush
+                HeldFlushResponse.this.flush();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.speedotansfer.metrics.timing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+// Each execution, a batch included, counts as one statement
+public class StatementTimingListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        ServerTiming.open(ServerTiming.Phase.DB);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        ServerTiming.close(ServerTiming.Phase.DB);
+    }
+}
@@ -9,24 +9,35 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Data
 @Entity
-@Table(name = "accounts", indexes = {@Index(columnList = "accountNumber", name = "accountNumber_idx", unique = true)})
+@Table(name = "accounts")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Account {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String accountNumber;
 
     @Column()
     private double balance = 0;
 
+    // Null for accounts opened before reconciliation was introduced
+    @Column()
+    private Double openingBalance;
+
     @Column()
     @Enumerated(EnumType.STRING)
     private Currency currency = Currency.EGY;
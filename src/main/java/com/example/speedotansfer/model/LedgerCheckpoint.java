@@ -0,0 +1,33 @@
+package com.example.speedotansfer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Single row: how far into the transfer journal the accounts and transactions tables have been brought.
+// Written in the same transaction as the balances it covers.
+@Data
+@Entity
+@Table(name = "ledger_checkpoints")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCheckpoint {
+    public static final int ID = 1;
+
+    @Id
+    private int id;
+
+    // Journal position of the first record not yet applied
+    @Column(nullable = false)
+    private long position;
+
+    @Column(nullable = false)
+    private long lastTransferId;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.example.speedotansfer.model;
+
+import com.example.speedotansfer.enums.Currency;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "reconciliation_discrepancies")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiscrepancy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private long runId;
+
+    @Column(nullable = false)
+    private long accountId;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Currency currency;
+
+    @Column(nullable = false)
+    private double balance;
+
+    @Column(nullable = false)
+    private double expected;
+
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,38 @@
+package com.example.speedotansfer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One account id range of a run; completedAt is the checkpoint a resumed run skips past
+@Data
+@Entity
+@Table(name = "reconciliation_partitions")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationPartition {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private long runId;
+
+    // Account ids in [fromAccountId, toAccountId)
+    @Column(nullable = false)
+    private long fromAccountId;
+
+    @Column(nullable = false)
+    private long toAccountId;
+
+    private LocalDateTime completedAt;
+
+    private long accountsChecked;
+
+    private long discrepancies;
+}
@@ -0,0 +1,55 @@
+package com.example.speedotansfer.model;
+
+import com.example.speedotansfer.dto.reconciliationDTOs.ReconciliationRunDTO;
+import com.example.speedotansfer.enums.ReconciliationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "reconciliation_runs")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ReconciliationStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private int partitionSize;
+
+    @Column(nullable = false)
+    private int partitions;
+
+    // Totals are filled in from the partitions when the run completes
+    private long accountsChecked;
+
+    private long discrepancies;
+
+    public ReconciliationRunDTO toDto() {
+        return ReconciliationRunDTO.builder()
+                .runId(this.id)
+                .status(this.status)
+                .startedAt(this.startedAt)
+                .finishedAt(this.finishedAt)
+                .partitions(this.partitions)
+                .accountsChecked(this.accountsChecked)
+                .discrepancies(this.discrepancies)
+                .build();
+    }
+}
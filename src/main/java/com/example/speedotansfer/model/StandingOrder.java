@@ -0,0 +1,86 @@
+package com.example.speedotansfer.model;
+
+import com.example.speedotansfer.dto.standingOrderDTOs.StandingOrderDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Frequency;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "standing_orders")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    private double amount;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Currency sendCurrency;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Currency receiveCurrency;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Frequency frequency;
+
+    @Column(nullable = false)
+    private LocalDateTime startAt;
+
+    // Occurrences run or given up on; the next one is frequency.occurrence(startAt, runs)
+    private int runs;
+
+    @Column(nullable = false)
+    private LocalDateTime nextRunAt;
+
+    // When a scheduler may pick the order up: nextRunAt, a retry time, or the end of a claim lease
+    @Column(nullable = false)
+    private LocalDateTime dueAt;
+
+    // Failed attempts at the current occurrence
+    private int attempts;
+
+    private boolean active;
+
+    private String lastError;
+
+    // Bumped by every claim, so a scheduler whose lease ran out can tell it lost the order
+    @Version
+    private long version;
+
+    public StandingOrderDTO toDto() {
+        return StandingOrderDTO.builder()
+                .id(this.id)
+                .accountNumber(this.accountNumber)
+                .amount(this.amount)
+                .sendCurrency(this.sendCurrency)
+                .receiveCurrency(this.receiveCurrency)
+                .frequency(this.frequency)
+                .nextRunAt(this.nextRunAt)
+                .runs(this.runs)
+                .attempts(this.attempts)
+                .active(this.active)
+                .lastError(this.lastError)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.speedotansfer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A month of transactions that now lives in an archive file rather than the transactions table.
+// Written in the same transaction that removes the month's rows.
+@Data
+@Entity
+@Table(name = "transaction_archives")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionArchive {
+    // First day of the month
+    @Id
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private String path;
+
+    @Column(nullable = false)
+    private long rowCount;
+
+    @Column(nullable = false)
+    private long bytes;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -8,7 +8,11 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Pattern;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
@@ -19,10 +23,12 @@ import java.util.UUID;
 @Setter
 @Getter
 @Entity
-@Table(name = "users", indexes = @Index(columnList = "internalId", name = "internalId_idx", unique = true))
+@Table(name = "users")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class User {
     @CreationTimestamp
     private final LocalDateTime creationTimeStamp = LocalDateTime.now();
@@ -39,6 +45,7 @@ public class User {
     private String username;
     @Column(nullable = false)
     private String password;
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     @Email
     private String email;
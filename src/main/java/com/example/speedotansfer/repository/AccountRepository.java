@@ -1,14 +1,20 @@
 package com.example.speedotansfer.repository;
 
 import com.example.speedotansfer.model.Account;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface AccountRepository extends JpaRepository<Account, Long> {
-    Optional<Account> findAccountByAccountNumber(String accountNumber);
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountRepositoryCustom {
 
     @Query(value = "SELECT * FROM accounts WHERE currency = ?1 AND user_id = ?2", nativeQuery = true)
     Optional<Account> findAccountByCurrencyAndUserid(String currency, long userid);
@@ -22,4 +28,52 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query(value = "SELECT * FROM accounts WHERE card_number = ?1", nativeQuery = true)
     Optional<Account> findByCardNumber(String cardNumber);
 
+    // Rows are (accountNumber, id, userId, currency); must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a.accountNumber, a.id, a.user.internalId, a.currency FROM Account a")
+    Stream<Object[]> streamDirectoryEntries();
+
+    // Rows are (currency, accounts, balance, openingBalance)
+    @Query("SELECT a.currency, COUNT(a), SUM(a.balance), SUM(a.openingBalance) FROM Account a " +
+            "WHERE a.openingBalance IS NOT NULL GROUP BY a.currency")
+    List<Object[]> sumBalancesByCurrency();
+
+    // Rows are (id, accountNumber, currency, balance, expected balance from the ledger)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a.id, a.accountNumber, a.currency, a.balance, a.openingBalance" +
+            " + COALESCE((SELECT SUM(t.receivedAmount) FROM Transaction t WHERE t.status = true AND t.receiverAccount = a), 0)" +
+            " - COALESCE((SELECT SUM(t.amount) FROM Transaction t WHERE t.status = true AND t.senderAccount = a), 0)" +
+            " FROM Account a WHERE a.openingBalance IS NOT NULL")
+    Stream<Object[]> streamExpectedBalances();
+
+    @Query("SELECT COUNT(a) FROM Account a WHERE a.balance < 0")
+    long countNegativeBalances();
+
+    @Query("SELECT COUNT(a) FROM Account a WHERE a.openingBalance IS NULL")
+    long countWithoutOpeningBalance();
+
+    @Query("SELECT MIN(a.id) FROM Account a")
+    Optional<Long> findMinId();
+
+    @Query("SELECT MAX(a.id) FROM Account a")
+    Optional<Long> findMaxId();
+
+    // Rows are (id, accountNumber, currency, balance, openingBalance) for ids in [from, to)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a.id, a.accountNumber, a.currency, a.balance, a.openingBalance FROM Account a " +
+            "WHERE a.id >= ?1 AND a.id < ?2 AND a.openingBalance IS NOT NULL")
+    Stream<Object[]> streamForReconciliation(long from, long to);
+
+    // Row is (id, accountNumber, owner id, currency, balance), everything the in-memory ledger keeps
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a.id, a.accountNumber, a.user.internalId, a.currency, a.balance FROM Account a")
+    Stream<Object[]> streamForLedger();
+
+    // Rows are (accountNumber, currency, owner's full name); one probe of the accountNumber index per number
+    @Query("SELECT a.accountNumber, a.currency, u.fullName FROM Account a JOIN a.user u WHERE a.accountNumber IN ?1")
+    List<Object[]> findRecipients(Collection<String> accountNumbers);
+
+    @Query("SELECT a FROM Account a JOIN FETCH a.user WHERE a.accountNumber IN ?1")
+    List<Account> findAllByAccountNumberIn(Collection<String> accountNumbers);
+
 }
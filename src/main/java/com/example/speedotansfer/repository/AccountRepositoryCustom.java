@@ -0,0 +1,16 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.Account;
+
+import java.util.Map;
+import java.util.Optional;
+
+public interface AccountRepositoryCustom {
+    Optional<Account> findAccountByAccountNumber(String accountNumber);
+
+    void lockForUpdate(Account... accounts);
+
+    void addToBalances(Map<Long, Double> deltas);
+
+    void addToOpeningBalances(Map<Long, Double> deltas);
+}
@@ -0,0 +1,64 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Natural id lookups resolve through the second-level cache instead of issuing a query
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Account> findAccountByAccountNumber(String accountNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Account.class)
+                .loadOptional(accountNumber);
+    }
+
+    // Reloads each row with SELECT ... FOR UPDATE, always in id order so two
+    // transfers between the same pair of accounts can't deadlock
+    @Override
+    public void lockForUpdate(Account... accounts) {
+        Arrays.stream(accounts)
+                .sorted(Comparator.comparingLong(Account::getId))
+                .forEach(account -> entityManager.refresh(account, LockModeType.PESSIMISTIC_WRITE));
+    }
+
+    // Relative updates in one JDBC batch, in id order like lockForUpdate. Bypasses the persistence
+    // context, so callers evict the affected Account entries from the second-level cache.
+    @Override
+    public void addToBalances(Map<Long, Double> deltas) {
+        add("UPDATE accounts SET balance = balance + ? WHERE id = ?", deltas);
+    }
+
+    // Same, for the opening balances reconciliation starts from. Accounts without one are left alone.
+    @Override
+    public void addToOpeningBalances(Map<Long, Double> deltas) {
+        add("UPDATE accounts SET opening_balance = opening_balance + ? WHERE id = ? AND opening_balance IS NOT NULL", deltas);
+    }
+
+    private void add(String sql, Map<Long, Double> deltas) {
+        Map<Long, Double> ordered = new TreeMap<>(deltas);
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Map.Entry<Long, Double> delta : ordered.entrySet()) {
+                    statement.setDouble(1, delta.getValue());
+                    statement.setLong(2, delta.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
@@ -2,12 +2,16 @@ package com.example.speedotansfer.repository;
 
 import com.example.speedotansfer.model.Favourite;
 import com.example.speedotansfer.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import org.springframework.data.domain.Pageable;
 import java.util.List;
 
 public interface FavouriteRepository extends JpaRepository<Favourite, Long> {
+    // The favourite users are joined in rather than loaded one select per row
+    @EntityGraph(attributePaths = {"user", "favouriteUser"})
     List<Favourite> getAllByUser(User user);
+    @EntityGraph(attributePaths = {"user", "favouriteUser"})
     List<Favourite> getAllByUser(User user, Pageable pageable);
 }
@@ -0,0 +1,7 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Integer> {
+}
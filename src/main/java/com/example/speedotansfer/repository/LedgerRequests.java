@@ -0,0 +1,46 @@
+package com.example.speedotansfer.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// The ledger_requests table, see V9__ledger_requests.sql
+@Repository
+@RequiredArgsConstructor
+public class LedgerRequests {
+
+    public record Request(UUID requestKey, long transferId, LocalDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addAll(List<Request> requests) {
+        jdbcTemplate.batchUpdate("INSERT INTO ledger_requests (request_key, transfer_id, created_at) VALUES (?, ?, ?)",
+                requests, requests.size(), (statement, request) -> {
+                    statement.setObject(1, request.requestKey());
+                    statement.setLong(2, request.transferId());
+                    statement.setTimestamp(3, Timestamp.valueOf(request.createdAt()));
+                });
+    }
+
+    // Transfer id by key
+    public Map<UUID, Long> since(LocalDateTime from) {
+        Map<UUID, Long> requests = new HashMap<>();
+        jdbcTemplate.query("SELECT request_key, transfer_id FROM ledger_requests WHERE created_at >= ?",
+                row -> {
+                    requests.put(row.getObject(1, UUID.class), row.getLong(2));
+                }, Timestamp.valueOf(from));
+        return requests;
+    }
+
+    public int deleteBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM ledger_requests WHERE created_at < ?", Timestamp.valueOf(before));
+    }
+}
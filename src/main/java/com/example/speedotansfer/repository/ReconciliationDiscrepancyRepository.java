@@ -0,0 +1,10 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.ReconciliationDiscrepancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+    List<ReconciliationDiscrepancy> findAllByRunId(long runId);
+}
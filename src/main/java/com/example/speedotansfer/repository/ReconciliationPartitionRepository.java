@@ -0,0 +1,16 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.ReconciliationPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ReconciliationPartitionRepository extends JpaRepository<ReconciliationPartition, Long> {
+    List<ReconciliationPartition> findAllByRunIdAndCompletedAtIsNullOrderByFromAccountId(long runId);
+
+    // Row is (accounts checked, discrepancies) over the completed partitions
+    @Query("SELECT COALESCE(SUM(p.accountsChecked), 0), COALESCE(SUM(p.discrepancies), 0) FROM ReconciliationPartition p " +
+            "WHERE p.runId = ?1 AND p.completedAt IS NOT NULL")
+    List<Object[]> sumCompleted(long runId);
+}
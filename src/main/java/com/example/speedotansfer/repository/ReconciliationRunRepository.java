@@ -0,0 +1,11 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.enums.ReconciliationStatus;
+import com.example.speedotansfer.model.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+    Optional<ReconciliationRun> findFirstByStatusOrderByIdDesc(ReconciliationStatus status);
+}
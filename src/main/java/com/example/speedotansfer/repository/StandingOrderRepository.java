@@ -0,0 +1,34 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.StandingOrder;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    // A lock timeout of -2 renders FOR UPDATE SKIP LOCKED, so schedulers on other nodes
+    // take the next rows instead of queueing behind this batch
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM StandingOrder s WHERE s.active = true AND s.dueAt <= ?1 ORDER BY s.dueAt")
+    List<StandingOrder> claimDue(LocalDateTime now, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StandingOrder s WHERE s.id = ?1")
+    Optional<StandingOrder> findLockedById(long id);
+
+    @Query("SELECT MIN(s.dueAt) FROM StandingOrder s WHERE s.active = true AND s.dueAt <= ?1")
+    Optional<LocalDateTime> findOldestDue(LocalDateTime now);
+
+    @Query("SELECT s FROM StandingOrder s WHERE s.user.internalId = ?1 ORDER BY s.id DESC")
+    List<StandingOrder> findAllByUserId(long userId);
+}
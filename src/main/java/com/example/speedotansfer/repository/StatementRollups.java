@@ -0,0 +1,133 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.StatementDirection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The statement_rollups table, see V8__statement_rollups.sql. A row's currency is that of the account
+// the money left or arrived in, looked up with the account, so callers only need account ids.
+@Repository
+@RequiredArgsConstructor
+public class StatementRollups {
+
+    // Parameters: user, month, direction, total, transfers, account
+    private static final String UPSERT_POSTGRES = "INSERT INTO statement_rollups (user_id, month_start, currency, direction, total, transfers) " +
+            "SELECT ?, ?, currency, ?, ?, ? FROM accounts WHERE id = ? " +
+            "ON CONFLICT (user_id, month_start, currency, direction) DO UPDATE SET " +
+            "total = statement_rollups.total + EXCLUDED.total, transfers = statement_rollups.transfers + EXCLUDED.transfers";
+
+    // H2 has no ON CONFLICT ... DO UPDATE
+    private static final String UPSERT_MERGE = "MERGE INTO statement_rollups r USING (" +
+            "SELECT CAST(? AS BIGINT) AS user_id, CAST(? AS DATE) AS month_start, currency, CAST(? AS VARCHAR(255)) AS direction, " +
+            "CAST(? AS DOUBLE PRECISION) AS total, CAST(? AS BIGINT) AS transfers FROM accounts WHERE id = ?) d " +
+            "ON (r.user_id = d.user_id AND r.month_start = d.month_start AND r.currency = d.currency AND r.direction = d.direction) " +
+            "WHEN MATCHED THEN UPDATE SET total = r.total + d.total, transfers = r.transfers + d.transfers " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, month_start, currency, direction, total, transfers) " +
+            "VALUES (d.user_id, d.month_start, d.currency, d.direction, d.total, d.transfers)";
+
+    // Completed transfers of the users in [?, ?) twice over, as sent and as received, in every month
+    // still in the table that hasn't been archived. Rows from before transfers recorded their account
+    // legs were received in the currency they were sent in.
+    private static final String REBUILD = "INSERT INTO statement_rollups (user_id, month_start, currency, direction, total, transfers) " +
+            "SELECT user_id, month_start, currency, direction, SUM(amount), COUNT(*) FROM (" +
+            "SELECT t.sender_id AS user_id, CAST(DATE_TRUNC('MONTH', t.time_stamp) AS DATE) AS month_start, " +
+            "t.currency AS currency, 'SENT' AS direction, t.amount AS amount " +
+            "FROM transactions t WHERE t.status = TRUE AND t.time_stamp IS NOT NULL AND t.sender_id >= ? AND t.sender_id < ? " +
+            "UNION ALL " +
+            "SELECT t.receiver_id, CAST(DATE_TRUNC('MONTH', t.time_stamp) AS DATE), " +
+            "COALESCE(a.currency, t.currency), 'RECEIVED', COALESCE(t.received_amount, t.amount) " +
+            "FROM transactions t LEFT JOIN accounts a ON a.id = t.receiver_account_id " +
+            "WHERE t.status = TRUE AND t.time_stamp IS NOT NULL AND t.receiver_id >= ? AND t.receiver_id < ?" +
+            ") legs WHERE month_start NOT IN (SELECT month_start FROM transaction_archives) " +
+            "GROUP BY user_id, month_start, currency, direction";
+
+    public record Rollup(Currency currency, StatementDirection direction, double total, long transfers) {
+    }
+
+    private record Key(long userId, long accountId, YearMonth month, StatementDirection direction) {
+    }
+
+    // Transfers summed per user, account, month and direction, so a batch of them is written with
+    // one statement per row it touches
+    public static final class Batch {
+
+        private final Map<Key, double[]> totals = new LinkedHashMap<>();
+
+        public Batch sent(long userId, long accountId, LocalDateTime timeStamp, double amount) {
+            return add(new Key(userId, accountId, YearMonth.from(timeStamp), StatementDirection.SENT), amount);
+        }
+
+        public Batch received(long userId, long accountId, LocalDateTime timeStamp, double amount) {
+            return add(new Key(userId, accountId, YearMonth.from(timeStamp), StatementDirection.RECEIVED), amount);
+        }
+
+        private Batch add(Key key, double amount) {
+            double[] total = totals.computeIfAbsent(key, k -> new double[2]);
+            total[0] += amount;
+            total[1]++;
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return totals.isEmpty();
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    // Runs in the caller's transaction. Callers hold the accounts' row locks, and each rollup row
+    // belongs to a single account, so this takes no lock a transfer wouldn't already wait on.
+    public void add(Batch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(batch.totals.size());
+        batch.totals.forEach((key, total) -> rows.add(new Object[]{key.userId(), Date.valueOf(key.month().atDay(1)),
+                key.direction().name(), total[0], (long) total[1], key.accountId()}));
+        // In account order, like the locks the callers hold
+        rows.sort(Comparator.comparingLong(row -> (Long) row[5]));
+        jdbcTemplate.batchUpdate(isPostgres() ? UPSERT_POSTGRES : UPSERT_MERGE, rows);
+    }
+
+    // At most one row per currency and direction
+    public List<Rollup> find(long userId, YearMonth month) {
+        return jdbcTemplate.query("SELECT currency, direction, total, transfers FROM statement_rollups " +
+                        "WHERE user_id = ? AND month_start = ? ORDER BY currency, direction",
+                (row, i) -> new Rollup(Currency.valueOf(row.getString("currency")),
+                        StatementDirection.valueOf(row.getString("direction")), row.getDouble("total"), row.getLong("transfers")),
+                userId, Date.valueOf(month.atDay(1)));
+    }
+
+    // Regenerates the rollups of users in [fromUserId, toUserId) from transactions, in the caller's
+    // transaction; archived months keep theirs. The users' accounts are locked first, in the order
+    // transfers lock them, so no transfer of theirs is half counted. Returns the rows written.
+    public int rebuild(long fromUserId, long toUserId) {
+        jdbcTemplate.queryForList("SELECT id FROM accounts WHERE user_id >= ? AND user_id < ? ORDER BY id FOR UPDATE",
+                Long.class, fromUserId, toUserId);
+        jdbcTemplate.update("DELETE FROM statement_rollups WHERE user_id >= ? AND user_id < ? " +
+                "AND month_start NOT IN (SELECT month_start FROM transaction_archives)", fromUserId, toUserId);
+        return jdbcTemplate.update(REBUILD, fromUserId, toUserId, fromUserId, toUserId);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.TransactionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TransactionArchiveRepository extends JpaRepository<TransactionArchive, LocalDate> {
+    List<TransactionArchive> findAllByMonthStartBetweenOrderByMonthStart(LocalDate from, LocalDate to);
+}
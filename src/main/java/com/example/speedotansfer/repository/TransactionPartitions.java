@@ -0,0 +1,91 @@
+package com.example.speedotansfer.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// The monthly partitions of transactions on PostgreSQL, see V7__partition_transactions.sql. H2, in
+// tests and the local profile, keeps transactions as one table, and a month is removed by deleting its rows.
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class TransactionPartitions {
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'transactions_'yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean partitioned;
+
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            boolean postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+            partitioned = postgres && jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('transactions')", Integer.class) > 0;
+        }
+        return partitioned;
+    }
+
+    // Creates the partitions for `from` and the months after it, up to `ahead` of them, where missing
+    public void createThrough(YearMonth from, int ahead) {
+        if (!isPartitioned()) {
+            return;
+        }
+        for (int i = 0; i <= ahead; i++) {
+            YearMonth month = from.plusMonths(i);
+            // Fails if the default partition already holds rows for the month; they have to be moved out by hand
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + NAME.format(month) + " PARTITION OF transactions " +
+                    "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    // Months before `before` that may still hold rows, oldest first; every partition on PostgreSQL,
+    // otherwise the months that do
+    public List<YearMonth> monthsBefore(YearMonth before) {
+        if (isPartitioned()) {
+            List<YearMonth> months = new ArrayList<>();
+            for (String name : jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "WHERE i.inhparent = 'transactions'::regclass AND c.relname <> 'transactions_default' ORDER BY c.relname", String.class)) {
+                YearMonth month = YearMonth.parse(name, NAME);
+                if (month.isBefore(before)) {
+                    months.add(month);
+                }
+            }
+            return months;
+        }
+        return jdbcTemplate.query("SELECT DISTINCT EXTRACT(YEAR FROM time_stamp) AS y, EXTRACT(MONTH FROM time_stamp) AS m " +
+                        "FROM transactions WHERE time_stamp < ? ORDER BY y, m",
+                (row, i) -> YearMonth.of(row.getInt("y"), row.getInt("m")), Timestamp.valueOf(start(before)));
+    }
+
+    // Removes the month from transactions and returns how many rows it held. Runs in the caller's
+    // transaction; on PostgreSQL the partition is locked first, so nothing is written to it between
+    // the count and the drop.
+    public long drop(YearMonth month) {
+        if (isPartitioned()) {
+            String partition = NAME.format(month);
+            jdbcTemplate.execute("LOCK TABLE " + partition + " IN ACCESS EXCLUSIVE MODE");
+            long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Long.class);
+            jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Dropped partition {} with {} rows", partition, rows);
+            return rows;
+        }
+        return jdbcTemplate.update("DELETE FROM transactions WHERE time_stamp >= ? AND time_stamp < ?",
+                Timestamp.valueOf(start(month)), Timestamp.valueOf(start(month.plusMonths(1))));
+    }
+
+    public static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
@@ -1,12 +1,57 @@
 package com.example.speedotansfer.repository;
 
 import com.example.speedotansfer.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
+    // Both users in the same query; toDto reads their usernames
+    @EntityGraph(attributePaths = {"sender", "receiver"})
     List<Transaction> findAllBySenderInternalId(Long id);
+    @EntityGraph(attributePaths = {"sender", "receiver"})
     List<Transaction> findAllByReceiverInternalId(Long id);
+
+    // Bounded by time, so on the partitioned table Postgres only visits the months in [from, to)
+    @EntityGraph(attributePaths = {"sender", "receiver"})
+    @Query("SELECT t FROM Transaction t WHERE t.sender.internalId = ?1 AND t.timeStamp >= ?2 AND t.timeStamp < ?3")
+    List<Transaction> findSentBetween(long userId, LocalDateTime from, LocalDateTime to);
+    @EntityGraph(attributePaths = {"sender", "receiver"})
+    @Query("SELECT t FROM Transaction t WHERE t.receiver.internalId = ?1 AND t.timeStamp >= ?2 AND t.timeStamp < ?3")
+    List<Transaction> findReceivedBetween(long userId, LocalDateTime from, LocalDateTime to);
+
+    // Rows are (currency, total debited) for successful transfers
+    @Query("SELECT a.currency, SUM(t.amount) FROM Transaction t JOIN t.senderAccount a " +
+            "WHERE t.status = true AND a.openingBalance IS NOT NULL GROUP BY a.currency")
+    List<Object[]> sumSentByCurrency();
+
+    // Rows are (currency, total credited after conversion) for successful transfers
+    @Query("SELECT a.currency, SUM(t.receivedAmount) FROM Transaction t JOIN t.receiverAccount a " +
+            "WHERE t.status = true AND a.openingBalance IS NOT NULL GROUP BY a.currency")
+    List<Object[]> sumReceivedByCurrency();
+
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.status = true AND (t.senderAccount IS NULL OR t.receiverAccount IS NULL)")
+    long countWithoutAccountLegs();
+
+    // Rows are (sender account id, amount) for successful transfers out of accounts in [from, to)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.senderAccount.id, t.amount FROM Transaction t " +
+            "WHERE t.status = true AND t.senderAccount.id >= ?1 AND t.senderAccount.id < ?2")
+    Stream<Object[]> streamDebits(long from, long to);
+
+    // Rows are (receiver account id, amount credited) for successful transfers into accounts in [from, to)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.receiverAccount.id, t.receivedAmount FROM Transaction t " +
+            "WHERE t.status = true AND t.receiverAccount.id >= ?1 AND t.receiverAccount.id < ?2")
+    Stream<Object[]> streamCredits(long from, long to);
 }
@@ -0,0 +1,12 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.Transaction;
+
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+    void insertAll(List<Transaction> transactions);
+
+    // Rows whose ids were assigned outside the database
+    void insertAllWithIds(List<Transaction> transactions);
+}
@@ -0,0 +1,85 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+// Hibernate can't batch inserts into an identity column, so multi-leg transfers write their
+// rows as one JDBC batch on the session's connection and read the ids back from it. The ledger's
+// rows already have ids and go in the same way with them.
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final String INSERT = "INSERT INTO transactions (amount, currency, status, time_stamp, sender_id, receiver_id, " +
+            "sender_account_id, receiver_account_id, received_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_WITH_ID = "INSERT INTO transactions (amount, currency, status, time_stamp, sender_id, receiver_id, " +
+            "sender_account_id, receiver_account_id, received_amount, id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<Transaction> transactions) {
+        Session session = entityManager.unwrap(Session.class);
+        // Rows reference accounts and users that may still be pending in the session
+        session.flush();
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, new String[]{"id"})) {
+                for (Transaction transaction : transactions) {
+                    bind(statement, transaction);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (Transaction transaction : transactions) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Missing generated id for a batched transaction");
+                        }
+                        transaction.setId(keys.getLong(1));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void insertAllWithIds(List<Transaction> transactions) {
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_WITH_ID)) {
+                for (Transaction transaction : transactions) {
+                    bind(statement, transaction);
+                    statement.setLong(10, transaction.getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private static void bind(PreparedStatement statement, Transaction transaction) throws SQLException {
+        statement.setDouble(1, transaction.getAmount());
+        statement.setString(2, transaction.getCurrency().name());
+        statement.setBoolean(3, transaction.isStatus());
+        statement.setTimestamp(4, Timestamp.valueOf(transaction.getTimeStamp()));
+        statement.setLong(5, transaction.getSender().getInternalId());
+        statement.setLong(6, transaction.getReceiver().getInternalId());
+        statement.setLong(7, transaction.getSenderAccount().getId());
+        statement.setLong(8, transaction.getReceiverAccount().getId());
+        if (transaction.getReceivedAmount() == null) {
+            statement.setNull(9, Types.DOUBLE);
+        } else {
+            statement.setDouble(9, transaction.getReceivedAmount());
+        }
+    }
+}
@@ -8,12 +8,23 @@ import org.springframework.data.jpa.repository.Query;
 import java.util.Optional;
 
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findUserByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     Optional<User> findUserByAccount(Account account);
 
-    Optional<User> findUserByInternalId(Long internalId);
+    // findById goes through the second-level cache, a derived query would not
+    default Optional<User> findUserByInternalId(Long internalId) {
+        return findById(internalId);
+    }
+
+    @Query("SELECT u.internalId FROM User u WHERE u.username = ?1")
+    Optional<Long> findInternalIdByUsername(String username);
+
+    @Query("SELECT MIN(u.internalId) FROM User u")
+    Optional<Long> findMinId();
+
+    @Query("SELECT MAX(u.internalId) FROM User u")
+    Optional<Long> findMaxId();
 
     boolean existsByUsername(String username);
 
@@ -21,6 +32,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByPhoneNumber(String phoneNumber);
 
-    @Query(value = "SELECT users.* FROM users JOIN accounts on users.internal_id = accounts.user_internal_id AND accounts.account_number = ?1", nativeQuery = true)
+    @Query(value = "SELECT users.* FROM users JOIN accounts on users.internal_id = accounts.user_id AND accounts.account_number = ?1", nativeQuery = true)
     Optional<User> getUserFromAccountNumber(String accountNumber);
 }
@@ -0,0 +1,13 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findUserByEmail(String email);
+
+    List<User> findAllByInternalIds(Collection<Long> internalIds);
+}
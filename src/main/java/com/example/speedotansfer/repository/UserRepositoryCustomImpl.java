@@ -0,0 +1,37 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+// Natural id lookups resolve through the second-level cache instead of issuing a query
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findUserByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+
+    // Ids already in the second-level cache are not queried; missing ids are left out
+    @Override
+    public List<User> findAllByInternalIds(Collection<Long> internalIds) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(User.class)
+                .multiLoad(new ArrayList<>(internalIds))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
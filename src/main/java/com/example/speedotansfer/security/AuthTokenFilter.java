@@ -1,6 +1,8 @@
 package com.example.speedotansfer.security;
 
 import com.example.speedotansfer.exception.custom.InvalidJwtTokenException;
+import com.example.speedotansfer.metrics.jfr.TokenAuthenticationEvent;
+import com.example.speedotansfer.metrics.timing.ServerTiming;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -35,10 +37,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     protected void doFilterInternal
             (@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain)
             throws ServletException, IOException {
+        String jwt = parseJwt(request);
+        TokenAuthenticationEvent event = jwt == null ? null : TokenAuthenticationEvent.start();
+        String outcome = "invalid";
         try {
-            String jwt = parseJwt(request);
+            ServerTiming.open(ServerTiming.Phase.JWT);
             if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
                 String username = jwtUtils.getUserEmailFromJwtToken(jwt);
+                event.parsed();
+                ServerTiming.close(ServerTiming.Phase.JWT);
 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
@@ -46,11 +53,18 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                         userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                outcome = "authenticated";
             }
         } catch (InvalidJwtTokenException e) {
             logger.error("Invalid JWT token Expired or revoked or Can't be Parsed : {}", e);
         } catch (UsernameNotFoundException e) {
+            outcome = "unknown_user";
             logger.error("Email Found in token do not exist in Database : {}", e);
+        } finally {
+            ServerTiming.close(ServerTiming.Phase.JWT);
+            if (event != null) {
+                event.end(outcome);
+            }
         }
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,14 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.transactionDTOs.AsyncTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+public interface IAsyncTransfer {
+    AsyncTransferDTO submit(String token, SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO) throws UserNotFoundException;
+    AsyncTransferDTO getStatus(String token, UUID transferId);
+    SseEmitter subscribe(String token, UUID transferId);
+}
@@ -0,0 +1,12 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.accountDTO.RecipientDTO;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+
+import java.util.List;
+
+public interface IRecipient {
+    RecipientDTO preview(String token, String accountNumber) throws AccountNotFoundException;
+
+    List<RecipientDTO> preview(String token, List<String> accountNumbers);
+}
@@ -0,0 +1,7 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.reconciliationDTOs.ReconciliationReportDTO;
+
+public interface IReconciliation {
+    ReconciliationReportDTO reconcile();
+}
@@ -0,0 +1,9 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.reconciliationDTOs.ReconciliationRunDTO;
+
+public interface IReconciliationJob {
+    ReconciliationRunDTO run();
+
+    ReconciliationRunDTO resume(long runId);
+}
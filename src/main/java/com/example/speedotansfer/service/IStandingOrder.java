@@ -0,0 +1,14 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.standingOrderDTOs.CreateStandingOrderDTO;
+import com.example.speedotansfer.dto.standingOrderDTOs.StandingOrderDTO;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+
+import java.util.List;
+
+public interface IStandingOrder {
+    StandingOrderDTO create(String token, CreateStandingOrderDTO createStandingOrderDTO) throws UserNotFoundException, AccountNotFoundException;
+    List<StandingOrderDTO> getStandingOrders(String token);
+    void cancel(String token, long standingOrderId);
+}
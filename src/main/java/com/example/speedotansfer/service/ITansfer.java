@@ -1,12 +1,27 @@
 package com.example.speedotansfer.service;
 
 import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithUsernameDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferResponseDTO;
 import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
 import com.example.speedotansfer.exception.custom.AccountNotFoundException;
 import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
 
 public interface ITansfer {
     public TransferResponseDTO transferUsingAccNumber(String token, SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO)
-            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException;
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException;
+
+    // For callers that have already established who the sender is, e.g. standing orders
+    public TransferResponseDTO transferFromUser(long userId, SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException;
+
+    public TransferResponseDTO transferUsingUsername(String token, SendMoneyWithUsernameDTO sendMoneyWithUsernameDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException;
+
+    // All legs succeed or none do; the sender is debited once for the total
+    public SplitTransferResponseDTO splitTransfer(String token, SplitTransferDTO splitTransferDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException;
 }
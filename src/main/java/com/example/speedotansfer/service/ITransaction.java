@@ -1,14 +1,21 @@
 package com.example.speedotansfer.service;
 
 import com.example.speedotansfer.dto.transactionDTOs.AllTransactionsDTO;
+import com.example.speedotansfer.dto.transactionDTOs.StatementDTO;
 import com.example.speedotansfer.exception.custom.InvalidJwtTokenException;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
 import org.springframework.security.core.AuthenticationException;
 
+import java.time.YearMonth;
+
 public interface ITransaction {
 
 //    TransferResponseDTO transferUsingUsername(String token, SendMoneyWithUsernameDTO sendMoneyWithUsernameDTO) throws InsufficientAmountException, UserNotFoundException;
 
     AllTransactionsDTO getHistory(String token) throws UserNotFoundException, InvalidJwtTokenException, AuthenticationException;
 
+    AllTransactionsDTO getHistory(String token, YearMonth from, YearMonth to) throws UserNotFoundException, InvalidJwtTokenException, AuthenticationException;
+
+    StatementDTO getStatement(String token, YearMonth month) throws UserNotFoundException, InvalidJwtTokenException, AuthenticationException;
+
 }
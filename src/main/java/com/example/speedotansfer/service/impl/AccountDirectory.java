@@ -0,0 +1,102 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.event.AccountCreatedEvent;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.service.impl.helpers.AccountIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// In-process map of account number -> (account id, owner id, currency).
+// Until the startup scan finishes every lookup falls through to the database.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountDirectory {
+
+    private final AccountRepository accountRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.account-directory.enabled:true}")
+    private boolean enabled;
+    // Rejects numbers missing from the index without asking the database. Only for a single node
+    // through which every account is created: other nodes, SQL and the dataset generator don't
+    // reach this index, and their accounts would be reported as not found.
+    @Value("${app.account-directory.authoritative:false}")
+    private boolean authoritative;
+    @Value("${app.account-directory.expected-size:1024}")
+    private int expectedSize;
+
+    private volatile AccountIndex index;
+    private volatile boolean warmed;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        // Published before the scan so accounts created meanwhile are not lost
+        AccountIndex index = new AccountIndex(expectedSize);
+        this.index = index;
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = accountRepository.streamDirectoryEntries()) {
+                rows.forEach(row -> put(index, (String) row[0], (Long) row[1], (Long) row[2], (Currency) row[3]));
+            }
+        });
+
+        warmed = true;
+        log.info("Account directory warmed with {} accounts in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountCreated(AccountCreatedEvent event) {
+        AccountIndex index = this.index;
+        if (index != null) {
+            put(index, event.accountNumber(), event.accountId(), event.ownerId(), event.currency());
+        }
+    }
+
+    public Optional<AccountIndex.Entry> find(String accountNumber) {
+        AccountIndex index = this.index;
+        long key = AccountIndex.toKey(accountNumber);
+        if (index == null || key < 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(index.get(key));
+    }
+
+    // True only when the number is certainly not an account, so callers can skip the database
+    public boolean rejects(String accountNumber) {
+        if (!warmed || !authoritative) {
+            return false;
+        }
+        long key = AccountIndex.toKey(accountNumber);
+        return key >= 0 && index.get(key) == null;
+    }
+
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    private static void put(AccountIndex index, String accountNumber, long accountId, long ownerId, Currency currency) {
+        long key = AccountIndex.toKey(accountNumber);
+        // Numbers that don't fit a key are never rejected, lookups for them go to the database
+        if (key >= 0) {
+            index.put(key, accountId, ownerId, currency);
+        }
+    }
+}
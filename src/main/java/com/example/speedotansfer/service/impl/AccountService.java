@@ -3,6 +3,7 @@ package com.example.speedotansfer.service.impl;
 
 import com.example.speedotansfer.dto.accountDTO.AccountDTO;
 import com.example.speedotansfer.dto.userDTOs.BalanceDTO;
+import com.example.speedotansfer.event.AccountCreatedEvent;
 import com.example.speedotansfer.exception.custom.AccountAlreadyExists;
 import com.example.speedotansfer.exception.custom.AccountNotFoundException;
 import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
@@ -13,8 +14,10 @@ import com.example.speedotansfer.repository.AccountRepository;
 import com.example.speedotansfer.repository.UserRepository;
 import com.example.speedotansfer.service.IAccount;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,9 +32,13 @@ public class AccountService implements IAccount {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final RedisService redisService;
+    private final CacheService cacheService;
+    private final AccountDirectory accountDirectory;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Override
+    @Transactional(readOnly = true)
     public BalanceDTO getBalance(String token) {
         token = token.substring(7);
 
@@ -60,6 +67,7 @@ public class AccountService implements IAccount {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BalanceDTO getBalanceUsingAccountNumber(String token, String accountNumber) throws AccountNotFoundException, AuthenticationException {
         token = token.substring(7);
 
@@ -69,6 +77,9 @@ public class AccountService implements IAccount {
 
         long id = redisService.getUserIdByToken(token);
 
+        if (accountDirectory.rejects(accountNumber))
+            throw new AccountNotFoundException("Can't account with this number");
+
         Account account = accountRepository.findAccountByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountNotFoundException("Can't account with this number"));
 
@@ -110,6 +121,7 @@ public class AccountService implements IAccount {
         Account account = Account.builder()
                 .currency(acc.getCurrency())
                 .balance(100)
+                .openingBalance(100.0)
                 .accountNumber(generateNumber())
                 .cardholderName(acc.getCardholderName())
                 .cardNumber(acc.getCardNumber())
@@ -119,6 +131,8 @@ public class AccountService implements IAccount {
                 .build();
 
         accountRepository.save(account);
+        cacheService.evictAccounts(id);
+        eventPublisher.publishEvent(new AccountCreatedEvent(account.getAccountNumber(), account.getId(), id, account.getCurrency()));
 
         return account.toDTO();
     }
@@ -0,0 +1,228 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.dto.transactionDTOs.AsyncTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.enums.AsyncTransferStatus;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.exception.custom.TransferNotFoundException;
+import com.example.speedotansfer.exception.custom.TransferQueueFullException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.service.IAsyncTransfer;
+import com.example.speedotansfer.service.ITansfer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Accepted transfers run on one of `workers` single-threaded partitions chosen by sender account,
+// so transfers out of one account execute in submission order and never queue on each other's
+// row lock. Each partition holds at most `queue-capacity` waiting transfers; past that,
+// submissions are refused with 429 instead of tying up request threads. Statuses are kept by
+// the node that accepted the transfer, for `retention` after it finishes.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AsyncTransferService implements IAsyncTransfer {
+
+    public static final String QUEUED = "speedo.transfer.async.queued";
+
+    private final ITansfer transferService;
+    private final RedisService redisService;
+    private final AccountDirectory accountDirectory;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.transfers.async.workers:8}")
+    private int workers;
+    @Value("${app.transfers.async.queue-capacity:500}")
+    private int queueCapacity;
+    @Value("${app.transfers.async.retention:10m}")
+    private Duration retention;
+    @Value("${app.transfers.async.sse-timeout:30s}")
+    private Duration sseTimeout;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolExecutor[] partitions;
+    private final Map<UUID, Submission> submissions = new ConcurrentHashMap<>();
+
+    private static final class Submission {
+        private final long userId;
+        private final List<SseEmitter> listeners = new CopyOnWriteArrayList<>();
+        private volatile AsyncTransferDTO state;
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Submission(long userId, AsyncTransferDTO state) {
+            this.userId = userId;
+            this.state = state;
+        }
+
+        private void finish(AsyncTransferDTO done, long expiresAt) {
+            this.state = done;
+            this.expiresAt = expiresAt;
+            // Whoever removes a listener sends to it, so subscribe() and finish() never both do
+            for (SseEmitter emitter : listeners) {
+                if (listeners.remove(emitter)) {
+                    send(emitter, done);
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        partitions = new ThreadPoolExecutor[workers];
+        for (int i = 0; i < workers; i++) {
+            // Workers spend their time waiting on the database, which is cheap on a virtual thread
+            Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+            ThreadFactory threads = builder.name("transfer-worker-" + i).factory();
+            partitions[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), threads);
+        }
+        Gauge.builder(QUEUED, this, service -> Arrays.stream(service.partitions).mapToInt(p -> p.getQueue().size()).sum())
+                .description("Accepted transfers waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    // Lets queued transfers finish; anything still queued after the wait is lost with the node
+    @PreDestroy
+    void stop() throws InterruptedException {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public AsyncTransferDTO submit(String token, SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO) throws UserNotFoundException {
+        long id = authenticate(token);
+
+        if (accountDirectory.rejects(sendMoneyWithAccNumberDTO.getAccountNumber()))
+            throw new UserNotFoundException("Could not find receiver's account");
+
+        UUID transferId = UUID.randomUUID();
+        Submission submission = new Submission(id, AsyncTransferDTO.builder()
+                .transferId(transferId)
+                .status(AsyncTransferStatus.QUEUED)
+                .submittedAt(LocalDateTime.now())
+                .build());
+        submissions.put(transferId, submission);
+
+        try {
+            partitionFor(id, sendMoneyWithAccNumberDTO.getSendCurrency())
+                    .execute(() -> execute(submission, sendMoneyWithAccNumberDTO));
+        } catch (RejectedExecutionException e) {
+            submissions.remove(transferId);
+            throw new TransferQueueFullException("Too many transfers in progress, try again shortly");
+        }
+        return submission.state;
+    }
+
+    @Override
+    public AsyncTransferDTO getStatus(String token, UUID transferId) {
+        return find(token, transferId).state;
+    }
+
+    // Sends one event named after the final status, then closes the stream
+    @Override
+    public SseEmitter subscribe(String token, UUID transferId) {
+        Submission submission = find(token, transferId);
+
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        emitter.onCompletion(() -> submission.listeners.remove(emitter));
+        emitter.onTimeout(() -> submission.listeners.remove(emitter));
+        submission.listeners.add(emitter);
+
+        AsyncTransferDTO state = submission.state;
+        if (isDone(state) && submission.listeners.remove(emitter)) {
+            send(emitter, state);
+        }
+        return emitter;
+    }
+
+    // ISO-8601, the only duration format @Scheduled reads
+    @Scheduled(fixedDelayString = "${app.transfers.async.purge-interval:PT60S}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        submissions.values().removeIf(submission -> submission.expiresAt - now <= 0);
+    }
+
+    private void execute(Submission submission, SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO) {
+        submission.state = submission.state.toBuilder().status(AsyncTransferStatus.RUNNING).build();
+
+        AsyncTransferDTO.AsyncTransferDTOBuilder done = submission.state.toBuilder();
+        try {
+            done.status(AsyncTransferStatus.COMPLETED)
+                    .result(transferService.transferFromUser(submission.userId, sendMoneyWithAccNumberDTO));
+        } catch (InsufficientAmountException | UserNotFoundException | AccountNotFoundException | InvalidTransferException e) {
+            done.status(AsyncTransferStatus.FAILED).error(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Async transfer {} failed", submission.state.getTransferId(), e);
+            done.status(AsyncTransferStatus.FAILED).error("Transfer failed");
+        }
+
+        submission.finish(done.completedAt(LocalDateTime.now()).build(), System.nanoTime() + retention.toNanos());
+    }
+
+    private ThreadPoolExecutor partitionFor(long userId, Currency sendCurrency) {
+        return partitions[Math.floorMod(Long.hashCode(userId) * 31 + sendCurrency.ordinal(), workers)];
+    }
+
+    private Submission find(String token, UUID transferId) {
+        long id = authenticate(token);
+
+        Submission submission = submissions.get(transferId);
+        if (submission == null || submission.userId != id || submission.expiresAt - System.nanoTime() <= 0)
+            throw new TransferNotFoundException("Transfer not found");
+        return submission;
+    }
+
+    private long authenticate(String token) {
+        token = token.substring(7);
+
+        if (!redisService.exists(token))
+            throw new AuthenticationErrorException("Unauthorized");
+
+        return redisService.getUserIdByToken(token);
+    }
+
+    private static boolean isDone(AsyncTransferDTO state) {
+        return state.getStatus() == AsyncTransferStatus.COMPLETED || state.getStatus() == AsyncTransferStatus.FAILED;
+    }
+
+    private static void send(SseEmitter emitter, AsyncTransferDTO state) {
+        try {
+            emitter.send(SseEmitter.event().name(state.getStatus().name().toLowerCase()).data(state));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone; it can still poll
+            emitter.completeWithError(e);
+        }
+    }
+}
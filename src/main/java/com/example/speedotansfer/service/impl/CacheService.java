@@ -0,0 +1,76 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.config.CacheConfig;
+import com.example.speedotansfer.config.ReplicaRoutingDataSource;
+import com.example.speedotansfer.dto.accountDTO.AccountDTO;
+import com.example.speedotansfer.dto.userDTOs.UserDTO;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.Favourite;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.FavouriteRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Entries are keyed by the user's internal id, so the token check must stay in the calling service.
+// Misses load from the primary: an entry is shared by every node until it expires, and a replica
+// behind a transfer or update would leave it stale for that long.
+@Service
+@RequiredArgsConstructor
+public class CacheService {
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final FavouriteRepository favouriteRepository;
+
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#userId")
+    public UserDTO getUser(long userId) throws UserNotFoundException {
+        User user = ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findUserByInternalId(userId))
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        return user.toDTO();
+    }
+
+    @Cacheable(cacheNames = CacheConfig.ACCOUNTS, key = "#userId")
+    public List<AccountDTO> getAccounts(long userId) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> accountRepository.findAllByUserid(userId))
+                .stream().map(Account::toDTO).collect(Collectors.toList());
+    }
+
+    @Cacheable(cacheNames = CacheConfig.FAVOURITES, key = "#userId")
+    public List<Favourite> getFavourites(long userId) throws UserNotFoundException {
+        User user = ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findUserByInternalId(userId))
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        return ReplicaRoutingDataSource.readFromPrimary(() -> favouriteRepository.getAllByUser(user));
+    }
+
+    // Misses are not cached, so a username is usable as soon as someone registers it
+    @Cacheable(cacheNames = CacheConfig.USERNAMES, key = "#username", unless = "#result == null")
+    public Long getUserIdByUsername(String username) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findInternalIdByUsername(username)).orElse(null);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId")
+    public void evictUser(long userId) {
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#userId")
+    public void evictAccounts(long userId) {
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.FAVOURITES, key = "#userId")
+    public void evictFavourites(long userId) {
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERNAMES, key = "#username")
+    public void evictUsername(String username) {
+    }
+}
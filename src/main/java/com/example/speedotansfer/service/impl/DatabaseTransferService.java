@@ -0,0 +1,285 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithUsernameDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitLegDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferResponseDTO;
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.event.TransferCompletedEvent;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.metrics.jfr.TransferPhaseEvent;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.Transaction;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.helpers.CurrencyExchangeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Transfers against the accounts table, each in its own transaction. Reached through TransferService,
+// which authenticates the caller and sends transfers to the ledger instead when it is enabled.
+@Service
+@RequiredArgsConstructor
+public class DatabaseTransferService {
+
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final CacheService cacheService;
+    private final AccountDirectory accountDirectory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public TransferResponseDTO transferFromUser(long id, SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        TransferPhaseEvent resolve = TransferPhaseEvent.start(TransferPhaseEvent.RESOLVE);
+        User sender = userRepository.findUserByInternalId(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        if (accountDirectory.rejects(sendMoneyWithAccNumberDTO.getAccountNumber()))
+            throw new UserNotFoundException("Could not find receiver's account");
+
+        Account receiverAccount = accountRepository.findAccountByAccountNumber(sendMoneyWithAccNumberDTO.getAccountNumber())
+                .orElseThrow(() -> new UserNotFoundException("Could not find receiver's account"));
+
+        Account senderAccount = senderAccount(sender, sendMoneyWithAccNumberDTO.getSendCurrency());
+
+        User receiver = userRepository.findUserByAccount(receiverAccount)
+                .orElseThrow(() -> new UserNotFoundException("Could not find receiver's account"));
+        resolve.end(id, sendMoneyWithAccNumberDTO.getSendCurrency(), sendMoneyWithAccNumberDTO.getReceiveCurrency());
+
+        return transfer(sender, senderAccount, receiver, receiverAccount, sendMoneyWithAccNumberDTO.getAmount(),
+                sendMoneyWithAccNumberDTO.getSendCurrency(), sendMoneyWithAccNumberDTO.getReceiveCurrency());
+    }
+
+    @Transactional
+    public TransferResponseDTO transferUsingUsername(long id, SendMoneyWithUsernameDTO sendMoneyWithUsernameDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        TransferPhaseEvent resolve = TransferPhaseEvent.start(TransferPhaseEvent.RESOLVE);
+        User sender = userRepository.findUserByInternalId(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        Long receiverId = cacheService.getUserIdByUsername(sendMoneyWithUsernameDTO.getUsername());
+        if (receiverId == null)
+            throw new UserNotFoundException("Could not find a user with this username");
+
+        Account receiverAccount = accountRepository
+                .findAccountByCurrencyAndUserid(sendMoneyWithUsernameDTO.getReceiveCurrency().toString(), receiverId)
+                .orElseThrow(() -> new AccountNotFoundException("Receiver doesn't have an account with this Currency"));
+
+        Account senderAccount = senderAccount(sender, sendMoneyWithUsernameDTO.getSendCurrency());
+        resolve.end(id, sendMoneyWithUsernameDTO.getSendCurrency(), sendMoneyWithUsernameDTO.getReceiveCurrency());
+
+        return transfer(sender, senderAccount, receiverAccount.getUser(), receiverAccount, sendMoneyWithUsernameDTO.getAmount(),
+                sendMoneyWithUsernameDTO.getSendCurrency(), sendMoneyWithUsernameDTO.getReceiveCurrency());
+    }
+
+    @Transactional
+    public SplitTransferResponseDTO splitTransfer(long id, SplitTransferDTO splitTransferDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        User sender = userRepository.findUserByInternalId(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        List<SplitLegDTO> legs = splitTransferDTO.getLegs();
+        Set<String> accountNumbers = new HashSet<>();
+        for (SplitLegDTO leg : legs) {
+            if (accountDirectory.rejects(leg.getAccountNumber()))
+                throw new UserNotFoundException("Could not find receiver's account " + leg.getAccountNumber());
+            accountNumbers.add(leg.getAccountNumber());
+        }
+
+        // One query for every receiving account, owners included
+        Map<String, Account> receiverAccounts = accountRepository.findAllByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        for (String accountNumber : accountNumbers) {
+            if (!receiverAccounts.containsKey(accountNumber))
+                throw new UserNotFoundException("Could not find receiver's account " + accountNumber);
+        }
+
+        Currency sendCurrency = splitTransferDTO.getSendCurrency();
+        Account senderAccount = senderAccount(sender, sendCurrency);
+
+        // Sender and receivers together, so the sorted lock order holds across the whole set
+        Map<Long, Account> involved = new LinkedHashMap<>();
+        involved.put(senderAccount.getId(), senderAccount);
+        receiverAccounts.values().forEach(account -> involved.putIfAbsent(account.getId(), account));
+        accountRepository.lockForUpdate(involved.values().toArray(Account[]::new));
+
+        double total = legs.stream().mapToDouble(SplitLegDTO::getAmount).sum();
+        boolean currenciesMatch = legs.stream()
+                .allMatch(leg -> receiverAccounts.get(leg.getAccountNumber()).getCurrency() == leg.getReceiveCurrency());
+
+        if (senderAccount.getBalance() < total || !currenciesMatch) {
+            List<Transaction> failed = new ArrayList<>(legs.size());
+            for (SplitLegDTO leg : legs) {
+                Account receiverAccount = receiverAccounts.get(leg.getAccountNumber());
+                failed.add(Transaction.builder()
+                        .status(false)
+                        .receiver(receiverAccount.getUser())
+                        .sender(sender)
+                        .senderAccount(senderAccount)
+                        .receiverAccount(receiverAccount)
+                        .amount(leg.getAmount())
+                        .currency(sendCurrency)
+                        .build());
+            }
+            transactionRepository.insertAll(failed);
+            if (senderAccount.getBalance() < total)
+                throw new InsufficientAmountException("Insufficient funds");
+            throw new InvalidTransferException("This Account is not with same Currency");
+        }
+
+        // Debited once for the whole split, each leg credited in its own currency
+        senderAccount.setBalance(senderAccount.getBalance() - total);
+
+        List<Transaction> transactions = new ArrayList<>(legs.size());
+        for (SplitLegDTO leg : legs) {
+            Account receiverAccount = receiverAccounts.get(leg.getAccountNumber());
+            double amountToTransfer = leg.getAmount();
+            if (sendCurrency != receiverAccount.getCurrency()) {
+                amountToTransfer = amountToTransfer * CurrencyExchangeService.getExchangeRate(sendCurrency, receiverAccount.getCurrency());
+            }
+            receiverAccount.setBalance(receiverAccount.getBalance() + amountToTransfer);
+
+            transactions.add(Transaction.builder()
+                    .status(true)
+                    .receiver(receiverAccount.getUser())
+                    .sender(sender)
+                    .senderAccount(senderAccount)
+                    .receiverAccount(receiverAccount)
+                    .amount(leg.getAmount())
+                    .receivedAmount(amountToTransfer)
+                    .currency(sendCurrency)
+                    .build());
+        }
+
+        // Also flushes the balance updates above
+        transactionRepository.insertAll(transactions);
+        transactions.forEach(this::publishCompleted);
+
+        cacheService.evictAccounts(sender.getInternalId());
+        receiverAccounts.values().stream()
+                .map(account -> account.getUser().getInternalId())
+                .distinct()
+                .forEach(cacheService::evictAccounts);
+
+        return SplitTransferResponseDTO.builder()
+                .fromAccount(senderAccount.getAccountNumber())
+                .totalAmount(total)
+                .currency(sendCurrency)
+                .legs(transactions.stream().map(Transaction::toDto).toList())
+                .build();
+    }
+
+    // Picked up just before commit, e.g. by the transfer journal, whose failure rolls the transfer back
+    private void publishCompleted(Transaction transaction) {
+        eventPublisher.publishEvent(new TransferCompletedEvent(transaction.getId(),
+                transaction.getSenderAccount().getId(), transaction.getReceiverAccount().getId(),
+                transaction.getSender().getInternalId(), transaction.getReceiver().getInternalId(),
+                transaction.getCurrency(), transaction.getAmount(), transaction.getReceivedAmount(), transaction.getTimeStamp()));
+    }
+
+    private Account senderAccount(User sender, Currency sendCurrency) throws AccountNotFoundException {
+        return accountRepository
+                .findAccountByCurrencyAndUserid(sendCurrency.toString(), sender.getInternalId())
+                .orElseThrow(() -> new AccountNotFoundException("You Don't have an account with this Currency"));
+    }
+
+    // Shared by both flows once both accounts are known; runs inside the caller's transaction
+    private TransferResponseDTO transfer(User sender, Account senderAccount, User receiver, Account receiverAccount,
+                                         double amount, Currency sendCurrency, Currency expectedReceiveCurrency)
+            throws InsufficientAmountException, InvalidTransferException {
+        // Balances must be read under the row lock, not from the cache
+        TransferPhaseEvent lock = TransferPhaseEvent.start(TransferPhaseEvent.LOCK);
+        accountRepository.lockForUpdate(senderAccount, receiverAccount);
+        lock.end(sender.getInternalId(), sendCurrency, expectedReceiveCurrency);
+
+        // Handle insufficient funds Case
+        if (senderAccount.getBalance() < amount) {
+            Transaction transaction = Transaction.builder()
+                    .status(false)
+                    .receiver(receiver)
+                    .sender(sender)
+                    .senderAccount(senderAccount)
+                    .receiverAccount(receiverAccount)
+                    .amount(amount)
+                    .currency(sendCurrency)
+                    .build();
+            transactionRepository.save(transaction);
+            throw new InsufficientAmountException("Insufficient funds");
+        }
+
+        if (receiverAccount.getCurrency() != expectedReceiveCurrency){
+            Transaction transaction = Transaction.builder()
+                    .status(false)
+                    .receiver(receiver)
+                    .sender(sender)
+                    .senderAccount(senderAccount)
+                    .receiverAccount(receiverAccount)
+                    .amount(amount)
+                    .currency(sendCurrency)
+                    .build();
+            transactionRepository.save(transaction);
+            throw new InvalidTransferException("This Account is not with same Currency");
+        }
+
+
+        double amountToTransfer = amount;
+        Currency receiveCurrency = receiverAccount.getCurrency();
+
+        // Handle currency exchange
+        TransferPhaseEvent convert = TransferPhaseEvent.start(TransferPhaseEvent.CONVERT);
+        if (sendCurrency != receiveCurrency) {
+            double exchangeRate = CurrencyExchangeService.getExchangeRate(sendCurrency, receiveCurrency);
+            amountToTransfer = amountToTransfer * exchangeRate;
+        }
+        convert.end(sender.getInternalId(), sendCurrency, receiveCurrency);
+
+        // Discount From Sender with his Currency
+        // Add to Receiver With this Currency
+
+        senderAccount.setBalance(senderAccount.getBalance() - amount);
+        receiverAccount.setBalance(receiverAccount.getBalance() + amountToTransfer);
+
+        Transaction transaction = Transaction.builder()
+                .status(true)
+                .receiver(receiver)
+                .sender(sender)
+                .senderAccount(senderAccount)
+                .receiverAccount(receiverAccount)
+                .amount(amount)
+                .receivedAmount(amountToTransfer)
+                .currency(sendCurrency)
+                .build();
+
+        TransferPhaseEvent persist = TransferPhaseEvent.start(TransferPhaseEvent.PERSIST);
+        transactionRepository.save(transaction);
+        accountRepository.save(senderAccount);
+        accountRepository.save(receiverAccount);
+        persist.end(sender.getInternalId(), sendCurrency, receiveCurrency, 1);
+        publishCompleted(transaction);
+
+        // Cached account lists carry balances
+        cacheService.evictAccounts(sender.getInternalId());
+        cacheService.evictAccounts(receiver.getInternalId());
+        return transaction.toDto();
+    }
+}
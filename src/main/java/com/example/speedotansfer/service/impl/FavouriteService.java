@@ -9,15 +9,18 @@ import com.example.speedotansfer.model.User;
 import com.example.speedotansfer.repository.FavouriteRepository;
 import com.example.speedotansfer.repository.UserRepository;
 import com.example.speedotansfer.service.IFavourite;
+import com.example.speedotansfer.service.impl.helpers.AccountIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +29,8 @@ public class FavouriteService implements IFavourite {
     private final UserRepository userRepository;
     private final FavouriteRepository favouriteRepository;
     private final RedisService redisService;
+    private final CacheService cacheService;
+    private final AccountDirectory accountDirectory;
 
     @Override
     public Favourite addToFavourites(String token, CreateFavouriteDTO createFavouriteDTO)
@@ -41,7 +46,14 @@ public class FavouriteService implements IFavourite {
         User user = userRepository.findUserByInternalId(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
-        User favUser = userRepository.getUserFromAccountNumber(createFavouriteDTO.getAccountNumber())
+        String accountNumber = createFavouriteDTO.getAccountNumber();
+        if (accountDirectory.rejects(accountNumber))
+            throw new UserNotFoundException("User With This Account Number does not exist ");
+
+        Optional<AccountIndex.Entry> entry = accountDirectory.find(accountNumber);
+        User favUser = (entry.isPresent()
+                ? userRepository.findUserByInternalId(entry.get().ownerId())
+                : userRepository.getUserFromAccountNumber(accountNumber))
                 .orElseThrow(() -> new UserNotFoundException("User With This Account Number does not exist "));
 
 
@@ -53,13 +65,16 @@ public class FavouriteService implements IFavourite {
                 .build();
 
         try {
-            return favouriteRepository.save(favourite);
+            Favourite saved = favouriteRepository.save(favourite);
+            cacheService.evictFavourites(id);
+            return saved;
         } catch (DataIntegrityViolationException e) {
             // Change Massage to me more readable
             throw new DataIntegrityViolationException("Favourite User already exists");
         }
     }
 
+    // No read-only transaction; cache misses load from the primary, see CacheService
     @Override
     public List<Favourite> getAllFavourites(String token)
             throws UserNotFoundException {
@@ -71,12 +86,10 @@ public class FavouriteService implements IFavourite {
 
         long id = redisService.getUserIdByToken(token);
 
-        User user = userRepository.findUserByInternalId(id)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        return favouriteRepository.getAllByUser(user);
+        return cacheService.getFavourites(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Favourite> getAllFavourites(String token, int page, int size)
             throws UserNotFoundException {
         token = token.substring(7);
@@ -111,6 +124,7 @@ public class FavouriteService implements IFavourite {
 
         if (favourite.getUser().getExternalId().equals(user.getExternalId())) {
             favouriteRepository.delete(favourite);
+            cacheService.evictFavourites(id);
         } else {
             throw new AuthenticationErrorException("You are not authorized to delete this favourite");
         }
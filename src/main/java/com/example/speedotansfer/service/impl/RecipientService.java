@@ -0,0 +1,160 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.dto.accountDTO.RecipientDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.event.AccountCreatedEvent;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.IRecipient;
+import com.example.speedotansfer.service.impl.helpers.AccountIndex;
+import com.example.speedotansfer.service.impl.helpers.NameMasker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Numbers the account directory knows resolve to owner names through the User second-level cache.
+// Everything else costs one IN query per batch, and numbers that turn out not to exist are
+// remembered for app.recipients.negative-ttl so repeated probes don't reach the database.
+@Service
+@RequiredArgsConstructor
+public class RecipientService implements IRecipient {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final RedisService redisService;
+    private final AccountDirectory accountDirectory;
+
+    // Also bounds how long another instance can report a newly opened account as unknown
+    @Value("${app.recipients.negative-ttl:60s}")
+    private Duration negativeTtl;
+
+    private final Map<String, Long> unknownUntil = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional(readOnly = true)
+    public RecipientDTO preview(String token, String accountNumber) throws AccountNotFoundException {
+        RecipientDTO recipient = preview(token, List.of(accountNumber)).get(0);
+        if (!recipient.isFound()) {
+            throw new AccountNotFoundException("Can't find an account with this number");
+        }
+        return recipient;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RecipientDTO> preview(String token, List<String> accountNumbers) {
+        token = token.substring(7);
+
+        if (!redisService.exists(token))
+            throw new AuthenticationErrorException("Unauthorized");
+
+        Map<String, RecipientDTO> results = new LinkedHashMap<>();
+        Map<String, AccountIndex.Entry> indexed = new HashMap<>();
+        List<String> unresolved = new ArrayList<>();
+
+        for (String accountNumber : accountNumbers) {
+            if (results.containsKey(accountNumber)) {
+                continue;
+            }
+            results.put(accountNumber, null);
+            if (accountDirectory.rejects(accountNumber) || isKnownUnknown(accountNumber)) {
+                results.put(accountNumber, notFound(accountNumber));
+                continue;
+            }
+            Optional<AccountIndex.Entry> entry = accountDirectory.find(accountNumber);
+            if (entry.isPresent()) {
+                indexed.put(accountNumber, entry.get());
+            } else {
+                unresolved.add(accountNumber);
+            }
+        }
+
+        if (!indexed.isEmpty()) {
+            Set<Long> owners = new HashSet<>();
+            indexed.values().forEach(entry -> owners.add(entry.ownerId()));
+            Map<Long, String> names = userRepository.findAllByInternalIds(owners).stream()
+                    .collect(Collectors.toMap(User::getInternalId, User::getFullName));
+            indexed.forEach((accountNumber, entry) -> {
+                String name = names.get(entry.ownerId());
+                results.put(accountNumber, name == null
+                        ? notFound(accountNumber)
+                        : found(accountNumber, name, entry.currency()));
+            });
+        }
+
+        if (!unresolved.isEmpty()) {
+            for (Object[] row : accountRepository.findRecipients(unresolved)) {
+                String accountNumber = (String) row[0];
+                results.put(accountNumber, found(accountNumber, (String) row[2], (Currency) row[1]));
+            }
+            for (String accountNumber : unresolved) {
+                if (results.get(accountNumber) == null) {
+                    rememberUnknown(accountNumber);
+                    results.put(accountNumber, notFound(accountNumber));
+                }
+            }
+        }
+
+        return new ArrayList<>(results.values());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountCreated(AccountCreatedEvent event) {
+        unknownUntil.remove(event.accountNumber());
+    }
+
+    private boolean isKnownUnknown(String accountNumber) {
+        Long until = unknownUntil.get(accountNumber);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        unknownUntil.remove(accountNumber, until);
+        return false;
+    }
+
+    private void rememberUnknown(String accountNumber) {
+        long now = System.nanoTime();
+        if (unknownUntil.size() > PURGE_THRESHOLD) {
+            unknownUntil.values().removeIf(until -> until - now <= 0);
+        }
+        unknownUntil.put(accountNumber, now + negativeTtl.toNanos());
+    }
+
+    private static RecipientDTO found(String accountNumber, String fullName, Currency currency) {
+        return RecipientDTO.builder()
+                .accountNumber(accountNumber)
+                .found(true)
+                .ownerName(NameMasker.mask(fullName))
+                .currency(currency)
+                .build();
+    }
+
+    private static RecipientDTO notFound(String accountNumber) {
+        return RecipientDTO.builder()
+                .accountNumber(accountNumber)
+                .found(false)
+                .build();
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.dto.reconciliationDTOs.ReconciliationRunDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.ReconciliationStatus;
+import com.example.speedotansfer.model.ReconciliationDiscrepancy;
+import com.example.speedotansfer.model.ReconciliationPartition;
+import com.example.speedotansfer.model.ReconciliationRun;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.ReconciliationDiscrepancyRepository;
+import com.example.speedotansfer.repository.ReconciliationPartitionRepository;
+import com.example.speedotansfer.repository.ReconciliationRunRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.service.IReconciliationJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Full-ledger reconciliation split into account id ranges. Each range is checked on its
+// own read snapshot and committed together with its discrepancies, so a run that dies
+// part way resumes from the ranges still open. At most `parallelism` ranges are held in
+// memory at once, each as two double[partitionSize].
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReconciliationJob implements IReconciliationJob {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationPartitionRepository partitionRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.reconciliation.tolerance:0.01}")
+    private double tolerance;
+    @Value("${app.reconciliation.job.partition-size:10000}")
+    private int partitionSize;
+    // Each worker holds a connection for the length of its range; keep below the pool size
+    @Value("${app.reconciliation.job.parallelism:4}")
+    private int parallelism;
+
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    // Off unless app.reconciliation.job.cron is set
+    @Scheduled(cron = "${app.reconciliation.job.cron:-}")
+    public void scheduledRun() {
+        ReconciliationRunDTO run = run();
+        if (run.getDiscrepancies() == 0) {
+            log.info("Reconciliation run {} checked {} accounts, no discrepancies", run.getRunId(), run.getAccountsChecked());
+        } else {
+            log.error("Reconciliation run {} checked {} accounts, {} discrepancies", run.getRunId(), run.getAccountsChecked(), run.getDiscrepancies());
+        }
+    }
+
+    // Picks up the latest unfinished run if there is one, otherwise starts a new run
+    @Override
+    public ReconciliationRunDTO run() {
+        ReconciliationRun run = runRepository.findFirstByStatusOrderByIdDesc(ReconciliationStatus.RUNNING)
+                .orElseGet(this::plan);
+        return execute(run);
+    }
+
+    @Override
+    public ReconciliationRunDTO resume(long runId) {
+        ReconciliationRun run = runRepository.findById(runId)
+                .orElseThrow(() -> new NoSuchElementException("No reconciliation run " + runId));
+        return execute(run);
+    }
+
+    private ReconciliationRun plan() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            long min = accountRepository.findMinId().orElse(0L);
+            long max = accountRepository.findMaxId().orElse(-1L);
+
+            List<ReconciliationPartition> partitions = new ArrayList<>();
+            ReconciliationRun run = runRepository.save(ReconciliationRun.builder()
+                    .status(ReconciliationStatus.RUNNING)
+                    .startedAt(LocalDateTime.now())
+                    .partitionSize(partitionSize)
+                    .build());
+            for (long from = min; from <= max; from += partitionSize) {
+                partitions.add(ReconciliationPartition.builder()
+                        .runId(run.getId())
+                        .fromAccountId(from)
+                        .toAccountId(from + partitionSize)
+                        .build());
+            }
+            partitionRepository.saveAll(partitions);
+            run.setPartitions(partitions.size());
+            return run;
+        });
+    }
+
+    private ReconciliationRunDTO execute(ReconciliationRun run) {
+        if (run.getStatus() == ReconciliationStatus.COMPLETED) {
+            return run.toDto();
+        }
+        if (!busy.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation run is already in progress");
+        }
+        try {
+            List<ReconciliationPartition> pending = partitionRepository.findAllByRunIdAndCompletedAtIsNullOrderByFromAccountId(run.getId());
+            log.info("Reconciliation run {}: {} of {} partitions left", run.getId(), pending.size(), run.getPartitions());
+
+            List<Callable<Void>> tasks = new ArrayList<>(pending.size());
+            for (ReconciliationPartition partition : pending) {
+                tasks.add(() -> {
+                    reconcile(partition, run.getPartitionSize());
+                    return null;
+                });
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (Future<Void> result : pool.invokeAll(tasks)) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation run " + run.getId() + " interrupted", e);
+            } catch (ExecutionException e) {
+                // Completed partitions stay checkpointed; the next run() resumes from here
+                throw new IllegalStateException("Reconciliation run " + run.getId() + " failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+
+            return complete(run);
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    private void reconcile(ReconciliationPartition partition, int size) {
+        long from = partition.getFromAccountId();
+        long to = partition.getToAccountId();
+        double[] debits = new double[size];
+        double[] credits = new double[size];
+
+        // Balances and the ledger must come from the same snapshot, otherwise a transfer
+        // committing between the statements shows up as drift
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        read.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        List<ReconciliationDiscrepancy> found = new ArrayList<>();
+        long checked = read.execute(status -> {
+            try (Stream<Object[]> rows = transactionRepository.streamDebits(from, to)) {
+                rows.forEach(row -> debits[(int) ((Long) row[0] - from)] += (Double) row[1]);
+            }
+            try (Stream<Object[]> rows = transactionRepository.streamCredits(from, to)) {
+                rows.forEach(row -> credits[(int) ((Long) row[0] - from)] += (Double) row[1]);
+            }
+
+            long[] accounts = {0};
+            LocalDateTime now = LocalDateTime.now();
+            try (Stream<Object[]> rows = accountRepository.streamForReconciliation(from, to)) {
+                rows.forEach(row -> {
+                    long accountId = (Long) row[0];
+                    int slot = (int) (accountId - from);
+                    double balance = (Double) row[3];
+                    double expected = (Double) row[4] + credits[slot] - debits[slot];
+                    accounts[0]++;
+                    if (Math.abs(balance - expected) > tolerance) {
+                        found.add(ReconciliationDiscrepancy.builder()
+                                .runId(partition.getRunId())
+                                .accountId(accountId)
+                                .accountNumber((String) row[1])
+                                .currency((Currency) row[2])
+                                .balance(balance)
+                                .expected(expected)
+                                .detectedAt(now)
+                                .build());
+                    }
+                });
+            }
+            return accounts[0];
+        });
+
+        // Discrepancies and the checkpoint commit together, so a retried range never reports twice
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            discrepancyRepository.saveAll(found);
+            partition.setAccountsChecked(checked);
+            partition.setDiscrepancies(found.size());
+            partition.setCompletedAt(LocalDateTime.now());
+            partitionRepository.save(partition);
+        });
+    }
+
+    private ReconciliationRunDTO complete(ReconciliationRun run) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Object[] totals = partitionRepository.sumCompleted(run.getId()).get(0);
+            run.setAccountsChecked((Long) totals[0]);
+            run.setDiscrepancies((Long) totals[1]);
+            run.setStatus(ReconciliationStatus.COMPLETED);
+            run.setFinishedAt(LocalDateTime.now());
+            return runRepository.save(run).toDto();
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.dto.reconciliationDTOs.AccountDriftDTO;
+import com.example.speedotansfer.dto.reconciliationDTOs.CurrencyTotalsDTO;
+import com.example.speedotansfer.dto.reconciliationDTOs.ReconciliationReportDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.service.IReconciliation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Checks that every successful transfer is reflected in balances:
+// balance == openingBalance + credited (after conversion) - debited, per account and per currency
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReconciliationService implements IReconciliation {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+
+    @Value("${app.reconciliation.tolerance:0.01}")
+    private double tolerance;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReconciliationReportDTO reconcile() {
+        Map<Currency, CurrencyTotalsDTO> totals = new EnumMap<>(Currency.class);
+        for (Object[] row : accountRepository.sumBalancesByCurrency()) {
+            totals.put((Currency) row[0], CurrencyTotalsDTO.builder()
+                    .currency((Currency) row[0])
+                    .accounts((Long) row[1])
+                    .balance((Double) row[2])
+                    .opening((Double) row[3])
+                    .build());
+        }
+        for (Object[] row : transactionRepository.sumSentByCurrency()) {
+            totals.get((Currency) row[0]).setSent((Double) row[1]);
+        }
+        for (Object[] row : transactionRepository.sumReceivedByCurrency()) {
+            totals.get((Currency) row[0]).setReceived((Double) row[1]);
+        }
+
+        List<AccountDriftDTO> drifted = new ArrayList<>();
+        try (Stream<Object[]> rows = accountRepository.streamExpectedBalances()) {
+            rows.forEach(row -> {
+                double balance = (Double) row[3];
+                double expected = (Double) row[4];
+                if (Math.abs(balance - expected) > tolerance) {
+                    drifted.add(AccountDriftDTO.builder()
+                            .accountId((Long) row[0])
+                            .accountNumber((String) row[1])
+                            .currency((Currency) row[2])
+                            .balance(balance)
+                            .expected(expected)
+                            .build());
+                }
+            });
+        }
+
+        return ReconciliationReportDTO.builder()
+                .checkedAt(LocalDateTime.now())
+                .tolerance(tolerance)
+                .currencies(new ArrayList<>(totals.values()))
+                .driftedAccounts(drifted)
+                .negativeBalances(accountRepository.countNegativeBalances())
+                .unreconciledAccounts(accountRepository.countWithoutOpeningBalance())
+                .unreconciledTransactions(transactionRepository.countWithoutAccountLegs())
+                .build();
+    }
+
+    // Off unless app.reconciliation.cron is set
+    @Scheduled(cron = "${app.reconciliation.cron:-}")
+    @Transactional(readOnly = true)
+    public void scheduledReconcile() {
+        ReconciliationReportDTO report = reconcile();
+        if (report.isBalanced()) {
+            log.info("Reconciliation balanced: {}", report.getCurrencies());
+        } else {
+            log.error("Reconciliation found drift: {} accounts drifted, {} negative balances, totals {}",
+                    report.getDriftedAccounts().size(), report.getNegativeBalances(), report.getCurrencies());
+        }
+    }
+}
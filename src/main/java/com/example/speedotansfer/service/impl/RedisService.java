@@ -1,5 +1,8 @@
 package com.example.speedotansfer.service.impl;
 
+import com.example.speedotansfer.metrics.jfr.RedisCallEvent;
+import com.example.speedotansfer.metrics.timing.ServerTiming;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
@@ -7,24 +10,43 @@ import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "speedo.redis", description = "Token store round trips")
 public class RedisService {
 
 
     private final RedisTemplate<String, Long> redisTemplate;
 
     public void storeToken(String token, Long userId) {
+        RedisCallEvent event = RedisCallEvent.start("set");
+        ServerTiming.open(ServerTiming.Phase.REDIS);
         redisTemplate.opsForValue().set(token, userId);
+        ServerTiming.close(ServerTiming.Phase.REDIS);
+        event.end(true);
     }
 
     public Long getUserIdByToken(String token) {
-        return redisTemplate.opsForValue().get(token);
+        RedisCallEvent event = RedisCallEvent.start("get");
+        ServerTiming.open(ServerTiming.Phase.REDIS);
+        Long userId = redisTemplate.opsForValue().get(token);
+        ServerTiming.close(ServerTiming.Phase.REDIS);
+        event.end(userId != null);
+        return userId;
     }
 
     public boolean exists(String token) {
-        return Boolean.TRUE.equals(redisTemplate.hasKey(token));
+        RedisCallEvent event = RedisCallEvent.start("exists");
+        ServerTiming.open(ServerTiming.Phase.REDIS);
+        boolean exists = Boolean.TRUE.equals(redisTemplate.hasKey(token));
+        ServerTiming.close(ServerTiming.Phase.REDIS);
+        event.end(exists);
+        return exists;
     }
 
     public void deleteToken(String token) {
-        redisTemplate.delete(token);
+        RedisCallEvent event = RedisCallEvent.start("delete");
+        ServerTiming.open(ServerTiming.Phase.REDIS);
+        Boolean deleted = redisTemplate.delete(token);
+        ServerTiming.close(ServerTiming.Phase.REDIS);
+        event.end(Boolean.TRUE.equals(deleted));
     }
 }
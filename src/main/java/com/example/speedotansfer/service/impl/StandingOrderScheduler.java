@@ -0,0 +1,225 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.ledger.LedgerEngine;
+import com.example.speedotansfer.model.StandingOrder;
+import com.example.speedotansfer.repository.StandingOrderRepository;
+import com.example.speedotansfer.service.ITansfer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Claims due standing orders in batches with SKIP LOCKED and leases them by pushing dueAt past
+// the lease, so the claim commits straight away and other nodes move on to the next rows. Each
+// order then runs in its own transaction together with its schedule update; the version read at
+// claim time fences out a node whose lease expired while it was still working. A ledger transfer
+// can't join that transaction, so in ledger mode the order is paid between two short ones, under
+// a key made of the order and its run number that the ledger refuses to pay twice.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StandingOrderScheduler {
+
+    public static final String RUNS = "speedo.standing_orders.runs";
+    public static final String LAG = "speedo.standing_orders.lag";
+    public static final String DELAY = "speedo.standing_orders.delay";
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final ITansfer transferService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    // Only with app.ledger.enabled
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Value("${app.standing-orders.batch-size:100}")
+    private int batchSize;
+    // Must outlast a whole batch, or another node will pick up orders this one still holds
+    @Value("${app.standing-orders.lease:5m}")
+    private Duration lease;
+    @Value("${app.standing-orders.max-attempts:4}")
+    private int maxAttempts;
+    // Doubles with every failed attempt at the same occurrence
+    @Value("${app.standing-orders.backoff:1h}")
+    private Duration backoff;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    private record Claim(long id, long version) {
+    }
+
+    private record Payment(long userId, SendMoneyWithAccNumberDTO details, UUID requestKey) {
+    }
+
+    @PostConstruct
+    void registerLag() {
+        Gauge.builder(LAG, lagSeconds, AtomicLong::get)
+                .description("Age of the oldest standing order still waiting to run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // @Scheduled only reads ISO-8601 durations, hence PT60S rather than 60s
+    @Scheduled(fixedDelayString = "${app.standing-orders.poll-interval:PT60S}")
+    public void runDue() {
+        List<Claim> batch;
+        do {
+            batch = claim();
+            batch.forEach(this::execute);
+        } while (batch.size() == batchSize);
+
+        LocalDateTime now = LocalDateTime.now();
+        lagSeconds.set(standingOrderRepository.findOldestDue(now)
+                .map(dueAt -> Duration.between(dueAt, now).toSeconds())
+                .orElse(0L));
+    }
+
+    private List<Claim> claim() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<StandingOrder> due = standingOrderRepository.claimDue(now, PageRequest.of(0, batchSize));
+            due.forEach(order -> order.setDueAt(now.plus(lease)));
+            standingOrderRepository.flush();
+            return due.stream()
+                    .map(order -> new Claim(order.getId(), order.getVersion()))
+                    .toList();
+        });
+    }
+
+    private void execute(Claim claim) {
+        try {
+            count(ledgerEngine == null ? runInTransaction(claim) : runThroughLedger(claim));
+        } catch (RuntimeException e) {
+            // Rolled back, so the order comes round again once the lease runs out
+            log.error("Standing order {} failed", claim.id(), e);
+            count("error");
+        }
+    }
+
+    private String runInTransaction(Claim claim) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            StandingOrder order = claimed(claim);
+            return order == null ? "lost" : settle(order, pay(payment(order)));
+        });
+    }
+
+    // If recording the outcome fails, or the lease runs out first, the next run repeats the payment
+    // under the same key and the ledger answers with the transfer it already made
+    private String runThroughLedger(Claim claim) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Payment payment = transaction.execute(status -> {
+            StandingOrder order = claimed(claim);
+            return order == null ? null : payment(order);
+        });
+        if (payment == null) {
+            return "lost";
+        }
+
+        Exception refusal = pay(payment);
+
+        return transaction.execute(status -> {
+            StandingOrder order = claimed(claim);
+            return order == null ? "lost" : settle(order, refusal);
+        });
+    }
+
+    private StandingOrder claimed(Claim claim) {
+        StandingOrder order = standingOrderRepository.findLockedById(claim.id()).orElse(null);
+        return order == null || !order.isActive() || order.getVersion() != claim.version() ? null : order;
+    }
+
+    private Payment payment(StandingOrder order) {
+        SendMoneyWithAccNumberDTO details = new SendMoneyWithAccNumberDTO();
+        details.setAccountNumber(order.getAccountNumber());
+        details.setAmount(order.getAmount());
+        details.setSendCurrency(order.getSendCurrency());
+        details.setReceiveCurrency(order.getReceiveCurrency());
+
+        UUID requestKey = UUID.nameUUIDFromBytes(("standing-order:" + order.getId() + ":" + order.getRuns())
+                .getBytes(StandardCharsets.UTF_8));
+        return new Payment(order.getUser().getInternalId(), details, requestKey);
+    }
+
+    // The refusal, or null once the money has moved
+    private Exception pay(Payment payment) {
+        SendMoneyWithAccNumberDTO details = payment.details();
+        try {
+            if (ledgerEngine != null) {
+                ledgerEngine.transfer(payment.userId(), details.getAccountNumber(), details.getAmount(),
+                        details.getSendCurrency(), details.getReceiveCurrency(), payment.requestKey());
+            } else {
+                transferService.transferFromUser(payment.userId(), details);
+            }
+            return null;
+        } catch (InsufficientAmountException | UserNotFoundException | AccountNotFoundException | InvalidTransferException e) {
+            return e;
+        }
+    }
+
+    private String settle(StandingOrder order, Exception refusal) {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (refusal instanceof InsufficientAmountException) {
+            order.setLastError(refusal.getMessage());
+            if (order.getAttempts() + 1 < maxAttempts) {
+                order.setAttempts(order.getAttempts() + 1);
+                order.setDueAt(now.plus(backoff.multipliedBy(1L << (order.getAttempts() - 1))));
+                return "retry";
+            }
+            advance(order);
+            return "skipped";
+        }
+        if (refusal != null) {
+            // Retrying won't bring back a closed account or change its currency
+            order.setLastError(refusal.getMessage());
+            order.setActive(false);
+            return "cancelled";
+        }
+
+        Timer.builder(DELAY)
+                .description("How long after its scheduled time a standing order ran")
+                .register(meterRegistry)
+                .record(Duration.between(order.getNextRunAt(), now));
+        order.setLastError(null);
+        advance(order);
+        return "success";
+    }
+
+    private void advance(StandingOrder order) {
+        order.setRuns(order.getRuns() + 1);
+        order.setAttempts(0);
+        order.setNextRunAt(order.getFrequency().occurrence(order.getStartAt(), order.getRuns()));
+        order.setDueAt(order.getNextRunAt());
+    }
+
+    private void count(String outcome) {
+        Counter.builder(RUNS)
+                .description("Standing order executions by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
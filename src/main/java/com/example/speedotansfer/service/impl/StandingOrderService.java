@@ -0,0 +1,98 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.dto.standingOrderDTOs.CreateStandingOrderDTO;
+import com.example.speedotansfer.dto.standingOrderDTOs.StandingOrderDTO;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
+import com.example.speedotansfer.exception.custom.StandingOrderNotFoundException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.model.StandingOrder;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.StandingOrderRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.IStandingOrder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class StandingOrderService implements IStandingOrder {
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final RedisService redisService;
+
+    @Override
+    @Transactional
+    public StandingOrderDTO create(String token, CreateStandingOrderDTO createStandingOrderDTO)
+            throws UserNotFoundException, AccountNotFoundException {
+        long id = authenticate(token);
+
+        User user = userRepository.findUserByInternalId(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        accountRepository.findAccountByAccountNumber(createStandingOrderDTO.getAccountNumber())
+                .orElseThrow(() -> new AccountNotFoundException("Could not find receiver's account"));
+
+        accountRepository.findAccountByCurrencyAndUserid(createStandingOrderDTO.getSendCurrency().toString(), id)
+                .orElseThrow(() -> new AccountNotFoundException("You Don't have an account with this Currency"));
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startAt = createStandingOrderDTO.getStartAt() == null || createStandingOrderDTO.getStartAt().isBefore(now)
+                ? now
+                : createStandingOrderDTO.getStartAt();
+
+        StandingOrder standingOrder = StandingOrder.builder()
+                .user(user)
+                .accountNumber(createStandingOrderDTO.getAccountNumber())
+                .amount(createStandingOrderDTO.getAmount())
+                .sendCurrency(createStandingOrderDTO.getSendCurrency())
+                .receiveCurrency(createStandingOrderDTO.getReceiveCurrency())
+                .frequency(createStandingOrderDTO.getFrequency())
+                .startAt(startAt)
+                .nextRunAt(startAt)
+                .dueAt(startAt)
+                .active(true)
+                .build();
+
+        return standingOrderRepository.save(standingOrder).toDto();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StandingOrderDTO> getStandingOrders(String token) {
+        long id = authenticate(token);
+
+        return standingOrderRepository.findAllByUserId(id).stream()
+                .map(StandingOrder::toDto)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void cancel(String token, long standingOrderId) {
+        long id = authenticate(token);
+
+        // Locked so a run that is already executing finishes before the order is switched off
+        StandingOrder standingOrder = standingOrderRepository.findLockedById(standingOrderId)
+                .filter(order -> order.getUser().getInternalId() == id)
+                .orElseThrow(() -> new StandingOrderNotFoundException("Standing order not found"));
+
+        standingOrder.setActive(false);
+    }
+
+    private long authenticate(String token) {
+        token = token.substring(7);
+
+        if (!redisService.exists(token))
+            throw new AuthenticationErrorException("Unauthorized");
+
+        return redisService.getUserIdByToken(token);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.repository.StatementRollups;
+import com.example.speedotansfer.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Regenerates the statement rollups from transactions, split into user id ranges that are rebuilt
+// in parallel, each in a transaction of its own. Transfers carry on meanwhile; only those of the
+// users in a range being rebuilt wait for it. Archived months are left as they are.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatementRollupRebuilder {
+
+    private final StatementRollups rollups;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // Holds the accounts of this many users locked while their range is rebuilt
+    @Value("${app.statements.rebuild.range-size:1000}")
+    private int rangeSize;
+    // Each worker holds a connection for the length of its range; keep below the pool size
+    @Value("${app.statements.rebuild.parallelism:4}")
+    private int parallelism;
+
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    // Off unless app.statements.rebuild.cron is set
+    @Scheduled(cron = "${app.statements.rebuild.cron:-}")
+    public void scheduledRun() {
+        log.info("Rebuilt {} statement rollups", rebuild());
+    }
+
+    // Returns the number of rollup rows written
+    public long rebuild() {
+        if (!busy.compareAndSet(false, true)) {
+            throw new IllegalStateException("Statement rollups are already being rebuilt");
+        }
+        try {
+            long min = userRepository.findMinId().orElse(0L);
+            long max = userRepository.findMaxId().orElse(-1L);
+
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (long from = min; from <= max; from += rangeSize) {
+                long start = from;
+                tasks.add(() -> new TransactionTemplate(transactionManager)
+                        .execute(status -> rollups.rebuild(start, start + rangeSize)));
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                long rows = 0;
+                for (Future<Integer> result : pool.invokeAll(tasks)) {
+                    rows += result.get();
+                }
+                return rows;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Statement rollup rebuild interrupted", e);
+            } catch (ExecutionException e) {
+                // Ranges already rebuilt stay committed; the rest keep their incremental rollups
+                throw new IllegalStateException("Statement rollup rebuild failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        } finally {
+            busy.set(false);
+        }
+    }
+}
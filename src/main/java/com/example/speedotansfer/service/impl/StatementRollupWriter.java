@@ -0,0 +1,25 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.event.TransferCompletedEvent;
+import com.example.speedotansfer.repository.StatementRollups;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Adds each transfer to the sender's and the receiver's statement rollups in the transfer's own
+// transaction, so they commit or roll back together. Transfers made through the ledger reach the
+// database in LedgerSnapshotter's batches and are added there.
+@Service
+@RequiredArgsConstructor
+public class StatementRollupWriter {
+
+    private final StatementRollups rollups;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTransferCompleted(TransferCompletedEvent event) {
+        rollups.add(new StatementRollups.Batch()
+                .sent(event.senderUserId(), event.senderAccountId(), event.timestamp(), event.amount())
+                .received(event.receiverUserId(), event.receiverAccountId(), event.timestamp(), event.receivedAmount()));
+    }
+}
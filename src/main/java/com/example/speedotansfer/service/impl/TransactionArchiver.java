@@ -0,0 +1,193 @@
+package com.example.speedotansfer.service.impl;
+
+import com.example.speedotansfer.archive.ArchivedTransaction;
+import com.example.speedotansfer.archive.TransactionArchiveFile;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.TransactionArchive;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.TransactionArchiveRepository;
+import com.example.speedotansfer.repository.TransactionPartitions;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.speedotansfer.repository.TransactionPartitions.start;
+
+// Keeps the transactions table to the last `retention-months` months. Older months are written to
+// an archive file each and then dropped, the manifest row and the drop in one transaction, so a
+// month is always either in the table or in a file that TransactionService can read it back from.
+// Reconciliation only sees the table, so the same transaction folds each account's net change over
+// the month into its opening balance.
+// Partitions for the coming months are created here too, ahead of the transfers that need them.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionArchiver {
+
+    private static final String SELECT = "SELECT id, time_stamp, amount, currency, status, sender_id, receiver_id, " +
+            "sender_account_id, receiver_account_id, received_amount FROM transactions " +
+            "WHERE time_stamp >= ? AND time_stamp < ? ORDER BY id";
+
+    private final TransactionPartitions partitions;
+    private final TransactionArchiveRepository archiveRepository;
+    private final AccountRepository accountRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.archive.retention-months:12}")
+    private int retentionMonths;
+    @Value("${app.archive.dir:archive}")
+    private Path directory;
+    @Value("${app.transactions.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    // The first month still kept in the transactions table
+    public YearMonth hotFrom() {
+        return YearMonth.now().minusMonths(retentionMonths);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.transactions.partition-cron:0 0 2 * * *}")
+    public void createPartitions() {
+        partitions.createThrough(YearMonth.now(), partitionsAhead);
+    }
+
+    // Off unless app.archive.cron is set
+    @Scheduled(cron = "${app.archive.cron:-}")
+    public void scheduledRun() throws IOException {
+        List<TransactionArchive> archived = archive();
+        if (!archived.isEmpty()) {
+            log.info("Archived {} months of transactions, {} rows", archived.size(),
+                    archived.stream().mapToLong(TransactionArchive::getRowCount).sum());
+        }
+    }
+
+    public List<TransactionArchive> archive() throws IOException {
+        if (!busy.compareAndSet(false, true)) {
+            throw new IllegalStateException("Transactions are already being archived");
+        }
+        try {
+            List<TransactionArchive> archived = new ArrayList<>();
+            for (YearMonth month : partitions.monthsBefore(hotFrom())) {
+                if (archiveRepository.existsById(month.atDay(1))) {
+                    // Rows dated after the fact into a month that has been archived already
+                    log.warn("Transactions for {} are archived, but some rows for it were written since; left in the table", month);
+                    continue;
+                }
+                archived.add(archive(month));
+            }
+            return archived;
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    private TransactionArchive archive(YearMonth month) throws IOException {
+        Path file = directory.resolve("transactions-" + month + TransactionArchiveFile.SUFFIX);
+        long bytes;
+        int rows;
+        // What the month's successful transfers moved in or out of each account
+        Map<Long, Double> net = new HashMap<>();
+        try (TransactionArchiveFile.Writer writer = TransactionArchiveFile.writer(file)) {
+            TransactionTemplate read = new TransactionTemplate(transactionManager);
+            read.setReadOnly(true);
+            read.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT);
+                // Streams the month rather than loading it; Postgres only honours this inside a transaction
+                statement.setFetchSize(1000);
+                statement.setTimestamp(1, Timestamp.valueOf(start(month)));
+                statement.setTimestamp(2, Timestamp.valueOf(start(month.plusMonths(1))));
+                return statement;
+            }, (ResultSet row) -> {
+                ArchivedTransaction transaction = row(row);
+                if (transaction.status()) {
+                    if (transaction.senderAccountId() != null)
+                        net.merge(transaction.senderAccountId(), -transaction.amount(), Double::sum);
+                    if (transaction.receiverAccountId() != null && transaction.receivedAmount() != null)
+                        net.merge(transaction.receiverAccountId(), transaction.receivedAmount(), Double::sum);
+                }
+                try {
+                    writer.append(transaction);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            rows = writer.rows();
+            bytes = writer.finish();
+        }
+
+        TransactionArchive archive = TransactionArchive.builder()
+                .monthStart(month.atDay(1))
+                .path(file.toString())
+                .rowCount(rows)
+                .bytes(bytes)
+                .archivedAt(LocalDateTime.now())
+                .build();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                archiveRepository.save(archive);
+                accountRepository.addToOpeningBalances(net);
+                long dropped = partitions.drop(month);
+                if (dropped != rows) {
+                    throw new IllegalStateException("Transactions for " + month + " changed while they were archived: "
+                            + rows + " rows written, " + dropped + " in the table");
+                }
+            });
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        // The opening balances were updated around Hibernate
+        net.keySet().forEach(id -> entityManagerFactory.getCache().evict(Account.class, id));
+        log.info("Archived {} transactions from {} to {} ({} bytes)", rows, month, file, bytes);
+        return archive;
+    }
+
+    private static ArchivedTransaction row(ResultSet row) throws SQLException {
+        long senderAccount = row.getLong("sender_account_id");
+        Long senderAccountId = row.wasNull() ? null : senderAccount;
+        long receiverAccount = row.getLong("receiver_account_id");
+        Long receiverAccountId = row.wasNull() ? null : receiverAccount;
+        double received = row.getDouble("received_amount");
+        Double receivedAmount = row.wasNull() ? null : received;
+        return new ArchivedTransaction(
+                row.getLong("id"),
+                row.getTimestamp("time_stamp").toLocalDateTime(),
+                row.getDouble("amount"),
+                Currency.valueOf(row.getString("currency")),
+                row.getBoolean("status"),
+                row.getLong("sender_id"),
+                row.getLong("receiver_id"),
+                senderAccountId,
+                receiverAccountId,
+                receivedAmount);
+    }
+}
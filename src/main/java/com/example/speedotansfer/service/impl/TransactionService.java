@@ -1,19 +1,45 @@
 package com.example.speedotansfer.service.impl;
 
+import com.example.speedotansfer.archive.ArchivedTransaction;
+import com.example.speedotansfer.archive.TransactionArchiveFile;
 import com.example.speedotansfer.dto.transactionDTOs.AllTransactionsDTO;
+import com.example.speedotansfer.dto.transactionDTOs.StatementDTO;
+import com.example.speedotansfer.dto.transactionDTOs.StatementLineDTO;
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.StatementDirection;
 import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.metrics.jfr.HistoryQueryEvent;
 import com.example.speedotansfer.model.Transaction;
+import com.example.speedotansfer.model.TransactionArchive;
 import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.StatementRollups;
+import com.example.speedotansfer.repository.TransactionArchiveRepository;
 import com.example.speedotansfer.repository.TransactionRepository;
 import com.example.speedotansfer.repository.UserRepository;
 import com.example.speedotansfer.service.ITransaction;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.example.speedotansfer.repository.TransactionPartitions.start;
+
 @Service
 @RequiredArgsConstructor
 public class TransactionService implements ITransaction {
@@ -21,10 +47,94 @@ public class TransactionService implements ITransaction {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final RedisService redisService;
+    private final TransactionArchiveRepository archiveRepository;
+    private final StatementRollups statementRollups;
+
+    // Must match TransactionArchiver's, which moves older months out of the table
+    @Value("${app.archive.retention-months:12}")
+    private int retentionMonths;
 
 
+    // The months still kept in the transactions table; older ones are read with a range
     @Override
+    @Transactional(readOnly = true)
     public AllTransactionsDTO getHistory(String token) throws UserNotFoundException {
+        User user = authenticatedUser(token);
+        YearMonth now = YearMonth.now();
+        LocalDateTime from = start(now.minusMonths(retentionMonths));
+        LocalDateTime to = start(now.plusMonths(1));
+
+        HistoryQueryEvent event = HistoryQueryEvent.start();
+        List<Transaction> lst = transactionRepository.findSentBetween(user.getInternalId(), from, to);
+        int sent = lst.size();
+        lst.addAll(transactionRepository.findReceivedBetween(user.getInternalId(), from, to));
+        event.end(user.getInternalId(), sent, lst.size() - sent);
+
+
+        return new AllTransactionsDTO(lst.stream().map(Transaction::toDto).collect(Collectors.toList()));
+    }
+
+    // Any range of months, from the archive files for months that have been archived and from the
+    // table for the rest. A month is in one or the other, never both.
+    @Override
+    @Transactional(readOnly = true)
+    public AllTransactionsDTO getHistory(String token, YearMonth from, YearMonth to) throws UserNotFoundException {
+        if (to.isBefore(from))
+            throw new IllegalArgumentException("The range ends before it starts");
+        User user = authenticatedUser(token);
+        long id = user.getInternalId();
+
+        List<ArchivedTransaction> archived = new ArrayList<>();
+        for (TransactionArchive archive : archiveRepository.findAllByMonthStartBetweenOrderByMonthStart(from.atDay(1), to.atDay(1))) {
+            try {
+                archived.addAll(TransactionArchiveFile.readByUser(Path.of(archive.getPath()), id));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unreadable transaction archive " + archive.getPath(), e);
+            }
+        }
+
+        List<TransferResponseDTO> transfers = new ArrayList<>();
+        if (!archived.isEmpty()) {
+            Set<Long> users = new HashSet<>();
+            archived.forEach(row -> {
+                users.add(row.senderId());
+                users.add(row.receiverId());
+            });
+            Map<Long, String> usernames = userRepository.findAllById(users).stream()
+                    .collect(Collectors.toMap(User::getInternalId, User::getUsername));
+            archived.forEach(row -> transfers.add(row.toDto(usernames)));
+        }
+
+        LocalDateTime start = start(from);
+        LocalDateTime end = start(to.plusMonths(1));
+        transactionRepository.findSentBetween(id, start, end).forEach(transaction -> transfers.add(transaction.toDto()));
+        transactionRepository.findReceivedBetween(id, start, end).forEach(transaction -> transfers.add(transaction.toDto()));
+        transfers.sort(Comparator.comparing(TransferResponseDTO::getTimestamp).thenComparing(TransferResponseDTO::getTransactionId));
+        return new AllTransactionsDTO(transfers);
+    }
+
+    // Read from the month's rollups, a handful of rows however many transfers went into them
+    @Override
+    @Transactional(readOnly = true)
+    public StatementDTO getStatement(String token, YearMonth month) throws UserNotFoundException {
+        User user = authenticatedUser(token);
+
+        Map<Currency, StatementLineDTO> lines = new EnumMap<>(Currency.class);
+        for (StatementRollups.Rollup rollup : statementRollups.find(user.getInternalId(), month)) {
+            StatementLineDTO line = lines.computeIfAbsent(rollup.currency(),
+                    currency -> StatementLineDTO.builder().currency(currency).build());
+            if (rollup.direction() == StatementDirection.SENT) {
+                line.setSent(rollup.total());
+                line.setSentTransfers(rollup.transfers());
+            } else {
+                line.setReceived(rollup.total());
+                line.setReceivedTransfers(rollup.transfers());
+            }
+        }
+        return new StatementDTO(month, new ArrayList<>(lines.values()));
+    }
+
+    private User authenticatedUser(String token) throws UserNotFoundException {
         token = token.substring(7);
 
         if (!redisService.exists(token))
@@ -32,14 +142,8 @@ public class TransactionService implements ITransaction {
 
         long id = redisService.getUserIdByToken(token);
 
-        User user = userRepository.findUserByInternalId(id)
+        return userRepository.findUserByInternalId(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        List<Transaction> lst = transactionRepository.findAllBySenderInternalId(user.getInternalId());
-        lst.addAll(transactionRepository.findAllByReceiverInternalId(user.getInternalId()));
-
-
-        return new AllTransactionsDTO(lst.stream().map(Transaction::toDto).collect(Collectors.toList()));
     }
 
 
@@ -1,114 +1,90 @@
 package com.example.speedotansfer.service.impl;
 
 import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithUsernameDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferResponseDTO;
 import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
-import com.example.speedotansfer.enums.Currency;
 import com.example.speedotansfer.exception.custom.AccountNotFoundException;
 import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
 import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
-import com.example.speedotansfer.model.Account;
-import com.example.speedotansfer.model.Transaction;
-import com.example.speedotansfer.model.User;
-import com.example.speedotansfer.repository.AccountRepository;
-import com.example.speedotansfer.repository.TransactionRepository;
-import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.ledger.LedgerEngine;
 import com.example.speedotansfer.service.ITansfer;
-import com.example.speedotansfer.service.impl.helpers.CurrencyExchangeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
+// Authenticates the caller and hands the transfer to the ledger or to DatabaseTransferService. Not
+// transactional itself: a ledger transfer waits for the journal's group commit, and must not hold a
+// pooled connection while it does.
 @Service
 @RequiredArgsConstructor
 
 public class TransferService implements ITansfer {
 
-    private final TransactionRepository transactionRepository;
-    private final AccountRepository accountRepository;
-    private final UserRepository userRepository;
+    private final DatabaseTransferService databaseTransferService;
     private final RedisService redisService;
+    private final CacheService cacheService;
+
+    // Only with app.ledger.enabled; balances then live in the ledger and single transfers go through it
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public TransferResponseDTO transferUsingAccNumber(String token, SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO)
-            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException {
-        token = token.substring(7);
-
-        if (!redisService.exists(token))
-            throw new AuthenticationErrorException("Unauthorized");
-
-
-        long id = redisService.getUserIdByToken(token);
-
-        User sender = userRepository.findUserByInternalId(id)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        Account receiverAccount = accountRepository.findAccountByAccountNumber(sendMoneyWithAccNumberDTO.getAccountNumber())
-                .orElseThrow(() -> new UserNotFoundException("Could not find receiver's account"));
-
-        Account senderAccount = accountRepository
-                .findAccountByCurrencyAndUserid(sendMoneyWithAccNumberDTO.getSendCurrency().toString(), id)
-                .orElseThrow(() -> new AccountNotFoundException("You Don't have an account with this Currency"));
-
-        User receiver = userRepository.findUserByAccount(receiverAccount)
-                .orElseThrow(() -> new UserNotFoundException("Could not find receiver's account"));
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        return transferFromUser(authenticate(token), sendMoneyWithAccNumberDTO);
+    }
 
+    @Override
+    public TransferResponseDTO transferFromUser(long id, SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        if (ledgerEngine != null)
+            return ledgerEngine.transfer(id, sendMoneyWithAccNumberDTO.getAccountNumber(), sendMoneyWithAccNumberDTO.getAmount(),
+                    sendMoneyWithAccNumberDTO.getSendCurrency(), sendMoneyWithAccNumberDTO.getReceiveCurrency());
 
-        // Handle insufficient funds Case
-        if (senderAccount.getBalance() < sendMoneyWithAccNumberDTO.getAmount()) {
-            Transaction transaction = Transaction.builder()
-                    .status(false)
-                    .receiver(receiver)
-                    .sender(sender)
-                    .amount(sendMoneyWithAccNumberDTO.getAmount())
-                    .currency(sendMoneyWithAccNumberDTO.getSendCurrency())
-                    .build();
-            transactionRepository.save(transaction);
-            throw new InsufficientAmountException("Insufficient funds");
-        }
+        return databaseTransferService.transferFromUser(id, sendMoneyWithAccNumberDTO);
+    }
 
-        if (receiverAccount.getCurrency() != sendMoneyWithAccNumberDTO.getReceiveCurrency()){
-            Transaction transaction = Transaction.builder()
-                    .status(false)
-                    .receiver(receiver)
-                    .sender(sender)
-                    .amount(sendMoneyWithAccNumberDTO.getAmount())
-                    .currency(sendMoneyWithAccNumberDTO.getSendCurrency())
-                    .build();
-            transactionRepository.save(transaction);
-            throw new InsufficientAmountException("This Account is not with same Currency");
+    @Override
+    public TransferResponseDTO transferUsingUsername(String token, SendMoneyWithUsernameDTO sendMoneyWithUsernameDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        long id = authenticate(token);
+
+        if (ledgerEngine != null) {
+            Long receiverId = cacheService.getUserIdByUsername(sendMoneyWithUsernameDTO.getUsername());
+            if (receiverId == null)
+                throw new UserNotFoundException("Could not find a user with this username");
+
+            String receiverAccountNumber = ledgerEngine.accountNumberOf(receiverId, sendMoneyWithUsernameDTO.getReceiveCurrency())
+                    .orElseThrow(() -> new AccountNotFoundException("Receiver doesn't have an account with this Currency"));
+            return ledgerEngine.transfer(id, receiverAccountNumber, sendMoneyWithUsernameDTO.getAmount(),
+                    sendMoneyWithUsernameDTO.getSendCurrency(), sendMoneyWithUsernameDTO.getReceiveCurrency());
         }
 
+        return databaseTransferService.transferUsingUsername(id, sendMoneyWithUsernameDTO);
+    }
 
-        double amountToTransfer = sendMoneyWithAccNumberDTO.getAmount();
-        Currency sendCurrency = sendMoneyWithAccNumberDTO.getSendCurrency();
-        Currency receiveCurrency = receiverAccount.getCurrency();
+    @Override
+    public SplitTransferResponseDTO splitTransfer(String token, SplitTransferDTO splitTransferDTO)
+            throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        long id = authenticate(token);
 
-        // Handle currency exchange
-        if (sendCurrency != receiveCurrency) {
-            double exchangeRate = CurrencyExchangeService.getExchangeRate(sendCurrency, receiveCurrency);
-            amountToTransfer = amountToTransfer * exchangeRate;
-        }
+        // A split debits once and credits many accounts, which the ledger's one-to-one messages don't cover
+        if (ledgerEngine != null)
+            throw new InvalidTransferException("Split payments are not available on this server");
 
-        // Discount From Sender with his Currency
-        // Add to Receiver With this Currency
+        return databaseTransferService.splitTransfer(id, splitTransferDTO);
+    }
 
-        senderAccount.setBalance(senderAccount.getBalance() - sendMoneyWithAccNumberDTO.getAmount());
-        receiverAccount.setBalance(receiverAccount.getBalance() + amountToTransfer);
+    private long authenticate(String token) {
+        token = token.substring(7);
 
-        Transaction transaction = Transaction.builder()
-                .status(true)
-                .receiver(receiver)
-                .sender(sender)
-                .amount(sendMoneyWithAccNumberDTO.getAmount())
-                .currency(sendMoneyWithAccNumberDTO.getSendCurrency())
-                .build();
+        if (!redisService.exists(token))
+            throw new AuthenticationErrorException("Unauthorized");
 
-        transactionRepository.save(transaction);
-        accountRepository.save(senderAccount);
-        accountRepository.save(receiverAccount);
-        return transaction.toDto();
+        return redisService.getUserIdByToken(token);
     }
 }
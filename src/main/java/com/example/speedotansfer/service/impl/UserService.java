@@ -8,7 +8,6 @@ import com.example.speedotansfer.dto.userDTOs.UserDTO;
 import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
 import com.example.speedotansfer.exception.custom.UserAlreadyExistsException;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
-import com.example.speedotansfer.model.Account;
 import com.example.speedotansfer.model.User;
 import com.example.speedotansfer.repository.AccountRepository;
 import com.example.speedotansfer.repository.UserRepository;
@@ -20,7 +19,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 @Service
@@ -31,6 +29,7 @@ public class UserService implements IUser {
     private final AccountRepository accountRepository;
     private final RedisService redisService;
     private final AuthService authService;
+    private final CacheService cacheService;
 
 
     @Override
@@ -70,6 +69,7 @@ public class UserService implements IUser {
             user.setFullName(updateCustomerDTO.getFullName());
             details += "Full name updated successfully, ";
         }
+        String oldUsername = user.getUsername();
         if (updateCustomerDTO.getUsername() != null) {
             user.setUsername(updateCustomerDTO.getUsername());
             details += "Username updated successfully, ";
@@ -80,6 +80,10 @@ public class UserService implements IUser {
         }
 
         userRepository.save(user);
+        cacheService.evictUser(user.getInternalId());
+        if (updateCustomerDTO.getUsername() != null) {
+            cacheService.evictUsername(oldUsername);
+        }
 
         // Delete Current Token
         redisService.deleteToken(token);
@@ -100,6 +104,7 @@ public class UserService implements IUser {
 
     }
 
+    // No read-only transaction, which could take a replica connection before a cache miss loads from the primary
     @Override
     public UserDTO getUserById(String token) throws UserNotFoundException {
         token = token.substring(7);
@@ -109,12 +114,10 @@ public class UserService implements IUser {
 
         long id = redisService.getUserIdByToken(token);
 
-        User user = userRepository.findUserByInternalId(id)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        return user.toDTO();
+        return cacheService.getUser(id);
     }
 
+    // No read-only transaction, as for getUserById
     @Override
     public List<AccountDTO> getAccounts(String token) {
         token = token.substring(7);
@@ -124,9 +127,7 @@ public class UserService implements IUser {
 
         long id = redisService.getUserIdByToken(token);
 
-//        accountRepository.findAllByUserid(id);
-
-        return accountRepository.findAllByUserid(id).stream().map(Account::toDTO).collect(Collectors.toList());
+        return cacheService.getAccounts(id);
     }
     
 }
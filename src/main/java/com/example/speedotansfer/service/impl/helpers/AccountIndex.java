@@ -0,0 +1,148 @@
+package com.example.speedotansfer.service.impl.helpers;
+
+import com.example.speedotansfer.enums.Currency;
+
+import java.util.concurrent.locks.StampedLock;
+
+// Open-addressing table keyed by the numeric account number. Entries live in
+// parallel primitive arrays so millions of accounts cost ~40 bytes each and no objects.
+public class AccountIndex {
+
+    public record Entry(long accountId, long ownerId, Currency currency) {
+    }
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final int MAX_DIGITS = 18;
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] keys;
+    private long[] accountIds;
+    private long[] ownerIds;
+    private byte[] currencies;
+    private int size;
+
+    public AccountIndex(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    // Returns -1 for numbers that cannot be packed into a key (non numeric, leading zero, too long)
+    public static long toKey(String accountNumber) {
+        int length = accountNumber == null ? 0 : accountNumber.length();
+        if (length == 0 || length > MAX_DIGITS || accountNumber.charAt(0) == '0') {
+            return -1;
+        }
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = accountNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            key = key * 10 + digit;
+        }
+        return key;
+    }
+
+    public void put(long key, long accountId, long ownerId, Currency currency) {
+        long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 4L > keys.length * 3L) {
+                resize();
+            }
+            int slot = slotOf(keys, key);
+            if (keys[slot] == 0) {
+                size++;
+            }
+            keys[slot] = key;
+            accountIds[slot] = accountId;
+            ownerIds[slot] = ownerId;
+            currencies[slot] = (byte) currency.ordinal();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Entry get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        Entry entry = read(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                entry = read(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return entry;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Entry read(long key) {
+        long[] keys = this.keys;
+        long[] accountIds = this.accountIds;
+        long[] ownerIds = this.ownerIds;
+        byte[] currencies = this.currencies;
+        // A resize may be half published during an optimistic read; the caller retries under the lock
+        if (accountIds.length != keys.length || ownerIds.length != keys.length || currencies.length != keys.length) {
+            return null;
+        }
+        int slot = slotOf(keys, key);
+        if (keys[slot] != key) {
+            return null;
+        }
+        return new Entry(accountIds[slot], ownerIds[slot], CURRENCIES[currencies[slot]]);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldAccountIds = accountIds;
+        long[] oldOwnerIds = ownerIds;
+        byte[] oldCurrencies = currencies;
+
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                accountIds[slot] = oldAccountIds[i];
+                ownerIds[slot] = oldOwnerIds[i];
+                currencies[slot] = oldCurrencies[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        accountIds = new long[capacity];
+        ownerIds = new long[capacity];
+        currencies = new byte[capacity];
+    }
+
+    // Linear probing; keys are never 0 because account numbers cannot start with 0
+    private static int slotOf(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.speedotansfer.service.impl.helpers;
+
+// Enough of each name to recognise the recipient, not enough to harvest it
+public class NameMasker {
+
+    public static String mask(String fullName) {
+        if (fullName == null) {
+            return null;
+        }
+        StringBuilder masked = new StringBuilder(fullName.length());
+        for (String part : fullName.trim().split("\\s+")) {
+            if (!masked.isEmpty()) {
+                masked.append(' ');
+            }
+            int visible = part.length() > 3 ? 2 : 1;
+            masked.append(part, 0, Math.min(visible, part.length()))
+                    .append("*".repeat(Math.max(0, part.length() - visible)));
+        }
+        return masked.toString();
+    }
+}
@@ -0,0 +1,60 @@
+-- The schema as Hibernate's ddl-auto=update left it before Flyway. Databases created that way are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and start from V2.
+
+CREATE TABLE users (
+    internal_id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    external_id         UUID         NOT NULL,
+    full_name           VARCHAR(255) NOT NULL,
+    username            VARCHAR(255) NOT NULL UNIQUE,
+    password            VARCHAR(255) NOT NULL,
+    email               VARCHAR(255) NOT NULL UNIQUE,
+    gender              VARCHAR(255) NOT NULL CHECK (gender IN ('MALE', 'FEMALE')),
+    phone_number        VARCHAR(255) NOT NULL UNIQUE,
+    country             VARCHAR(255) NOT NULL CHECK (country IN ('EG', 'UK', 'US')),
+    birthdate           DATE         NOT NULL,
+    creation_time_stamp TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    PRIMARY KEY (internal_id)
+);
+
+CREATE UNIQUE INDEX internalId_idx ON users (internal_id);
+
+CREATE TABLE accounts (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    account_number  VARCHAR(255) NOT NULL UNIQUE,
+    balance         FLOAT(53),
+    currency        VARCHAR(255) CHECK (currency IN ('EGY', 'USD', 'EUR')),
+    user_id         BIGINT       NOT NULL,
+    card_number     VARCHAR(255) NOT NULL UNIQUE,
+    cardholder_name VARCHAR(255) NOT NULL,
+    cvv             INTEGER      NOT NULL,
+    expiration_date VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_accounts_user FOREIGN KEY (user_id) REFERENCES users (internal_id)
+);
+
+CREATE UNIQUE INDEX accountNumber_idx ON accounts (account_number);
+
+CREATE TABLE transactions (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    time_stamp  TIMESTAMP(6),
+    amount      FLOAT(53)    NOT NULL,
+    currency    VARCHAR(255) NOT NULL CHECK (currency IN ('EGY', 'USD', 'EUR')),
+    status      BOOLEAN      NOT NULL,
+    sender_id   BIGINT       NOT NULL,
+    receiver_id BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_sender FOREIGN KEY (sender_id) REFERENCES users (internal_id),
+    CONSTRAINT fk_transactions_receiver FOREIGN KEY (receiver_id) REFERENCES users (internal_id)
+);
+
+CREATE TABLE favourites (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id  BIGINT NOT NULL,
+    fav_id   BIGINT NOT NULL,
+    added_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    UNIQUE (user_id, fav_id),
+    CONSTRAINT fk_favourites_user FOREIGN KEY (user_id) REFERENCES users (internal_id),
+    CONSTRAINT fk_favourites_favourite FOREIGN KEY (fav_id) REFERENCES users (internal_id)
+);
@@ -0,0 +1,49 @@
+-- Reconciliation: what each account opened with, the account legs of every transfer, and the
+-- bookkeeping of resumable runs. All new columns are null on rows written before them.
+
+ALTER TABLE accounts ADD COLUMN opening_balance FLOAT(53);
+
+ALTER TABLE transactions ADD COLUMN sender_account_id BIGINT;
+ALTER TABLE transactions ADD COLUMN receiver_account_id BIGINT;
+ALTER TABLE transactions ADD COLUMN received_amount FLOAT(53);
+ALTER TABLE transactions ADD CONSTRAINT fk_transactions_sender_account FOREIGN KEY (sender_account_id) REFERENCES accounts (id);
+ALTER TABLE transactions ADD CONSTRAINT fk_transactions_receiver_account FOREIGN KEY (receiver_account_id) REFERENCES accounts (id);
+
+CREATE TABLE reconciliation_runs (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    status           VARCHAR(255) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED')),
+    started_at       TIMESTAMP(6) NOT NULL,
+    finished_at      TIMESTAMP(6),
+    partition_size   INTEGER      NOT NULL,
+    partitions       INTEGER      NOT NULL,
+    accounts_checked BIGINT       NOT NULL,
+    discrepancies    BIGINT       NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE reconciliation_partitions (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    run_id           BIGINT NOT NULL,
+    from_account_id  BIGINT NOT NULL,
+    to_account_id    BIGINT NOT NULL,
+    completed_at     TIMESTAMP(6),
+    accounts_checked BIGINT NOT NULL,
+    discrepancies    BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX reconciliation_partition_run_idx ON reconciliation_partitions (run_id, completed_at);
+
+CREATE TABLE reconciliation_discrepancies (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    run_id         BIGINT       NOT NULL,
+    account_id     BIGINT       NOT NULL,
+    account_number VARCHAR(255) NOT NULL,
+    currency       VARCHAR(255) NOT NULL CHECK (currency IN ('EGY', 'USD', 'EUR')),
+    balance        FLOAT(53)    NOT NULL,
+    expected       FLOAT(53)    NOT NULL,
+    detected_at    TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX reconciliation_discrepancy_run_idx ON reconciliation_discrepancies (run_id);
@@ -0,0 +1,23 @@
+-- Recurring transfers. A node claims a due order by bumping its version.
+
+CREATE TABLE standing_orders (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id          BIGINT       NOT NULL,
+    account_number   VARCHAR(255) NOT NULL,
+    amount           FLOAT(53)    NOT NULL,
+    send_currency    VARCHAR(255) NOT NULL CHECK (send_currency IN ('EGY', 'USD', 'EUR')),
+    receive_currency VARCHAR(255) NOT NULL CHECK (receive_currency IN ('EGY', 'USD', 'EUR')),
+    frequency        VARCHAR(255) NOT NULL CHECK (frequency IN ('DAILY', 'WEEKLY', 'MONTHLY')),
+    start_at         TIMESTAMP(6) NOT NULL,
+    runs             INTEGER      NOT NULL,
+    next_run_at      TIMESTAMP(6) NOT NULL,
+    due_at           TIMESTAMP(6) NOT NULL,
+    attempts         INTEGER      NOT NULL,
+    active           BOOLEAN      NOT NULL,
+    last_error       VARCHAR(255),
+    version          BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_standing_orders_user FOREIGN KEY (user_id) REFERENCES users (internal_id)
+);
+
+CREATE INDEX standing_order_due_idx ON standing_orders (active, due_at);
@@ -0,0 +1,9 @@
+-- Where the ledger's snapshots have caught up to in the transfer journal; a single row
+
+CREATE TABLE ledger_checkpoints (
+    id               INTEGER NOT NULL,
+    position         BIGINT  NOT NULL,
+    last_transfer_id BIGINT  NOT NULL,
+    updated_at       TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,18 @@
+-- One index per hot lookup; PostgreSQL doesn't index foreign keys on its own.
+
+-- History, one side of a user's transfers at a time, in time order
+CREATE INDEX transaction_sender_time_idx ON transactions (sender_id, time_stamp);
+CREATE INDEX transaction_receiver_time_idx ON transactions (receiver_id, time_stamp);
+
+-- Reconciliation sums successful amounts per account; with these columns in the key it reads only the index
+CREATE INDEX transaction_sender_account_amount_idx ON transactions (sender_account_id, status, amount);
+CREATE INDEX transaction_receiver_account_amount_idx ON transactions (receiver_account_id, status, received_amount);
+
+-- A user's account in a given currency, for transfers by username
+CREATE INDEX account_user_currency_idx ON accounts (user_id, currency);
+
+-- A user's favourites page, newest first, without a sort
+CREATE INDEX favourite_user_added_idx ON favourites (user_id, added_at);
+
+-- A user's standing orders, newest first
+CREATE INDEX standing_order_user_idx ON standing_orders (user_id, id);
@@ -0,0 +1,9 @@
+-- One row per month of transactions moved out of the database into an archive file
+CREATE TABLE transaction_archives (
+    month_start DATE         NOT NULL,
+    path        VARCHAR(255) NOT NULL,
+    row_count   BIGINT       NOT NULL,
+    bytes       BIGINT       NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (month_start)
+);
@@ -0,0 +1,12 @@
+-- Per user, month, currency and direction totals of completed transfers. Kept up to date by every
+-- transfer and regenerated from transactions by StatementRollupRebuilder.
+CREATE TABLE statement_rollups (
+    user_id     BIGINT       NOT NULL,
+    month_start DATE         NOT NULL,
+    currency    VARCHAR(255) NOT NULL CHECK (currency IN ('EGY', 'USD', 'EUR')),
+    direction   VARCHAR(255) NOT NULL CHECK (direction IN ('SENT', 'RECEIVED')),
+    total       FLOAT(53)    NOT NULL,
+    transfers   BIGINT       NOT NULL,
+    PRIMARY KEY (user_id, month_start, currency, direction),
+    CONSTRAINT fk_statement_rollups_user FOREIGN KEY (user_id) REFERENCES users (internal_id)
+);
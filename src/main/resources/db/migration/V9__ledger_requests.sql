@@ -0,0 +1,10 @@
+-- Idempotency keys of ledger transfers whose callers may repeat them, with the transfer each one
+-- became; lets the ledger answer a repeat with the original instead of paying again
+CREATE TABLE ledger_requests (
+    request_key UUID         NOT NULL,
+    transfer_id BIGINT       NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (request_key)
+);
+
+CREATE INDEX ledger_requests_created_at_idx ON ledger_requests (created_at);
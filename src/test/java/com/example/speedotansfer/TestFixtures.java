@@ -0,0 +1,47 @@
+package com.example.speedotansfer;
+
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Gender;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Unsaved users and accounts that pass the entities' validation and the schema's constraints
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    // name is also the username and the email's local part; n keeps the phone number unique
+    public static User user(String name, int n) {
+        return User.builder()
+                .externalId(UUID.randomUUID())
+                .fullName(name)
+                .username(name)
+                .password("password")
+                .email(name + "@example.com")
+                .gender(Gender.MALE)
+                .phoneNumber(String.format("011%08d", n))
+                .country(Country.EG)
+                .birthdate(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+
+    // The card number is derived from the account number, so it is unique too
+    public static Account account(User owner, String accountNumber, Currency currency, double balance) {
+        return Account.builder()
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .openingBalance(balance)
+                .currency(currency)
+                .user(owner)
+                .cardNumber("4" + accountNumber)
+                .cardholderName(owner.getFullName())
+                .cvv(123)
+                .expirationDate("12/30")
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.speedotansfer.config;
+
+import com.example.speedotansfer.dto.accountDTO.AccountDTO;
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.dto.userDTOs.UserDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Gender;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.speedotansfer.config.VersionedCacheSerializer.Codec.JSON;
+import static com.example.speedotansfer.config.VersionedCacheSerializer.Codec.SMILE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionedCacheSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer generic = new GenericJackson2JsonRedisSerializer()
+            .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+
+    private final UserDTO user = UserDTO.builder()
+            .userId(UUID.randomUUID())
+            .fullName("User Name")
+            .email("user@example.com")
+            .phoneNumber("01111111111")
+            .gender(Gender.MALE)
+            .birthDate(LocalDate.of(1999, 5, 17))
+            .username("username")
+            .build();
+
+    private final List<AccountDTO> accounts = new ArrayList<>(List.of(
+            account("123456789012345", Currency.EGY),
+            account("223456789012345", Currency.USD),
+            account("323456789012345", Currency.EUR)));
+
+    private final TransferResponseDTO transfer = TransferResponseDTO.builder()
+            .transactionId(42L)
+            .fromAccount("senderUsername")
+            .toAccount("receiverUsername")
+            .amount(150.5)
+            .status(true)
+            .timestamp(LocalDateTime.of(2024, 7, 1, 12, 30))
+            .build();
+
+    @Test
+    public void roundTripsCachedTypes() {
+        assertEquals(user, roundTrip(VersionedCacheSerializer.of(SMILE, 1, UserDTO.class), user));
+        assertEquals(accounts, roundTrip(VersionedCacheSerializer.listOf(SMILE, 1, AccountDTO.class), accounts));
+        assertEquals(transfer, roundTrip(VersionedCacheSerializer.of(SMILE, 1, TransferResponseDTO.class), transfer));
+        assertEquals(user, roundTrip(VersionedCacheSerializer.of(JSON, 1, UserDTO.class), user));
+    }
+
+    @Test
+    public void entriesFromAnotherVersionOrCodecAreMisses() {
+        byte[] v1 = VersionedCacheSerializer.of(SMILE, 1, UserDTO.class).serialize(user);
+
+        assertNull(VersionedCacheSerializer.of(SMILE, 2, UserDTO.class).deserialize(v1));
+        assertNull(VersionedCacheSerializer.of(JSON, 1, UserDTO.class).deserialize(v1));
+        assertNull(VersionedCacheSerializer.of(SMILE, 1, UserDTO.class).deserialize(generic.serialize(user)));
+    }
+
+    @Test
+    public void smileEntriesAreSmallerThanGenericJson() {
+        assertSmaller(generic.serialize(user), VersionedCacheSerializer.of(SMILE, 1, UserDTO.class).serialize(user));
+        assertSmaller(generic.serialize(accounts),
+                VersionedCacheSerializer.listOf(SMILE, 1, AccountDTO.class).serialize(accounts));
+        assertSmaller(generic.serialize(transfer),
+                VersionedCacheSerializer.of(SMILE, 1, TransferResponseDTO.class).serialize(transfer));
+    }
+
+    private void assertSmaller(byte[] json, byte[] smile) {
+        assertTrue(smile.length < json.length, () -> "generic json " + json.length + " bytes vs smile " + smile.length);
+    }
+
+    private <T> T roundTrip(RedisSerializer<T> serializer, T value) {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    private static AccountDTO account(String accountNumber, Currency currency) {
+        return AccountDTO.builder()
+                .accountNumber(accountNumber)
+                .balance(100)
+                .userId(1L)
+                .currency(currency)
+                .cardNumber("1111222233334444")
+                .cardholderName("User Name")
+                .cvv(123)
+                .expirationDate("12/26")
+                .build();
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.speedotansfer.dataset;
+
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Gender;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Bulk-loads users, accounts, favourites and transactions into an existing schema
+// (start the app once so Flyway creates it).
+//
+//   mvn -Pdataset verify -Ddataset.args="url=jdbc:postgresql://localhost:5432/speedo?reWriteBatchedInserts=true username=... password=... users=1000000 transactions=20000000"
+//
+// Every value is derived from the seed and the row's position, never from shared state,
+// so parallel writers produce the same rows as a single one. Unique columns are built
+// from the row index and cannot collide.
+public class DatasetGenerator {
+
+    // bcrypt of "Password123!", so generated users can log in
+    static final String PASSWORD_HASH = "$2a$10$PCkUfSDLU4DpMPJf4.gHp.2am/mcQjBavbaEeHCxie.eHku8yiuWe";
+
+    private static final String[] FIRST_NAMES = {"Ahmed", "Mohamed", "Mona", "Sara", "Omar", "Nour", "Youssef", "Laila", "James", "Emma", "Olivia", "Noah"};
+    private static final String[] LAST_NAMES = {"Hassan", "Ali", "Ibrahim", "Mahmoud", "Saleh", "Farouk", "Smith", "Brown", "Taylor", "Wilson"};
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    // Salts keep the random streams of different tables independent
+    private static final long USERS = 1, ACCOUNTS = 2, FAVOURITES = 3, TRANSACTIONS = 4;
+
+    private final DatasetSpec spec;
+    private final DataSource dataSource;
+    private final ZipfSampler merchantRank;
+    // Per-table timings; only the command line prints them
+    private final PrintStream progress;
+
+    public DatasetGenerator(DatasetSpec spec, DataSource dataSource) {
+        this(spec, dataSource, new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    public DatasetGenerator(DatasetSpec spec, DataSource dataSource, PrintStream progress) {
+        if (spec.getMerchants() < 1 || spec.getMerchants() > spec.getUsers() || spec.getUsers() < 2) {
+            throw new IllegalArgumentException("Need at least two users and between 1 and `users` merchants");
+        }
+        this.spec = spec;
+        this.dataSource = dataSource;
+        this.merchantRank = new ZipfSampler(spec.getMerchants(), spec.getZipfExponent());
+        this.progress = progress;
+    }
+
+    public static void main(String[] args) throws Exception {
+        DatasetSpec spec = DatasetSpec.fromArgs(args);
+        if (spec.getUrl() == null) {
+            throw new IllegalArgumentException("url=... is required");
+        }
+        new DatasetGenerator(spec, new DriverManagerDataSource(spec.getUrl(), spec.getUsername(), spec.getPassword()), System.out).generate();
+    }
+
+    public void generate() throws Exception {
+        long start = System.currentTimeMillis();
+        if (spec.isTruncate()) {
+            truncate();
+        }
+
+        write("users", "INSERT INTO users (internal_id, external_id, full_name, username, password, email, gender, phone_number, " +
+                "country, birthdate, creation_time_stamp, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                USERS, spec.getUsers(), this::user);
+        write("accounts", "INSERT INTO accounts (id, account_number, balance, opening_balance, currency, user_id, card_number, " +
+                "cardholder_name, cvv, expiration_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                ACCOUNTS, spec.getUsers(), this::accounts);
+        write("favourites", "INSERT INTO favourites (user_id, fav_id, added_at) VALUES (?, ?, ?)",
+                FAVOURITES, spec.getUsers(), this::favourites);
+        write("transactions", "INSERT INTO transactions (amount, currency, status, time_stamp, sender_id, receiver_id, " +
+                "sender_account_id, receiver_account_id, received_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                TRANSACTIONS, spec.getTransactions(), this::transaction);
+
+        settleBalances();
+        restartIdentities();
+        progress.printf("Dataset seed=%d generated in %d ms%n", spec.getSeed(), System.currentTimeMillis() - start);
+    }
+
+    @FunctionalInterface
+    interface RowSource {
+        // Adds zero or more rows for one position to the batch and returns how many
+        int add(long index, SplittableRandom random, PreparedStatement insert) throws SQLException;
+    }
+
+    private void write(String table, String sql, long salt, long positions, RowSource source) throws Exception {
+        long start = System.currentTimeMillis();
+        ExecutorService writers = Executors.newFixedThreadPool(spec.getWriters());
+        try {
+            List<Future<Long>> chunks = new ArrayList<>();
+            for (long from = 0; from < positions; from += spec.getChunkSize()) {
+                long chunk = from / spec.getChunkSize();
+                long fromIndex = from;
+                long toIndex = Math.min(from + spec.getChunkSize(), positions);
+                chunks.add(writers.submit(() -> writeChunk(sql, new SplittableRandom(mix(spec.getSeed(), salt, chunk)), fromIndex, toIndex, source)));
+            }
+            long rows = 0;
+            for (Future<Long> chunk : chunks) {
+                rows += chunk.get();
+            }
+            long millis = Math.max(1, System.currentTimeMillis() - start);
+            progress.printf("%-12s %,12d rows %8d ms %,10d rows/s%n", table, rows, millis, rows * 1000 / millis);
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    private long writeChunk(String sql, SplittableRandom random, long from, long to, RowSource source) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            long rows = 0;
+            int pending = 0;
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                for (long index = from; index < to; index++) {
+                    int added = source.add(index, random, insert);
+                    rows += added;
+                    pending += added;
+                    if (pending >= spec.getBatchSize()) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            return rows;
+        }
+    }
+
+    private int user(long index, SplittableRandom random, PreparedStatement insert) throws SQLException {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        double country = random.nextDouble();
+        Timestamp created = timestamp(random);
+
+        insert.setLong(1, userId(index));
+        insert.setObject(2, new UUID(random.nextLong(), random.nextLong()));
+        insert.setString(3, isMerchant(index) ? "Merchant " + index : first + " " + last);
+        insert.setString(4, "user" + index);
+        insert.setString(5, PASSWORD_HASH);
+        insert.setString(6, "user" + index + "@speedo.test");
+        insert.setString(7, (random.nextBoolean() ? Gender.MALE : Gender.FEMALE).name());
+        // Matches ^01[0-2,5][0-9]{8}, which leaves room for 400 million numbers
+        insert.setString(8, String.format("01%c%08d", "0125".charAt((int) (index / 100_000_000)), index % 100_000_000));
+        insert.setString(9, (country < 0.8 ? Country.EG : country < 0.9 ? Country.UK : Country.US).name());
+        insert.setObject(10, LocalDate.of(1950 + random.nextInt(55), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        insert.setTimestamp(11, created);
+        insert.setTimestamp(12, created);
+        insert.addBatch();
+        return 1;
+    }
+
+    private int accounts(long index, SplittableRandom random, PreparedStatement insert) throws SQLException {
+        int added = 0;
+        for (Currency currency : CURRENCIES) {
+            if (!hasAccount(index, currency)) {
+                continue;
+            }
+            long accountId = accountId(index, currency);
+            double opening = isMerchant(index)
+                    ? 1_000_000
+                    : round(Math.exp(8 + random.nextGaussian()));
+
+            insert.setLong(1, accountId);
+            insert.setString(2, String.format("%d%014d", currency.ordinal() + 1, index));
+            // Settled against the generated transactions once they are written
+            insert.setDouble(3, opening);
+            insert.setDouble(4, opening);
+            insert.setString(5, currency.name());
+            insert.setLong(6, userId(index));
+            insert.setString(7, String.format("4%015d", accountId));
+            insert.setString(8, "User " + index);
+            insert.setInt(9, 100 + random.nextInt(900));
+            insert.setString(10, String.format("%02d/%02d", 1 + random.nextInt(12), 26 + random.nextInt(5)));
+            insert.addBatch();
+            added++;
+        }
+        return added;
+    }
+
+    private int favourites(long index, SplittableRandom random, PreparedStatement insert) throws SQLException {
+        if (isMerchant(index)) {
+            return 0;
+        }
+        // Exponentially distributed count: most users keep a few, some keep many
+        int count = (int) Math.min(50, -Math.log(1 - random.nextDouble()) * spec.getFavouritesPerUser());
+        long[] picked = new long[count];
+        int added = 0;
+        for (int attempt = 0; attempt < count * 4 && added < count; attempt++) {
+            long favourite = receiver(index, random);
+            if (contains(picked, added, favourite)) {
+                continue;
+            }
+            picked[added++] = favourite;
+            insert.setLong(1, userId(index));
+            insert.setLong(2, userId(favourite));
+            insert.setTimestamp(3, timestamp(random));
+            insert.addBatch();
+        }
+        return added;
+    }
+
+    private int transaction(long index, SplittableRandom random, PreparedStatement insert) throws SQLException {
+        long sender = random.nextLong(spec.getUsers());
+        long receiver = receiver(sender, random);
+        Currency currency = sharedCurrency(sender, receiver, random);
+        double amount = Math.min(50_000, Math.max(1, round(Math.exp(3.5 + 1.2 * random.nextGaussian()))));
+        boolean status = random.nextDouble() < 0.97;
+
+        insert.setDouble(1, amount);
+        insert.setString(2, currency.name());
+        insert.setBoolean(3, status);
+        insert.setTimestamp(4, timestamp(random));
+        insert.setLong(5, userId(sender));
+        insert.setLong(6, userId(receiver));
+        insert.setLong(7, accountId(sender, currency));
+        insert.setLong(8, accountId(receiver, currency));
+        if (status) {
+            insert.setDouble(9, amount);
+        } else {
+            insert.setNull(9, Types.DOUBLE);
+        }
+        insert.addBatch();
+        return 1;
+    }
+
+    // Balances become opening + credits - debits, so the dataset reconciles
+    private void settleBalances() throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE accounts SET balance = opening_balance" +
+                    " + COALESCE((SELECT SUM(t.received_amount) FROM transactions t WHERE t.status = TRUE AND t.receiver_account_id = accounts.id), 0)" +
+                    " - COALESCE((SELECT SUM(t.amount) FROM transactions t WHERE t.status = TRUE AND t.sender_account_id = accounts.id), 0)" +
+                    " WHERE opening_balance IS NOT NULL");
+        }
+        progress.printf("%-12s %26d ms%n", "balances", System.currentTimeMillis() - start);
+    }
+
+    // Ids were written explicitly, so move the identity columns past them
+    private void restartIdentities() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+            for (String[] identity : new String[][]{{"users", "internal_id"}, {"accounts", "id"}}) {
+                long next;
+                try (ResultSet max = statement.executeQuery("SELECT COALESCE(MAX(" + identity[1] + "), 0) + 1 FROM " + identity[0])) {
+                    max.next();
+                    next = max.getLong(1);
+                }
+                statement.execute(postgres
+                        ? "SELECT setval(pg_get_serial_sequence('" + identity[0] + "', '" + identity[1] + "'), " + next + ", false)"
+                        : "ALTER TABLE " + identity[0] + " ALTER COLUMN " + identity[1] + " RESTART WITH " + next);
+            }
+        }
+    }
+
+    private void truncate() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL")) {
+                statement.execute("TRUNCATE transactions, favourites, accounts, users");
+                return;
+            }
+            for (String table : List.of("transactions", "favourites", "accounts", "users")) {
+                statement.executeUpdate("DELETE FROM " + table);
+            }
+        }
+    }
+
+    // A merchant by Zipf rank for hotShare of picks, otherwise anyone in the long tail
+    private long receiver(long sender, SplittableRandom random) {
+        long receiver = random.nextDouble() < spec.getHotShare()
+                ? merchantRank.sample(random)
+                : random.nextLong(spec.getUsers());
+        return receiver == sender ? (receiver + 1) % spec.getUsers() : receiver;
+    }
+
+    private Currency sharedCurrency(long sender, long receiver, SplittableRandom random) {
+        Currency picked = CURRENCIES[random.nextInt(CURRENCIES.length)];
+        return hasAccount(sender, picked) && hasAccount(receiver, picked) ? picked : Currency.EGY;
+    }
+
+    // Everyone has an EGY account; merchants hold every currency
+    boolean hasAccount(long user, Currency currency) {
+        if (currency == Currency.EGY || isMerchant(user)) {
+            return true;
+        }
+        double share = currency == Currency.USD ? 0.4 : 0.2;
+        return unit(mix(spec.getSeed(), ACCOUNTS, user * CURRENCIES.length + currency.ordinal())) < share;
+    }
+
+    private boolean isMerchant(long user) {
+        return user < spec.getMerchants();
+    }
+
+    private Timestamp timestamp(SplittableRandom random) {
+        return Timestamp.valueOf(spec.getAnchor().minusSeconds(random.nextLong(spec.getDays() * 86_400L)));
+    }
+
+    static long userId(long user) {
+        return user + 1;
+    }
+
+    // Fixed slots per user, so transactions can reference accounts without looking them up
+    static long accountId(long user, Currency currency) {
+        return user * CURRENCIES.length + currency.ordinal() + 1;
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    private static double unit(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    // splitmix64 finaliser over the combined inputs
+    private static long mix(long seed, long salt, long index) {
+        long z = seed * 0x9E3779B97F4A7C15L + salt * 0xC2B2AE3D27D4EB4FL + index;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.speedotansfer.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the migrated schema, so every unique constraint is enforced
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:dataset;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DatasetGeneratorTest {
+
+    private static final DatasetSpec SPEC = DatasetSpec.builder()
+            .users(500)
+            .merchants(5)
+            .transactions(5_000)
+            .chunkSize(700)
+            .batchSize(100)
+            .truncate(true)
+            .build();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void sameSeedGivesTheSameRowsWhateverTheWriterCount() throws Exception {
+        new DatasetGenerator(SPEC.toBuilder().writers(1).build(), dataSource).generate();
+        List<Map<String, Object>> single = fingerprint();
+
+        new DatasetGenerator(SPEC.toBuilder().writers(4).build(), dataSource).generate();
+        assertEquals(single, fingerprint());
+
+        new DatasetGenerator(SPEC.toBuilder().seed(7).build(), dataSource).generate();
+        assertNotEquals(single, fingerprint());
+    }
+
+    @Test
+    public void transfersAreSkewedTowardsMerchantsAndReconcile() throws Exception {
+        new DatasetGenerator(SPEC, dataSource).generate();
+
+        long total = count("SELECT COUNT(*) FROM transactions");
+        long toTopMerchant = count("SELECT COUNT(*) FROM transactions WHERE receiver_id = 1");
+        long toMerchants = count("SELECT COUNT(*) FROM transactions WHERE receiver_id <= 5");
+
+        assertEquals(SPEC.getTransactions(), total);
+        // A uniform pick would give each user 0.2%
+        assertTrue(toTopMerchant > total * 0.05, "top merchant received " + toTopMerchant);
+        assertTrue(toMerchants > total * 0.25, "merchants received " + toMerchants);
+        assertEquals(0, count("SELECT COUNT(*) FROM transactions WHERE sender_id = receiver_id"));
+        assertEquals(0, count("SELECT COUNT(*) FROM accounts a WHERE ABS(a.balance - (a.opening_balance" +
+                " + COALESCE((SELECT SUM(t.received_amount) FROM transactions t WHERE t.status = TRUE AND t.receiver_account_id = a.id), 0)" +
+                " - COALESCE((SELECT SUM(t.amount) FROM transactions t WHERE t.status = TRUE AND t.sender_account_id = a.id), 0))) > 0.001"));
+
+        // Rows created through the application after generation must not collide with generated ids
+        jdbcTemplate.update("INSERT INTO users (external_id, full_name, username, password, email, gender, phone_number, country, birthdate) " +
+                "VALUES (RANDOM_UUID(), 'New User', 'new', 'x', 'new@example.com', 'MALE', '01199999999', 'EG', DATE '2000-01-01')");
+        assertEquals(SPEC.getUsers() + 1, count("SELECT MAX(internal_id) FROM users"));
+    }
+
+    private List<Map<String, Object>> fingerprint() {
+        return jdbcTemplate.queryForList(
+                "SELECT 'users' AS t, COUNT(*) AS n, SUM(LENGTH(full_name) * internal_id) AS h, CAST(MAX(external_id) AS VARCHAR) AS x FROM users UNION ALL " +
+                "SELECT 'accounts', COUNT(*), ROUND(SUM(balance * id), 2), MAX(expiration_date) FROM accounts UNION ALL " +
+                "SELECT 'favourites', COUNT(*), SUM(user_id * 1000003 + fav_id), CAST(MAX(added_at) AS VARCHAR) FROM favourites UNION ALL " +
+                "SELECT 'transactions', COUNT(*), ROUND(SUM(amount * sender_id + receiver_account_id), 2), CAST(MAX(time_stamp) AS VARCHAR) FROM transactions");
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
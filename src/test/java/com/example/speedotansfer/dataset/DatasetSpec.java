@@ -0,0 +1,86 @@
+package com.example.speedotansfer.dataset;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Everything that shapes the generated data. Same spec and seed give the same rows,
+// whatever the number of writers.
+@Getter
+@Builder(toBuilder = true)
+public class DatasetSpec {
+
+    @Builder.Default
+    private long seed = 42;
+    @Builder.Default
+    private int users = 100_000;
+    // The first `merchants` users are the hot receivers
+    @Builder.Default
+    private int merchants = 100;
+    @Builder.Default
+    private long transactions = 1_000_000;
+    // Share of transfers and favourites that go to a merchant, picked by Zipf rank
+    @Builder.Default
+    private double hotShare = 0.3;
+    @Builder.Default
+    private double zipfExponent = 1.1;
+    @Builder.Default
+    private double favouritesPerUser = 3;
+    @Builder.Default
+    private int days = 365;
+    @Builder.Default
+    private LocalDateTime anchor = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Builder.Default
+    private int writers = 4;
+    @Builder.Default
+    private int batchSize = 1_000;
+    // Rows per committed unit of work; also the unit each random stream is seeded for
+    @Builder.Default
+    private int chunkSize = 50_000;
+    @Builder.Default
+    private boolean truncate = false;
+
+    private String url;
+    private String username;
+    private String password;
+
+    // Arguments are key=value, e.g. url=jdbc:postgresql://localhost/speedo users=1000000 seed=7
+    public static DatasetSpec fromArgs(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            values.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+
+        DatasetSpecBuilder builder = DatasetSpec.builder();
+        values.forEach((key, value) -> {
+            switch (key) {
+                case "seed" -> builder.seed(Long.parseLong(value));
+                case "users" -> builder.users(Integer.parseInt(value));
+                case "merchants" -> builder.merchants(Integer.parseInt(value));
+                case "transactions" -> builder.transactions(Long.parseLong(value));
+                case "hotShare" -> builder.hotShare(Double.parseDouble(value));
+                case "zipfExponent" -> builder.zipfExponent(Double.parseDouble(value));
+                case "favouritesPerUser" -> builder.favouritesPerUser(Double.parseDouble(value));
+                case "days" -> builder.days(Integer.parseInt(value));
+                case "anchor" -> builder.anchor(LocalDateTime.parse(value));
+                case "writers" -> builder.writers(Integer.parseInt(value));
+                case "batchSize" -> builder.batchSize(Integer.parseInt(value));
+                case "chunkSize" -> builder.chunkSize(Integer.parseInt(value));
+                case "truncate" -> builder.truncate(Boolean.parseBoolean(value));
+                case "url" -> builder.url(value);
+                case "username" -> builder.username(value);
+                case "password" -> builder.password(value);
+                default -> throw new IllegalArgumentException("Unknown option " + key);
+            }
+        });
+        return builder.build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.speedotansfer.dataset;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// Rank 0 is the hottest; P(rank k) is proportional to 1 / (k + 1)^exponent
+public class ZipfSampler {
+
+    private final double[] cdf;
+
+    public ZipfSampler(int size, double exponent) {
+        cdf = new double[size];
+        double total = 0;
+        for (int k = 0; k < size; k++) {
+            total += 1 / Math.pow(k + 1, exponent);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cdf[k] /= total;
+        }
+    }
+
+    public int sample(RandomGenerator random) {
+        int slot = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(slot >= 0 ? slot : -slot - 1, cdf.length - 1);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.speedotansfer.ledger;
+
+import com.example.speedotansfer.enums.Currency;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+// Started in its own JVM by MappedTransferJournalTest: appends records whose transfer id is their
+// position + 1, syncs every few, prints the last durable id after each sync and runs until killed
+public class JournalWriterProcess {
+
+    public static void main(String[] args) throws Exception {
+        MappedTransferJournal journal = new MappedTransferJournal(Path.of(args[0]), Integer.parseInt(args[1]), 0);
+        long id = journal.end();
+        while (true) {
+            for (int i = 0; i < 7; i++) {
+                journal.append(record(++id));
+            }
+            journal.sync();
+            System.out.println(id);
+            System.out.flush();
+        }
+    }
+
+    static LedgerRecord record(long id) {
+        return new LedgerRecord(id, id % 97, id % 89, id % 13, id % 11, Currency.values()[(int) (id % 3)], id, id * 2, id,
+                id % 2 == 0 ? null : new UUID(id, -id));
+    }
+}
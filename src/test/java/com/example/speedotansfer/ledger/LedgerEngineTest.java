@@ -0,0 +1,380 @@
+package com.example.speedotansfer.ledger;
+
+import com.example.speedotansfer.TestFixtures;
+import com.example.speedotansfer.config.JournalConfig;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithUsernameDTO;
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Frequency;
+import com.example.speedotansfer.event.AccountCreatedEvent;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.metrics.TransferMetricsAspect;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.LedgerCheckpoint;
+import com.example.speedotansfer.model.StandingOrder;
+import com.example.speedotansfer.model.Transaction;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.LedgerCheckpointRepository;
+import com.example.speedotansfer.repository.LedgerRequests;
+import com.example.speedotansfer.repository.StandingOrderRepository;
+import com.example.speedotansfer.repository.StatementRollups;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.CacheService;
+import com.example.speedotansfer.service.impl.DatabaseTransferService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.StandingOrderScheduler;
+import com.example.speedotansfer.service.impl.TransferService;
+import com.example.speedotansfer.service.impl.helpers.CurrencyExchangeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// The context and its ledger are shared by every test, so each one opens its own accounts
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:ledger;DB_CLOSE_DELAY=-1",
+        "app.ledger.enabled=true",
+        "app.ledger.partitions=3",
+        "app.journal.segment-records=64"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JournalConfig.class, LedgerEngine.class, LedgerSnapshotter.class, StatementRollups.class, LedgerRequests.class,
+        TransferService.class, DatabaseTransferService.class, StandingOrderScheduler.class, TransferMetricsAspect.class, LedgerEngineTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LedgerEngineTest {
+
+    @TestConfiguration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class Metrics {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static Path journalDir;
+
+    @DynamicPropertySource
+    static void journalDir(DynamicPropertyRegistry registry) throws IOException {
+        journalDir = Files.createTempDirectory("ledger");
+        registry.add("app.journal.dir", journalDir::toString);
+    }
+
+    @MockBean
+    private CacheService cacheService;
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @SpyBean
+    private DataSource dataSource;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private LedgerSnapshotter snapshotter;
+
+    @Autowired
+    private TransferJournal journal;
+
+    @Autowired
+    private LedgerCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @Autowired
+    private StandingOrderScheduler scheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void transfersSettleInMemoryAndReachTheTablesOnSnapshot() throws Exception {
+        User alice = user();
+        User bob = user();
+        Account aliceUsd = account(alice, Currency.USD, 1000);
+        Account bobUsd = account(bob, Currency.USD, 0);
+        Account bobEgy = account(bob, Currency.EGY, 0);
+
+        TransferResponseDTO response = ledgerEngine.transfer(alice.getInternalId(), bobUsd.getAccountNumber(), 100, Currency.USD, Currency.USD);
+        String bobEgyNumber = ledgerEngine.accountNumberOf(bob.getInternalId(), Currency.EGY).orElseThrow();
+        ledgerEngine.transfer(alice.getInternalId(), bobEgyNumber, 50, Currency.USD, Currency.EGY);
+
+        assertTrue(response.isStatus());
+        assertEquals(aliceUsd.getAccountNumber(), response.getFromAccount());
+        double received = 50 * CurrencyExchangeService.getExchangeRate(Currency.USD, Currency.EGY);
+        assertEquals(850, inMemory(aliceUsd), 0.0001);
+        assertEquals(100, inMemory(bobUsd), 0.0001);
+        assertEquals(received, inMemory(bobEgy), 0.0001);
+        // Nothing reaches the table before a snapshot
+        assertEquals(1000, stored(aliceUsd));
+
+        snapshotter.snapshot();
+
+        assertEquals(850, stored(aliceUsd), 0.0001);
+        assertEquals(100, stored(bobUsd), 0.0001);
+        assertEquals(received, stored(bobEgy), 0.0001);
+        List<Transaction> rows = transactionRepository.findAllBySenderInternalId(alice.getInternalId());
+        assertEquals(2, rows.size());
+        assertTrue(rows.stream().allMatch(Transaction::isStatus));
+        // The id the caller got back is the row's
+        assertEquals(100, transactionRepository.findById(response.getTransactionId()).orElseThrow().getAmount());
+        verify(cacheService).evictAccounts(bob.getInternalId());
+
+        // Caught up, so only the segment being written is left
+        long position = checkpointRepository.findById(LedgerCheckpoint.ID).orElseThrow().getPosition();
+        assertEquals(journal.end(), position);
+        assertTrue(position - journal.start() <= 64);
+        try (MappedTransferJournal reopened = new MappedTransferJournal(copyJournal(), 64, 0)) {
+            assertEquals(journal.start(), reopened.start());
+            assertEquals(position, reopened.end());
+        }
+    }
+
+    @Test
+    public void refusedTransfersLeaveNothingBehind() {
+        User carol = user();
+        Account carolUsd = account(carol, Currency.USD, 10);
+        Account daveEur = account(user(), Currency.EUR, 0);
+        long end = journal.end();
+
+        assertThrows(InsufficientAmountException.class,
+                () -> ledgerEngine.transfer(carol.getInternalId(), daveEur.getAccountNumber(), 11, Currency.USD, Currency.EUR));
+        assertThrows(InvalidTransferException.class,
+                () -> ledgerEngine.transfer(carol.getInternalId(), daveEur.getAccountNumber(), 5, Currency.USD, Currency.USD));
+        assertThrows(UserNotFoundException.class,
+                () -> ledgerEngine.transfer(carol.getInternalId(), "999999999999999", 5, Currency.USD, Currency.USD));
+        assertThrows(AccountNotFoundException.class,
+                () -> ledgerEngine.transfer(carol.getInternalId(), daveEur.getAccountNumber(), 5, Currency.EGY, Currency.EUR));
+
+        assertEquals(end, journal.end());
+        assertEquals(10, inMemory(carolUsd));
+        assertEquals(0, inMemory(daveEur));
+    }
+
+    @Test
+    public void concurrentTransfersConserveMoney() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            accounts.add(account(user(), Currency.USD, 1000));
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        List<Future<?>> results = new ArrayList<>();
+        for (int c = 0; c < 4; c++) {
+            results.add(clients.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 250; i++) {
+                    Account from = accounts.get(random.nextInt(accounts.size()));
+                    Account to = accounts.get(random.nextInt(accounts.size()));
+                    try {
+                        ledgerEngine.transfer(from.getUser().getInternalId(), to.getAccountNumber(), random.nextInt(1, 300), Currency.USD, Currency.USD);
+                    } catch (InsufficientAmountException ignored) {
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        clients.shutdown();
+
+        double total = 0;
+        for (Account account : accounts) {
+            double balance = inMemory(account);
+            assertTrue(balance >= 0, account.getAccountNumber() + " went to " + balance);
+            total += balance;
+        }
+        assertEquals(6000, total, 0.0001);
+
+        snapshotter.snapshot();
+        for (Account account : accounts) {
+            assertEquals(inMemory(account), stored(account), 0.0001);
+        }
+    }
+
+    @Test
+    public void acknowledgedTransfersAreOnDiskBeforeTheyReturn() throws Exception {
+        User erin = user();
+        Account erinUsd = account(erin, Currency.USD, 100);
+        Account frankUsd = account(user(), Currency.USD, 0);
+
+        long first = journal.end();
+        TransferResponseDTO one = ledgerEngine.transfer(erin.getInternalId(), frankUsd.getAccountNumber(), 10, Currency.USD, Currency.USD);
+        TransferResponseDTO two = ledgerEngine.transfer(erin.getInternalId(), frankUsd.getAccountNumber(), 20, Currency.USD, Currency.USD);
+
+        // What a restart right now would find
+        try (MappedTransferJournal reopened = new MappedTransferJournal(copyJournal(), 64, 0)) {
+            assertEquals(first + 2, reopened.end());
+            List<LedgerRecord> records = new ArrayList<>();
+            reopened.read(first, 10, records::add);
+            assertEquals(List.of(one.getTransactionId(), two.getTransactionId()), records.stream().map(LedgerRecord::transferId).toList());
+            assertEquals(erinUsd.getId(), records.get(0).senderAccountId());
+            assertEquals(20, records.get(1).amount());
+        }
+    }
+
+    @Test
+    public void ledgerTransfersHoldNoConnectionWhileTheJournalSyncs() throws Exception {
+        User grace = user();
+        User heidi = user();
+        account(grace, Currency.USD, 100);
+        Account heidiUsd = account(heidi, Currency.USD, 0);
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(grace.getInternalId());
+        when(cacheService.getUserIdByUsername(heidi.getUsername())).thenReturn(heidi.getInternalId());
+
+        List<Thread> borrowers = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            borrowers.add(Thread.currentThread());
+            return invocation.callRealMethod();
+        }).when(dataSource).getConnection();
+
+        SendMoneyWithAccNumberDTO byNumber = new SendMoneyWithAccNumberDTO();
+        byNumber.setAccountNumber(heidiUsd.getAccountNumber());
+        byNumber.setAmount(10.0);
+        byNumber.setSendCurrency(Currency.USD);
+        byNumber.setReceiveCurrency(Currency.USD);
+        SendMoneyWithUsernameDTO byUsername = new SendMoneyWithUsernameDTO();
+        byUsername.setUsername(heidi.getUsername());
+        byUsername.setAmount(20.0);
+        byUsername.setSendCurrency(Currency.USD);
+        byUsername.setReceiveCurrency(Currency.USD);
+        transferService.transferUsingAccNumber("Bearer token", byNumber);
+        transferService.transferUsingUsername("Bearer token", byUsername);
+
+        assertFalse(borrowers.contains(Thread.currentThread()));
+        assertEquals(30, inMemory(heidiUsd), 0.0001);
+    }
+
+    @Test
+    public void aStandingOrderRunThatAlreadyPaidIsNotPaidAgain() throws Exception {
+        meterRegistry.clear();
+        User ivan = user();
+        Account ivanUsd = account(ivan, Currency.USD, 100);
+        Account judyUsd = account(user(), Currency.USD, 0);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        StandingOrder order = standingOrderRepository.save(StandingOrder.builder()
+                .user(ivan)
+                .accountNumber(judyUsd.getAccountNumber())
+                .amount(30.0)
+                .sendCurrency(Currency.USD)
+                .receiveCurrency(Currency.USD)
+                .frequency(Frequency.MONTHLY)
+                .startAt(start)
+                .nextRunAt(start)
+                .dueAt(start)
+                .active(true)
+                .build());
+
+        // As if an earlier run paid and then failed to record it: same order, same run number
+        UUID requestKey = UUID.nameUUIDFromBytes(("standing-order:" + order.getId() + ":0").getBytes(StandardCharsets.UTF_8));
+        TransferResponseDTO paid = ledgerEngine.transfer(ivan.getInternalId(), judyUsd.getAccountNumber(), 30,
+                Currency.USD, Currency.USD, requestKey);
+
+        scheduler.runDue();
+
+        StandingOrder after = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(1, after.getRuns());
+        assertNull(after.getLastError());
+        assertEquals(70, inMemory(ivanUsd), 0.0001);
+        assertEquals(30, inMemory(judyUsd), 0.0001);
+        // Both tries were timed, though only one paid
+        assertEquals(2, meterRegistry.get(TransferMetricsAspect.TRANSFER_TIMER).tag("outcome", "success").timer().count());
+
+        // The key outlives the in-memory map through a restart
+        snapshotter.snapshot();
+        assertEquals(paid.getTransactionId(), snapshotter.recentRequests().get(requestKey));
+    }
+
+    private Path copyJournal() throws IOException {
+        Path copy = Files.createTempDirectory("ledger-copy");
+        try (Stream<Path> segments = Files.list(journalDir)) {
+            for (Path segment : segments.toList()) {
+                Files.copy(segment, copy.resolve(segment.getFileName()));
+            }
+        }
+        return copy;
+    }
+
+    private double inMemory(Account account) {
+        return ledgerEngine.balanceOf(account.getAccountNumber()).join();
+    }
+
+    private double stored(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+
+    private User user() {
+        int n = SEQUENCE.incrementAndGet();
+        return userRepository.save(TestFixtures.user("user" + n, n));
+    }
+
+    private Account account(User owner, Currency currency, double balance) {
+        String accountNumber = String.format("3%014d", SEQUENCE.incrementAndGet());
+        Account account = accountRepository.save(TestFixtures.account(owner, accountNumber, currency, balance));
+        ledgerEngine.onAccountCreated(new AccountCreatedEvent(accountNumber, account.getId(), owner.getInternalId(), currency));
+        return account;
+    }
+}
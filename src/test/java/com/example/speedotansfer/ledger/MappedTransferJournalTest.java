@@ -0,0 +1,249 @@
+package com.example.speedotansfer.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static com.example.speedotansfer.ledger.JournalWriterProcess.record;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedTransferJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void recordsRoundTripAcrossSegmentsAndRestarts() throws Exception {
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 4, 0)) {
+            for (long id = 1; id <= 10; id++) {
+                assertEquals(id - 1, journal.append(record(id)));
+            }
+            // Appended but not yet durable
+            assertEquals(0, journal.end());
+            journal.sync();
+            assertEquals(10, journal.end());
+        }
+        assertEquals(3, segmentFiles().size());
+
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 4, 0)) {
+            assertEquals(10, journal.end());
+            assertEquals(10, journal.append(record(11)));
+            journal.append(record(12));
+            journal.append(record(13));
+            journal.sync();
+            assertEquals(ids(1, 13), readAll(journal, 0));
+        }
+        assertEquals(4, segmentFiles().size());
+    }
+
+    @Test
+    public void tornTailIsCutAndAnythingBeyondItErased() throws Exception {
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 16, 0)) {
+            for (long id = 1; id <= 3; id++) {
+                journal.append(record(id));
+            }
+            journal.sync();
+        }
+
+        // Half of record 4 made it to disk, and record 5's page too
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer first = ByteBuffer.allocate(JournalRecords.RECORD);
+            channel.read(first, JournalRecords.HEADER);
+            channel.write(first.flip(), JournalRecords.HEADER + 4L * JournalRecords.RECORD);
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}), JournalRecords.HEADER + 3L * JournalRecords.RECORD);
+        }
+
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 16, 0)) {
+            assertEquals(3, journal.end());
+            journal.append(record(4));
+            journal.sync();
+        }
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 16, 0)) {
+            assertEquals(ids(1, 4), readAll(journal, 0));
+        }
+    }
+
+    @Test
+    public void tornRecordsAheadOfARollCutTheSegmentsAfterThem() throws Exception {
+        MappedTransferJournal crashed = new MappedTransferJournal(directory, 4, 0);
+        for (long id = 1; id <= 3; id++) {
+            crashed.append(record(id));
+        }
+        crashed.sync();
+        // Rolls into a second segment; the process dies before the next sync, so never closed
+        for (long id = 4; id <= 6; id++) {
+            crashed.append(record(id));
+        }
+        assertEquals(2, segmentFiles().size());
+
+        // Record 4's page never reached the disk, the new segment's did
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}), JournalRecords.HEADER + 3L * JournalRecords.RECORD);
+        }
+
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 4, 0)) {
+            assertEquals(3, journal.end());
+            assertEquals(1, segmentFiles().size());
+            assertEquals(ids(1, 3), readAll(journal, 0));
+            assertEquals(3, journal.append(record(4)));
+            journal.append(record(5));
+            journal.sync();
+        }
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 4, 0)) {
+            assertEquals(ids(1, 5), readAll(journal, 0));
+        }
+    }
+
+    @Test
+    public void oldSegmentsGoByRetentionOrTruncation() throws Exception {
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory.resolve("retained"), 4, 2)) {
+            for (long id = 1; id <= 12; id++) {
+                journal.append(record(id));
+            }
+            journal.sync();
+            assertEquals(4, journal.start());
+            assertEquals(ids(5, 12), readAll(journal, 4));
+            assertThrows(IllegalStateException.class, () -> journal.read(0, 10, record -> {
+            }));
+        }
+
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory.resolve("truncated"), 4, 0)) {
+            for (long id = 1; id <= 10; id++) {
+                journal.append(record(id));
+            }
+            journal.sync();
+            // Only segments wholly before the position go
+            assertTrue(journal.truncate(6));
+            assertEquals(4, journal.start());
+            assertFalse(journal.truncate(7));
+            assertTrue(journal.truncate(10));
+            assertEquals(8, journal.start());
+        }
+    }
+
+    @Test
+    public void tailerSeesOnlyDurableRecords() throws Exception {
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 8, 0)) {
+            JournalTailer tailer = new JournalTailer(journal, 0);
+            List<LedgerRecord> seen = new ArrayList<>();
+
+            journal.append(record(1));
+            journal.append(record(2));
+            assertEquals(0, tailer.poll(10, seen::add));
+            journal.sync();
+            assertEquals(2, tailer.poll(10, seen::add));
+            assertEquals(0, tailer.poll(10, Duration.ofMillis(20), seen::add));
+
+            Thread writer = Thread.ofPlatform().start(() -> {
+                try {
+                    Thread.sleep(50);
+                    journal.append(record(3));
+                    journal.sync();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertEquals(1, tailer.poll(10, Duration.ofSeconds(5), seen::add));
+            writer.join();
+
+            assertEquals(3, tailer.position());
+            assertEquals(ids(1, 3), seen.stream().map(LedgerRecord::transferId).toList());
+        }
+    }
+
+    @Test
+    public void concurrentWritersShareForces() throws Exception {
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, 100, 0)) {
+            ExecutorService writers = Executors.newFixedThreadPool(8);
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < 8; w++) {
+                results.add(writers.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        long position = journal.append(record(1));
+                        journal.sync(position);
+                        assertTrue(journal.end() > position);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            writers.shutdown();
+            assertEquals(1600, journal.end());
+            assertEquals(1600, readAll(journal, 0).size());
+        }
+    }
+
+    // SIGKILL leaves the page cache alone, so this covers a process dying mid-append rather than a power cut.
+    // The writer syncs every 7 records: with segments of 7 each sync is followed by a roll, with 256 rolls
+    // land part way through a batch.
+    @ParameterizedTest
+    @ValueSource(ints = {7, 256})
+    public void killedWriterLosesNothingItAcknowledged(int segmentRecords) throws Exception {
+        Process writer = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), JournalWriterProcess.class.getName(), directory.toString(),
+                String.valueOf(segmentRecords))
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        long acknowledged = 0;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+            String line;
+            while (acknowledged < 5_000 && (line = output.readLine()) != null) {
+                if (line.matches("\\d+")) {
+                    acknowledged = Long.parseLong(line);
+                }
+            }
+        } finally {
+            writer.destroyForcibly().waitFor();
+        }
+        assertTrue(acknowledged >= 5_000, "writer stopped at " + acknowledged);
+
+        try (MappedTransferJournal journal = new MappedTransferJournal(directory, segmentRecords, 0)) {
+            assertTrue(journal.end() >= acknowledged, journal.end() + " < " + acknowledged);
+            List<LedgerRecord> records = new ArrayList<>();
+            journal.read(0, Integer.MAX_VALUE, records::add);
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(record(i + 1), records.get(i));
+            }
+        }
+    }
+
+    private List<Long> readAll(TransferJournal journal, long from) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        journal.read(from, Integer.MAX_VALUE, record -> ids.add(record.transferId()));
+        return ids;
+    }
+
+    private static List<Long> ids(long from, long to) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.speedotansfer.ledger;
+
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.CacheService;
+import com.example.speedotansfer.service.impl.DatabaseTransferService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.TransferService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+
+import static com.example.speedotansfer.TestFixtures.account;
+import static com.example.speedotansfer.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:journal-writer;DB_CLOSE_DELAY=-1",
+        "app.journal.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransferService.class, DatabaseTransferService.class, TransferJournalWriter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransferJournalWriterTest {
+
+    @MockBean
+    private TransferJournal journal;
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private CacheService cacheService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User sender;
+    private Account senderAccount;
+    private Account receiverAccount;
+
+    @BeforeEach
+    public void setUp() {
+        sender = userRepository.save(user("sender", 1));
+        senderAccount = accountRepository.save(account(sender, "100000000000001", Currency.USD, 100));
+        receiverAccount = accountRepository.save(account(userRepository.save(user("receiver", 2)), "100000000000002", Currency.USD, 0));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void transfersAreSyncedToTheJournalBeforeTheyCommit() throws Exception {
+        when(journal.append(any())).thenReturn(41L);
+
+        TransferResponseDTO response = transferService.transferFromUser(sender.getInternalId(), send(25));
+
+        ArgumentCaptor<LedgerRecord> record = ArgumentCaptor.forClass(LedgerRecord.class);
+        verify(journal).append(record.capture());
+        verify(journal).sync(41L);
+        assertEquals(response.getTransactionId(), record.getValue().transferId());
+        assertEquals(senderAccount.getId(), record.getValue().senderAccountId());
+        assertEquals(25, record.getValue().amount());
+        assertEquals(75, balance(senderAccount));
+    }
+
+    @Test
+    public void aJournalThatCannotBeWrittenRollsTheTransferBack() throws Exception {
+        when(journal.append(any())).thenReturn(0L);
+        doThrow(new IOException("No space left on device")).when(journal).sync(anyLong());
+
+        assertThrows(IllegalStateException.class, () -> transferService.transferFromUser(sender.getInternalId(), send(25)));
+
+        assertEquals(100, balance(senderAccount));
+        assertEquals(0, balance(receiverAccount));
+        assertEquals(0, transactionRepository.count());
+    }
+
+    private SendMoneyWithAccNumberDTO send(double amount) {
+        SendMoneyWithAccNumberDTO dto = new SendMoneyWithAccNumberDTO();
+        dto.setAccountNumber(receiverAccount.getAccountNumber());
+        dto.setAmount(amount);
+        dto.setSendCurrency(Currency.USD);
+        dto.setReceiveCurrency(Currency.USD);
+        return dto;
+    }
+
+    private double balance(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+}
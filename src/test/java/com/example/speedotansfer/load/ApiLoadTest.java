@@ -0,0 +1,218 @@
+package com.example.speedotansfer.load;
+
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Gender;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.AuthService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Excluded from the default build; run with: mvn -Ploadtest test
+// Rates, duration and budgets come from application-loadtest.properties and can be overridden with -Dloadtest.*
+@Tag("load")
+@ActiveProfiles({"local", "loadtest"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(LocalStandInsConfig.class)
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class ApiLoadTest {
+
+    private static final String PASSWORD = "Password123!";
+    private static final double MIN_THROUGHPUT_RATIO = 0.9;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadTestProperties properties;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private AccountDirectory accountDirectory;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<String> usdAccounts = new ArrayList<>();
+
+    @Test
+    public void endpointsStayWithinBudget() throws Exception {
+        seed();
+
+        Map<String, LoadDriver.Scenario> scenarios = new LinkedHashMap<>();
+        properties.getEndpoints().forEach((name, endpoint) ->
+                scenarios.put(name, new LoadDriver.Scenario(endpoint.getRate(), request(name))));
+
+        Map<String, EndpointStats.Summary> results = new LoadDriver()
+                .run(scenarios, properties.getWarmup(), properties.getDuration());
+
+        report(results);
+
+        List<Executable> budgets = new ArrayList<>();
+        results.forEach((name, summary) -> {
+            LoadTestProperties.Endpoint budget = properties.getEndpoints().get(name);
+            budgets.add(() -> assertTrue(summary.p99Ms() <= budget.getP99().toMillis(),
+                    name + " p99 " + summary.p99Ms() + "ms exceeds " + budget.getP99().toMillis() + "ms"));
+            budgets.add(() -> assertTrue(summary.errorRate() <= budget.getErrorRate(),
+                    name + " error rate " + summary.errorRate() + " exceeds " + budget.getErrorRate() + " " + summary.errors()));
+            budgets.add(() -> assertTrue(summary.throughput() >= budget.getRate() * MIN_THROUGHPUT_RATIO,
+                    name + " throughput " + summary.throughput() + "/s below offered " + budget.getRate() + "/s"));
+        });
+        assertAll(budgets);
+    }
+
+    private Supplier<HttpRequest> request(String endpoint) {
+        return switch (endpoint) {
+            case "login" -> () -> {
+                User user = randomUser();
+                return post("/api/auth/login", null,
+                        "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}");
+            };
+            case "transfer" -> () -> {
+                int sender = ThreadLocalRandom.current().nextInt(users.size());
+                int receiver = (sender + 1 + ThreadLocalRandom.current().nextInt(users.size() - 1)) % users.size();
+                return post("/api/transfer", tokens.get(sender), String.format(Locale.ROOT,
+                        "{\"accountNumber\":\"%s\",\"amount\":%d,\"sendCurrency\":\"USD\",\"receiveCurrency\":\"USD\"}",
+                        usdAccounts.get(receiver), 1 + ThreadLocalRandom.current().nextInt(10)));
+            };
+            case "username" -> () -> {
+                int sender = ThreadLocalRandom.current().nextInt(users.size());
+                int receiver = (sender + 1 + ThreadLocalRandom.current().nextInt(users.size() - 1)) % users.size();
+                return post("/api/transfer/username", tokens.get(sender), String.format(Locale.ROOT,
+                        "{\"username\":\"%s\",\"amount\":%d,\"sendCurrency\":\"USD\",\"receiveCurrency\":\"USD\"}",
+                        users.get(receiver).getUsername(), 1 + ThreadLocalRandom.current().nextInt(10)));
+            };
+            case "transaction" -> () -> get("/api/transaction", randomToken());
+            case "balance" -> () -> get("/api/account/balance", randomToken());
+            default -> throw new IllegalArgumentException("No scenario for endpoint " + endpoint);
+        };
+    }
+
+    private void seed() {
+        String password = passwordEncoder.encode(PASSWORD);
+        List<Account> accounts = new ArrayList<>();
+
+        for (int i = 0; i < properties.getUsers(); i++) {
+            User user = userRepository.save(User.builder()
+                    .externalId(UUID.randomUUID())
+                    .fullName("Load User " + i)
+                    .username("load" + i)
+                    .password(password)
+                    .email("load" + i + "@example.com")
+                    .gender(i % 2 == 0 ? Gender.MALE : Gender.FEMALE)
+                    .phoneNumber(String.format("010%08d", i))
+                    .country(Country.EG)
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build());
+            users.add(user);
+
+            for (Currency currency : List.of(Currency.EGY, Currency.USD)) {
+                String accountNumber = String.format("%d%014d", currency.ordinal() + 1, i);
+                accounts.add(Account.builder()
+                        .accountNumber(accountNumber)
+                        .balance(1_000_000_000)
+                        .currency(currency)
+                        .user(user)
+                        .cardNumber(String.format("4%015d", i * 2L + currency.ordinal()))
+                        .cardholderName(user.getFullName())
+                        .cvv(123)
+                        .expirationDate("12/30")
+                        .build());
+                if (currency == Currency.USD) {
+                    usdAccounts.add(accountNumber);
+                }
+            }
+
+            // Same token the login endpoint would hand out, without paying for bcrypt per user
+            String token = authService.generateToken(user);
+            redisService.storeToken(token, user.getInternalId());
+            tokens.add(token);
+        }
+        accountRepository.saveAll(accounts);
+
+        // Seeding bypasses AccountService, so no creation events were published
+        accountDirectory.warm();
+    }
+
+    private void report(Map<String, EndpointStats.Summary> results) throws Exception {
+        System.out.printf("%n%-12s %9s %10s %9s %9s %9s %9s %8s  %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors", "breakdown");
+        results.values().forEach(s -> System.out.printf(Locale.ROOT, "%-12s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%  %s%n",
+                s.endpoint(), s.requests(), s.throughput(), s.p50Ms(), s.p95Ms(), s.p99Ms(), s.maxMs(),
+                s.errorRate() * 100, s.errors()));
+
+        File out = new File("target/loadtest-report.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, results.values());
+        System.out.println("Report written to " + out.getAbsolutePath());
+    }
+
+    private User randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    private String randomToken() {
+        return tokens.get(ThreadLocalRandom.current().nextInt(tokens.size()));
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
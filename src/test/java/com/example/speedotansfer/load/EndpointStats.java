@@ -0,0 +1,72 @@
+package com.example.speedotansfer.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencies are measured from the intended send time, so a stalled server shows up as
+// latency instead of silently lowering the offered load (coordinated omission).
+public class EndpointStats {
+
+    private final String name;
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private long[] latencies = new long[1024];
+    private int count;
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+    }
+
+    public void recordError(long latencyNanos, String cause) {
+        record(latencyNanos);
+        errors.computeIfAbsent(cause, key -> new LongAdder()).increment();
+    }
+
+    public Summary summarize(long measuredNanos) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(latencies, count);
+        }
+        Arrays.sort(sorted);
+
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((cause, adder) -> errorCounts.put(cause, adder.sum()));
+        long failed = errorCounts.values().stream().mapToLong(Long::longValue).sum();
+
+        return new Summary(
+                name,
+                sorted.length,
+                sorted.length / (measuredNanos / 1e9),
+                millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.95)),
+                millis(percentile(sorted, 0.99)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+                sorted.length == 0 ? 0 : (double) failed / sorted.length,
+                errorCounts);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public record Summary(String endpoint, long requests, double throughput, double p50Ms, double p95Ms,
+                          double p99Ms, double maxMs, double errorRate, Map<String, Long> errors) {
+    }
+}
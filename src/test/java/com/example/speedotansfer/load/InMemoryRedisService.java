@@ -0,0 +1,53 @@
+package com.example.speedotansfer.load;
+
+import com.example.speedotansfer.service.impl.RedisService;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Token store stand-in so the full context runs without a Redis server. Lookups can be made to wait
+// like a network round trip, so blocking on Redis costs a request thread what it would in production.
+public class InMemoryRedisService extends RedisService {
+
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private final Duration latency;
+
+    public InMemoryRedisService(Duration latency) {
+        super(null);
+        this.latency = latency;
+    }
+
+    @Override
+    public void storeToken(String token, Long userId) {
+        tokens.put(token, userId);
+    }
+
+    @Override
+    public Long getUserIdByToken(String token) {
+        roundTrip();
+        return tokens.get(token);
+    }
+
+    @Override
+    public boolean exists(String token) {
+        roundTrip();
+        return tokens.containsKey(token);
+    }
+
+    @Override
+    public void deleteToken(String token) {
+        tokens.remove(token);
+    }
+
+    private void roundTrip() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
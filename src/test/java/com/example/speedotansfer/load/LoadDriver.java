@@ -0,0 +1,96 @@
+package com.example.speedotansfer.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Open-model driver: each endpoint gets a pacer that starts requests at a fixed rate
+// whether or not earlier ones have finished; every request runs on its own virtual thread.
+public class LoadDriver {
+
+    public record Scenario(double rate, Supplier<HttpRequest> request) {
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public Map<String, EndpointStats.Summary> run(Map<String, Scenario> scenarios, Duration warmup, Duration duration)
+            throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        scenarios.keySet().forEach(name -> stats.put(name, new EndpointStats(name)));
+
+        long warmupNanos = warmup.toNanos();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long end = start + warmupNanos + duration.toNanos();
+
+        List<Thread> pacers = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            scenarios.forEach((name, scenario) -> pacers.add(Thread.ofPlatform().name("pacer-" + name).start(() -> {
+                long interval = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.rate());
+                for (long intended = start; intended < end; intended += interval) {
+                    LockSupport.parkNanos(intended - System.nanoTime());
+                    boolean measured = intended - start >= warmupNanos;
+                    long scheduled = intended;
+                    workers.execute(() -> send(scenario.request().get(), scheduled, measured ? stats.get(name) : null));
+                }
+            })));
+            for (Thread pacer : pacers) {
+                pacer.join();
+            }
+        }
+
+        Map<String, EndpointStats.Summary> summaries = new LinkedHashMap<>();
+        stats.forEach((name, endpoint) -> summaries.put(name, endpoint.summarize(duration.toNanos())));
+        return summaries;
+    }
+
+    // Closed model: `clients` callers each send their next request as soon as the last one returns, so the
+    // concurrency the server sees stays fixed; how fast it gets through them is the result
+    public EndpointStats.Summary runClosed(String name, int clients, Supplier<HttpRequest> request, Duration warmup, Duration duration)
+            throws InterruptedException {
+        EndpointStats stats = new EndpointStats(name);
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                workers.execute(() -> {
+                    for (long sent = System.nanoTime(); sent < end; sent = System.nanoTime()) {
+                        send(request.get(), sent, sent >= measureFrom ? stats : null);
+                    }
+                });
+            }
+        }
+        return stats.summarize(duration.toNanos());
+    }
+
+    private void send(HttpRequest request, long intended, EndpointStats stats) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (stats != null) {
+                long latency = System.nanoTime() - intended;
+                if (response.statusCode() / 100 == 2) {
+                    stats.record(latency);
+                } else {
+                    stats.recordError(latency, "HTTP " + response.statusCode());
+                }
+            }
+        } catch (Exception e) {
+            if (stats != null) {
+                stats.recordError(System.nanoTime() - intended, e.getClass().getSimpleName());
+            }
+        }
+    }
+}
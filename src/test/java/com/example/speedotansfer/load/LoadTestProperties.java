@@ -0,0 +1,35 @@
+package com.example.speedotansfer.load;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    private int users = 100;
+    private Duration warmup = Duration.ofSeconds(3);
+    private Duration duration = Duration.ofSeconds(15);
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private Threads threads = new Threads();
+
+    @Data
+    public static class Endpoint {
+        // Requests started per second, independent of how fast responses come back
+        private double rate;
+        private Duration p99 = Duration.ofSeconds(1);
+        private double errorRate;
+    }
+
+    @Data
+    public static class Threads {
+        // Concurrent callers, each waiting for its response before sending again
+        private int clients = 300;
+        private Duration p99 = Duration.ofSeconds(2);
+        private double errorRate;
+    }
+}
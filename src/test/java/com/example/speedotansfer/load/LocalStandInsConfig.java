@@ -0,0 +1,19 @@
+package com.example.speedotansfer.load;
+
+import com.example.speedotansfer.service.impl.RedisService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+@TestConfiguration
+public class LocalStandInsConfig {
+
+    @Bean
+    @Primary
+    public RedisService inMemoryRedisService(@Value("${loadtest.redis-latency:0ms}") Duration latency) {
+        return new InMemoryRedisService(latency);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.speedotansfer.load;
+
+import com.example.speedotansfer.dto.reconciliationDTOs.AccountDriftDTO;
+import com.example.speedotansfer.dto.reconciliationDTOs.ReconciliationReportDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Gender;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.AuthService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.ReconciliationService;
+import com.example.speedotansfer.service.impl.TransferService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Excluded from the default build; run with: mvn -Pstress test
+// A handful of hot accounts take every transfer so the row locks are actually contended
+@Tag("stress")
+@ActiveProfiles("local")
+@SpringBootTest
+@Import(LocalStandInsConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MoneyConservationStressTest {
+
+    private static final double OPENING_BALANCE = 1_000;
+    private static final List<Currency> CURRENCIES = List.of(Currency.EGY, Currency.USD, Currency.EUR);
+
+    @Value("${stress.users:6}")
+    private int userCount;
+
+    @Value("${stress.threads:16}")
+    private int threads;
+
+    @Value("${stress.transfers:4000}")
+    private int transfers;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> tokens = new ArrayList<>();
+    private final List<List<Account>> accountsByUser = new ArrayList<>();
+
+    @BeforeAll
+    public void seed() {
+        for (int i = 0; i < userCount; i++) {
+            User user = userRepository.save(User.builder()
+                    .externalId(UUID.randomUUID())
+                    .fullName("Stress User " + i)
+                    .username("stress" + i)
+                    .password("password")
+                    .email("stress" + i + "@example.com")
+                    .gender(i % 2 == 0 ? Gender.MALE : Gender.FEMALE)
+                    .phoneNumber(String.format("011%08d", i))
+                    .country(Country.EG)
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build());
+
+            List<Account> accounts = new ArrayList<>();
+            for (Currency currency : CURRENCIES) {
+                accounts.add(accountRepository.save(Account.builder()
+                        .accountNumber(String.format("%d%014d", currency.ordinal() + 1, i))
+                        .balance(OPENING_BALANCE)
+                        .openingBalance(OPENING_BALANCE)
+                        .currency(currency)
+                        .user(user)
+                        .cardNumber(String.format("5%015d", i * 3L + currency.ordinal()))
+                        .cardholderName(user.getFullName())
+                        .cvv(123)
+                        .expirationDate("12/30")
+                        .build()));
+            }
+            accountsByUser.add(accounts);
+
+            String token = authService.generateToken(user);
+            redisService.storeToken(token, user.getInternalId());
+            tokens.add(token);
+        }
+        accountDirectory.warm();
+    }
+
+    @Test
+    public void concurrentTransfersConserveMoney() throws Exception {
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        List<Throwable> unexpected = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int n = 0; n < transfers; n++) {
+            pool.execute(() -> {
+                String outcome;
+                try {
+                    start.await();
+                    transferRandomly();
+                    outcome = "success";
+                } catch (InsufficientAmountException e) {
+                    outcome = "insufficient_funds";
+                } catch (InvalidTransferException e) {
+                    outcome = "currency_mismatch";
+                } catch (Throwable e) {
+                    outcome = e.getClass().getSimpleName();
+                    synchronized (unexpected) {
+                        unexpected.add(e);
+                    }
+                }
+                outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES), "Transfers did not finish");
+
+        ReconciliationReportDTO report = reconciliationService.reconcile();
+        System.out.println("Outcomes " + outcomes);
+        System.out.println("Totals " + report.getCurrencies());
+
+        long succeeded = outcomes.getOrDefault("success", new LongAdder()).sum();
+        assertAll(
+                () -> assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected),
+                () -> assertTrue(succeeded > 0, "No transfer succeeded"),
+                () -> assertEquals(succeeded, transactionRepository.findAll().stream().filter(t -> t.isStatus()).count()),
+                () -> assertEquals(0, report.getNegativeBalances()),
+                () -> assertEquals(List.of(), report.getDriftedAccounts()),
+                () -> assertEquals(0, report.getUnreconciledAccounts()),
+                () -> assertEquals(0, report.getUnreconciledTransactions()),
+                () -> assertTrue(report.isBalanced()));
+    }
+
+    @Test
+    public void checkerFlagsATamperedBalance() {
+        Account account = accountsByUser.get(0).get(0);
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + 5 WHERE id = ?", account.getId());
+        try {
+            ReconciliationReportDTO report = reconciliationService.reconcile();
+
+            assertFalse(report.isBalanced());
+            assertEquals(List.of(account.getAccountNumber()),
+                    report.getDriftedAccounts().stream().map(AccountDriftDTO::getAccountNumber).toList());
+            assertEquals(5, report.getDriftedAccounts().get(0).getDrift(), 0.001);
+        } finally {
+            jdbcTemplate.update("UPDATE accounts SET balance = balance - 5 WHERE id = ?", account.getId());
+        }
+    }
+
+    private void transferRandomly() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sender = random.nextInt(userCount);
+        int receiver = (sender + 1 + random.nextInt(userCount - 1)) % userCount;
+        Account receiverAccount = accountsByUser.get(receiver).get(random.nextInt(CURRENCIES.size()));
+
+        SendMoneyWithAccNumberDTO dto = new SendMoneyWithAccNumberDTO();
+        dto.setAccountNumber(receiverAccount.getAccountNumber());
+        dto.setAmount(random.nextInt(1, 30_000) / 100.0);
+        dto.setSendCurrency(CURRENCIES.get(random.nextInt(CURRENCIES.size())));
+        // One in twenty names the wrong currency for the receiving account
+        dto.setReceiveCurrency(random.nextInt(20) == 0
+                ? CURRENCIES.get((CURRENCIES.indexOf(receiverAccount.getCurrency()) + 1) % CURRENCIES.size())
+                : receiverAccount.getCurrency());
+
+        transferService.transferUsingAccNumber("Bearer " + tokens.get(sender), dto);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.speedotansfer.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=false")
+public class PlatformThreadsLoadTest extends ThreadModeLoadTest {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.speedotansfer.load;
+
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Gender;
+import com.example.speedotansfer.metrics.PinningMonitor;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AuthService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Run with: mvn -Ploadtest test -Dtest='*ThreadsLoadTest'
+// The same number of concurrent callers, more than Tomcat's platform pool holds, fetch their profile with a
+// token lookup that waits loadtest.redis-latency. Each mode writes target/loadtest-threads-<mode>.json,
+// including the pinning JFR reported under virtual threads.
+@Tag("load")
+@ActiveProfiles({"local", "loadtest"})
+@Import(LocalStandInsConfig.class)
+@EnableConfigurationProperties(LoadTestProperties.class)
+public abstract class ThreadModeLoadTest {
+
+    // Both modes seed the same in-memory database, so numbering carries on from one to the next
+    private static final AtomicInteger SEEDED = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadTestProperties properties;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<String> tokens = new ArrayList<>();
+
+    protected abstract String mode();
+
+    @Test
+    public void authenticatedRequestsUnderConcurrency() throws Exception {
+        seed();
+        LoadTestProperties.Threads budget = properties.getThreads();
+
+        EndpointStats.Summary summary = new LoadDriver().runClosed(mode(), budget.getClients(),
+                () -> HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/user/details"))
+                        .header("Authorization", "Bearer " + tokens.get(ThreadLocalRandom.current().nextInt(tokens.size())))
+                        .GET()
+                        .build(),
+                properties.getWarmup(), properties.getDuration());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode());
+        report.put("clients", budget.getClients());
+        report.put("summary", summary);
+        report.put("pinning", pinning());
+        System.out.printf(Locale.ROOT, "%n%s threads, %d clients: %.1f req/s, p50 %.2f ms, p99 %.2f ms, errors %.2f%% %s, pinning %s%n",
+                mode(), budget.getClients(), summary.throughput(), summary.p50Ms(), summary.p99Ms(),
+                summary.errorRate() * 100, summary.errors(), report.get("pinning"));
+        File out = new File("target/loadtest-threads-" + mode() + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, report);
+
+        assertAll(
+                () -> assertTrue(summary.p99Ms() <= budget.getP99().toMillis(),
+                        "p99 " + summary.p99Ms() + "ms exceeds " + budget.getP99().toMillis() + "ms"),
+                () -> assertTrue(summary.errorRate() <= budget.getErrorRate(),
+                        "error rate " + summary.errorRate() + " exceeds " + budget.getErrorRate() + " " + summary.errors()));
+    }
+
+    // Milliseconds pinned per site; empty unless PinningMonitor runs
+    private Map<String, Double> pinning() {
+        Map<String, Double> sites = new LinkedHashMap<>();
+        for (Timer timer : meterRegistry.find(PinningMonitor.PINNED).timers()) {
+            sites.put(timer.getId().getTag("site"), timer.totalTime(TimeUnit.MILLISECONDS));
+        }
+        return sites;
+    }
+
+    private void seed() {
+        for (int n = 0; n < 100; n++) {
+            int i = SEEDED.getAndIncrement();
+            User user = userRepository.save(User.builder()
+                    .externalId(UUID.randomUUID())
+                    .fullName("Thread User " + i)
+                    .username(mode() + "-threads" + i)
+                    .password("unused")
+                    .email(mode() + "-threads" + i + "@example.com")
+                    .gender(Gender.FEMALE)
+                    .phoneNumber(String.format("012%08d", i))
+                    .country(Country.EG)
+                    .birthdate(LocalDate.of(1990, 1, 1))
+                    .build());
+            String token = authService.generateToken(user);
+            redisService.storeToken(token, user.getInternalId());
+            tokens.add(token);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.speedotansfer.metrics;
+
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.StatementRollups;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.CacheService;
+import com.example.speedotansfer.service.impl.DatabaseTransferService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.TransactionService;
+import com.example.speedotansfer.service.impl.TransferService;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.speedotansfer.TestFixtures.account;
+import static com.example.speedotansfer.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:jfr;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransferService.class, DatabaseTransferService.class, TransactionService.class, StatementRollups.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FlightRecorderEventsTest {
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private CacheService cacheService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    private Path dir;
+
+    @AfterEach
+    public void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void shippedSettingsCoverEveryApplicationEvent() throws Exception {
+        Map<String, String> settings = shippedSettings().getSettings();
+
+        for (String event : List.of("speedo.TokenAuthentication", "speedo.RedisCall", "speedo.TransferPhase", "speedo.HistoryQuery")) {
+            assertEquals("true", settings.get(event + "#enabled"), event);
+            assertNotNull(settings.get(event + "#threshold"), event);
+        }
+    }
+
+    @Test
+    public void transferPhasesAndHistoryRowsAreRecorded() throws Exception {
+        User sender = userRepository.save(user("sender", 1));
+        User receiver = userRepository.save(user("receiver", 2));
+        accountRepository.save(account(sender, "100000000000001", Currency.USD, 100));
+        Account receiverAccount = accountRepository.save(account(receiver, "200000000000002", Currency.EUR, 100));
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(sender.getInternalId());
+
+        SendMoneyWithAccNumberDTO details = new SendMoneyWithAccNumberDTO();
+        details.setAccountNumber(receiverAccount.getAccountNumber());
+        details.setAmount(10.0);
+        details.setSendCurrency(Currency.USD);
+        details.setReceiveCurrency(Currency.EUR);
+
+        Path file = dir.resolve("events.jfr");
+        try (Recording recording = new Recording(shippedSettings())) {
+            recording.enable("speedo.TransferPhase").withThreshold(Duration.ZERO);
+            recording.enable("speedo.HistoryQuery").withThreshold(Duration.ZERO);
+            recording.start();
+            transferService.transferFromUser(sender.getInternalId(), details);
+            transactionService.getHistory("Bearer token");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Map<String, RecordedEvent> phases = events.stream()
+                .filter(event -> event.getEventType().getName().equals("speedo.TransferPhase"))
+                .collect(Collectors.toMap(event -> event.getString("phase"), event -> event));
+        assertEquals(List.of("convert", "lock", "persist", "resolve"), phases.keySet().stream().sorted().toList());
+        phases.values().forEach(event -> {
+            assertEquals(sender.getInternalId(), event.getLong("userId"));
+            assertEquals("USD_EUR", event.getString("currencyPair"));
+        });
+        assertEquals(1, phases.get("persist").getInt("rows"));
+
+        RecordedEvent history = events.stream()
+                .filter(event -> event.getEventType().getName().equals("speedo.HistoryQuery"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(sender.getInternalId(), history.getLong("userId"));
+        assertEquals(1, history.getInt("sentRows"));
+        assertEquals(0, history.getInt("receivedRows"));
+    }
+
+    private static Configuration shippedSettings() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                FlightRecorderEventsTest.class.getResourceAsStream("/jfr/speedo.jfc"), StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+}
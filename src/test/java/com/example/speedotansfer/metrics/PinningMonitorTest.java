@@ -0,0 +1,98 @@
+package com.example.speedotansfer.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringJUnitConfig
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "app.virtual-threads.pinning-threshold=10ms"
+})
+public class PinningMonitorTest {
+
+    @Configuration
+    @Import(PinningMonitor.class)
+    static class Config {
+        @Bean
+        public static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void blockingInsideSynchronizedIsTimedUnderItsSite() throws Exception {
+        Thread.ofVirtual().start(Locking::sleepHoldingLock).join();
+        Thread.ofVirtual().start(Synchronizing::sleepHoldingMonitor).join();
+
+        Timer pinned = awaitTimer(Synchronizing.class.getName());
+        assertEquals(1, pinned.count());
+        assertTrue(pinned.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        // Recorded before the pinned one, so it would have arrived by now
+        assertNull(meterRegistry.find(PinningMonitor.PINNED).tag("site", Locking.class.getName()).timer());
+    }
+
+    private Timer awaitTimer(String site) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            Timer timer = meterRegistry.find(PinningMonitor.PINNED).tag("site", site).timer();
+            if (timer != null) {
+                return timer;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No pinning reported for " + site);
+    }
+
+    // The site is the first frame outside the JDK, so each helper blocks in its own code
+    static class Synchronizing {
+        private static final Object MONITOR = new Object();
+
+        static void sleepHoldingMonitor() {
+            synchronized (MONITOR) {
+                try {
+                    Thread.sleep(60);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    static class Locking {
+        private static final ReentrantLock LOCK = new ReentrantLock();
+
+        static void sleepHoldingLock() {
+            LOCK.lock();
+            try {
+                Thread.sleep(60);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                LOCK.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.speedotansfer.metrics;
+
+import com.example.speedotansfer.metrics.timing.SerializationTimingAdvice;
+import com.example.speedotansfer.metrics.timing.ServerTiming;
+import com.example.speedotansfer.metrics.timing.ServerTimingFilter;
+import com.example.speedotansfer.metrics.timing.StatementTimingListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+public class ServerTimingFilterTest {
+
+    private final ServerTimingFilter filter = new ServerTimingFilter();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(filter, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(filter, "allowOrigin", "http://localhost:4200");
+
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:timing;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(ProxyDataSourceBuilder.create(h2)
+                .listener(new StatementTimingListener())
+                .build());
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new TimedController(jdbcTemplate))
+                .setControllerAdvice(new SerializationTimingAdvice())
+                .addFilters(filter)
+                .build();
+    }
+
+    @Test
+    public void phasesAreReportedEvenThoughTheBodyWasFlushed() throws Exception {
+        MvcResult result = mockMvc.perform(get("/timed")).andReturn();
+
+        String header = result.getResponse().getHeader(ServerTimingFilter.HEADER);
+        assertNotNull(header);
+        assertTrue(header.matches("jwt;dur=\\d+\\.\\d\\d;desc=\"JWT validation\", " +
+                "redis;dur=\\d+\\.\\d\\d;desc=\"Redis, 2 calls\", " +
+                "db;dur=\\d+\\.\\d\\d;desc=\"Database, 3 statements\", " +
+                "ser;dur=\\d+\\.\\d\\d;desc=\"Serialization\", " +
+                "total;dur=\\d+\\.\\d\\d"), header);
+        assertEquals("http://localhost:4200", result.getResponse().getHeader("Timing-Allow-Origin"));
+        assertEquals("{\"rows\":1}", result.getResponse().getContentAsString());
+        assertTrue(result.getResponse().isCommitted());
+    }
+
+    @Test
+    public void unsampledRequestsGetNoHeader() throws Exception {
+        ReflectionTestUtils.setField(filter, "sampleRate", 0.0);
+
+        MvcResult result = mockMvc.perform(get("/timed")).andReturn();
+
+        assertNull(result.getResponse().getHeader(ServerTimingFilter.HEADER));
+        assertEquals("{\"rows\":1}", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    public void phasesOutsideASampledRequestAreIgnored() {
+        assertDoesNotThrow(() -> {
+            ServerTiming.open(ServerTiming.Phase.REDIS);
+            ServerTiming.close(ServerTiming.Phase.REDIS);
+        });
+    }
+
+    @RestController
+    static class TimedController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        TimedController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/timed")
+        public Map<String, Integer> timed() {
+            ServerTiming.open(ServerTiming.Phase.JWT);
+            ServerTiming.close(ServerTiming.Phase.JWT);
+            for (int i = 0; i < 2; i++) {
+                ServerTiming.open(ServerTiming.Phase.REDIS);
+                ServerTiming.close(ServerTiming.Phase.REDIS);
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS timed (id INT)");
+            jdbcTemplate.update("MERGE INTO timed KEY (id) VALUES (1)");
+            return Map.of("rows", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM timed", Integer.class));
+        }
+    }
+}
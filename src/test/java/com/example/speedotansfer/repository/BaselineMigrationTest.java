@@ -0,0 +1,59 @@
+package com.example.speedotansfer.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Databases from before Flyway hold the V1 schema and no history table. Baselined at V1, as
+// application.properties does, they have to end up with the schema a fresh database gets.
+public class BaselineMigrationTest {
+
+    @Test
+    public void aBaselinedDatabaseEndsUpWithTheSchemaOfAFreshOne() {
+        DataSource fresh = h2("fresh");
+        assertEquals("1", migrate(fresh).migrations.get(0).version);
+
+        DataSource existing = h2("existing");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(existing);
+        assertEquals("2", migrate(existing).migrations.get(0).version);
+
+        assertEquals(columns(fresh), columns(existing));
+        assertEquals(indexes(fresh), indexes(existing));
+    }
+
+    private static MigrateResult migrate(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private static List<Map<String, Object>> columns(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList("SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, IS_NULLABLE " +
+                "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME <> 'flyway_schema_history' " +
+                "ORDER BY TABLE_NAME, COLUMN_NAME");
+    }
+
+    // Named indexes only; H2 numbers the ones behind constraints in creation order
+    private static List<Map<String, Object>> indexes(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList("SELECT TABLE_NAME, INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE TABLE_SCHEMA = 'PUBLIC' AND INDEX_NAME LIKE '%\\_IDX' ORDER BY TABLE_NAME, INDEX_NAME");
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:baseline-" + name + ";DB_CLOSE_DELAY=-1");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.dataset.DatasetGenerator;
+import com.example.speedotansfer.dataset.DatasetSpec;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.sql.StatementRecorder;
+import com.example.speedotansfer.sql.StatementRecorderConfig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hot repository queries, EXPLAINed against the migrated schema. H2's planner isn't Postgres's, but a
+// query it can only answer with a table scan has no index to use on Postgres either.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:indexes;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StatementRecorderConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class IndexUsageTest {
+
+    private static final long USER_ID = 42;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @BeforeAll
+    public void seed() throws Exception {
+        // H2 backs each foreign key with an index of its own and Postgres doesn't; without the keys
+        // the planner can only choose from the indexes the migrations create
+        jdbcTemplate.queryForList("SELECT TABLE_NAME, CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS " +
+                        "WHERE CONSTRAINT_TYPE = 'FOREIGN KEY'")
+                .forEach(key -> jdbcTemplate.execute("ALTER TABLE " + key.get("TABLE_NAME") + " DROP CONSTRAINT " + key.get("CONSTRAINT_NAME")));
+        new DatasetGenerator(DatasetSpec.builder()
+                .users(300)
+                .merchants(5)
+                .transactions(3_000)
+                .truncate(true)
+                .build(), dataSource).generate();
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    public void historyReadsEachSideThroughItsIndex() throws Throwable {
+        LocalDateTime from = LocalDateTime.of(2023, 6, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+        assertIndexed("TRANSACTION_SENDER_TIME_IDX", () -> transactionRepository.findSentBetween(USER_ID, from, to));
+        assertIndexed("TRANSACTION_RECEIVER_TIME_IDX", () -> transactionRepository.findReceivedBetween(USER_ID, from, to));
+    }
+
+    @Test
+    public void favouritesPageReadsAUserIndex() throws Throwable {
+        User user = User.builder().internalId(USER_ID).build();
+        // H2 doesn't weigh the ORDER BY when choosing between favourite_user_added_idx and the unique
+        // (user_id, fav_id) index, so only the absence of a scan is checked
+        assertIndexed(null,
+                () -> favouriteRepository.getAllByUser(user, PageRequest.of(0, 10, Sort.by("addedAt").descending())));
+    }
+
+    @Test
+    public void accountLookupsUseAnIndex() throws Throwable {
+        assertIndexed("ACCOUNT_USER_CURRENCY_IDX", () -> accountRepository.findAccountByCurrencyAndUserid("EGY", USER_ID));
+        assertIndexed("ACCOUNT_USER_CURRENCY_IDX", () -> accountRepository.findAllByUserid(USER_ID));
+        // Backed by the unique constraint's index, whose name H2 generates
+        assertIndexed(null, () -> accountRepository.findByCardNumber("4000000000000042"));
+    }
+
+    @Test
+    public void reconciliationRangesReadOnlyTheAccountLegIndexes() throws Throwable {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertIndexed("TRANSACTION_SENDER_ACCOUNT_AMOUNT_IDX", () -> transaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> debits = transactionRepository.streamDebits(1, 100)) {
+                debits.forEach(row -> { });
+            }
+        }));
+        assertIndexed("TRANSACTION_RECEIVER_ACCOUNT_AMOUNT_IDX", () -> transaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> credits = transactionRepository.streamCredits(1, 100)) {
+                credits.forEach(row -> { });
+            }
+        }));
+    }
+
+    @Test
+    public void standingOrderQueriesUseTheirIndexes() throws Throwable {
+        assertIndexed("STANDING_ORDER_USER_IDX", () -> standingOrderRepository.findAllByUserId(USER_ID));
+        assertIndexed("STANDING_ORDER_DUE_IDX", () -> standingOrderRepository.findOldestDue(LocalDateTime.now()));
+    }
+
+    // Every statement the call runs must avoid a table scan, and one of them must use the expected index
+    private void assertIndexed(String index, Executable call) throws Throwable {
+        StatementRecorder.Statements statements = statementRecorder.record(call);
+        assertNotEquals(0, statements.count());
+
+        boolean used = index == null;
+        for (StatementRecorder.Statement statement : statements.list()) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + statement.sql(), String.class, statement.parameters().toArray());
+            assertFalse(plan.contains("tableScan"), "table scan in\n" + plan);
+            used |= index != null && plan.contains(index);
+        }
+        assertTrue(used, index + " not used by " + statements.list());
+    }
+}
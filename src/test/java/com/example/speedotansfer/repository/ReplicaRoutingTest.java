@@ -0,0 +1,168 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.config.ReplicaDataSourceConfig;
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Gender;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.security.UserDetailsImpl;
+import com.example.speedotansfer.service.impl.CacheService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two in-memory H2 databases stand in for primary and replica; "replication" is an explicit copy
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.pin-after-write=300ms"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReplicaDataSourceConfig.class, CacheService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReplicaRoutingTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheService cacheService;
+
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private User user;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        user = userRepository.save(User.builder()
+                .externalId(UUID.randomUUID())
+                .fullName("Old Name")
+                .username("username")
+                .password("password")
+                .email("user@example.com")
+                .gender(Gender.MALE)
+                .phoneNumber("01111111111")
+                .country(Country.EG)
+                .birthdate(LocalDate.of(2000, 1, 1))
+                .build());
+        replicate();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToTheReplica() throws Exception {
+        rename("New Name");
+
+        assertEquals("Old Name", readOnly.execute(status -> fullName()));
+        assertEquals("New Name", readWrite.execute(status -> fullName()));
+
+        replicate();
+
+        assertEquals("New Name", readOnly.execute(status -> fullName()));
+    }
+
+    @Test
+    public void writerIsPinnedToThePrimaryForTheLagWindow() throws Exception {
+        signIn(user.getInternalId());
+        rename("New Name");
+
+        assertEquals("New Name", readOnly.execute(status -> fullName()));
+
+        signIn(user.getInternalId() + 1);
+        assertEquals("Old Name", readOnly.execute(status -> fullName()));
+
+        signIn(user.getInternalId());
+        Thread.sleep(400);
+        assertEquals("Old Name", readOnly.execute(status -> fullName()));
+    }
+
+    @Test
+    public void cacheLoadsReadThePrimaryOnEveryNode() throws Exception {
+        rename("New Name");
+        // Another user, or the writer on another node, so nothing is pinned
+        signIn(user.getInternalId() + 1);
+
+        assertEquals("Old Name", readOnly.execute(status -> fullName()));
+        assertEquals("New Name", cacheService.getUser(user.getInternalId()).getFullName());
+        assertEquals("Old Name", readOnly.execute(status -> fullName()));
+    }
+
+    private void rename(String fullName) {
+        readWrite.executeWithoutResult(status -> {
+            User found = userRepository.findById(user.getInternalId()).orElseThrow();
+            found.setFullName(fullName);
+        });
+    }
+
+    private String fullName() {
+        return userRepository.findById(user.getInternalId()).orElseThrow().getFullName();
+    }
+
+    private void signIn(long userId) {
+        UserDetailsImpl principal = UserDetailsImpl.builder().id(userId).email("user@example.com").build();
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private void replicate() throws Exception {
+        List<String> script = new ArrayList<>();
+        try (Connection connection = primaryDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SCRIPT")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
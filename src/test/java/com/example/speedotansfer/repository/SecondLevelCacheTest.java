@@ -0,0 +1,139 @@
+package com.example.speedotansfer.repository;
+
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Gender;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs outside a test transaction: read-write cache entries are only published on commit
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = userRepository.save(User.builder()
+                .externalId(UUID.randomUUID())
+                .fullName("User Name")
+                .username("username")
+                .password("password")
+                .email("user@example.com")
+                .gender(Gender.MALE)
+                .phoneNumber("01111111111")
+                .country(Country.EG)
+                .birthdate(LocalDate.of(2000, 1, 1))
+                .build());
+
+        account = accountRepository.save(Account.builder()
+                .accountNumber("123456789012345")
+                .balance(100)
+                .currency(Currency.EGY)
+                .user(user)
+                .cardNumber("1111222233334444")
+                .cardholderName("User Name")
+                .cvv(123)
+                .expirationDate("12/26")
+                .build());
+
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void repeatedRequestsAreServedFromCache() {
+        assertEquals(2, statementsPerRequest(CacheMode.NORMAL), "first request loads user and account");
+        assertEquals(0, statementsPerRequest(CacheMode.NORMAL), "second request hits the second-level cache");
+    }
+
+    @Test
+    public void requestsWithCacheOffAlwaysHitTheDatabase() {
+        for (int i = 0; i < 3; i++) {
+            entityManagerFactory.getCache().evictAll();
+            assertEquals(2, statementsPerRequest(CacheMode.IGNORE));
+        }
+    }
+
+    @Test
+    public void loginLookupByEmailIsCached() {
+        statementsPerRequest(CacheMode.NORMAL);
+
+        assertEquals(0, statementsFor(CacheMode.NORMAL, () -> userRepository.findUserByEmail("user@example.com").orElseThrow()));
+    }
+
+    @Test
+    public void committedBalanceUpdatesAreVisibleThroughTheCache() {
+        statementsPerRequest(CacheMode.NORMAL);
+
+        transactionTemplate.executeWithoutResult(status ->
+                accountRepository.findAccountByAccountNumber(account.getAccountNumber()).orElseThrow().setBalance(250));
+
+        assertEquals(250.0, transactionTemplate.execute(status ->
+                accountRepository.findAccountByAccountNumber(account.getAccountNumber()).orElseThrow().getBalance()));
+    }
+
+    private long statementsPerRequest(CacheMode cacheMode) {
+        return statementsFor(cacheMode, () -> {
+            userRepository.findUserByInternalId(user.getInternalId()).orElseThrow();
+            accountRepository.findAccountByAccountNumber(account.getAccountNumber()).orElseThrow();
+        });
+    }
+
+    private long statementsFor(CacheMode cacheMode, Runnable request) {
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)
+                    .unwrap(Session.class).setCacheMode(cacheMode);
+            request.run();
+        });
+        return statistics.getPrepareStatementCount();
+    }
+}
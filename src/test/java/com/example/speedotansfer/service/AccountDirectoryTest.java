@@ -0,0 +1,96 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.event.AccountCreatedEvent;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.helpers.AccountIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AccountDirectoryTest {
+
+    private AccountRepository accountRepository;
+    private AccountDirectory accountDirectory;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        accountDirectory = new AccountDirectory(accountRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(accountDirectory, "enabled", true);
+        ReflectionTestUtils.setField(accountDirectory, "authoritative", true);
+        ReflectionTestUtils.setField(accountDirectory, "expectedSize", 16);
+
+        when(accountRepository.streamDirectoryEntries()).thenReturn(Stream.of(
+                new Object[]{"123456789012345", 1L, 10L, Currency.EGY},
+                new Object[]{"223456789012345", 2L, 20L, Currency.USD}));
+    }
+
+    @Test
+    public void lookupsFallThroughUntilWarmed() {
+        assertFalse(accountDirectory.rejects("999999999999999"));
+        assertTrue(accountDirectory.find("123456789012345").isEmpty());
+    }
+
+    @Test
+    public void warmLoadsEveryAccount() {
+        accountDirectory.warm();
+
+        assertTrue(accountDirectory.isWarmed());
+        assertEquals(new AccountIndex.Entry(2L, 20L, Currency.USD), accountDirectory.find("223456789012345").orElseThrow());
+        assertTrue(accountDirectory.rejects("999999999999999"));
+        assertFalse(accountDirectory.rejects("123456789012345"));
+    }
+
+    @Test
+    public void createdAccountsStopBeingRejected() {
+        accountDirectory.warm();
+        assertTrue(accountDirectory.rejects("323456789012345"));
+
+        accountDirectory.onAccountCreated(new AccountCreatedEvent("323456789012345", 3L, 10L, Currency.EUR));
+
+        assertFalse(accountDirectory.rejects("323456789012345"));
+        assertEquals(10L, accountDirectory.find("323456789012345").orElseThrow().ownerId());
+    }
+
+    @Test
+    public void numbersThatDoNotFitAKeyAreNeverRejected() {
+        accountDirectory.warm();
+
+        assertFalse(accountDirectory.rejects("0123"));
+        assertFalse(accountDirectory.rejects("12AB"));
+        assertFalse(accountDirectory.rejects("1234567890123456789"));
+    }
+
+    @Test
+    public void nonAuthoritativeDirectoryNeverRejects() {
+        ReflectionTestUtils.setField(accountDirectory, "authoritative", false);
+        accountDirectory.warm();
+
+        assertFalse(accountDirectory.rejects("999999999999999"));
+        assertTrue(accountDirectory.find("123456789012345").isPresent());
+    }
+
+    @Test
+    public void indexGrowsPastItsInitialCapacity() {
+        AccountIndex index = new AccountIndex(4);
+        for (long i = 1; i <= 100_000; i++) {
+            index.put(100_000_000_000_000L + i, i, i * 7, Currency.values()[(int) (i % 3)]);
+        }
+
+        assertEquals(100_000, index.size());
+        for (long i = 1; i <= 100_000; i++) {
+            AccountIndex.Entry entry = index.get(100_000_000_000_000L + i);
+            assertEquals(i, entry.accountId());
+            assertEquals(i * 7, entry.ownerId());
+        }
+        assertNull(index.get(999_999_999_999_999L));
+    }
+}
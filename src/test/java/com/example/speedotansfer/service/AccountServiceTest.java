@@ -12,12 +12,15 @@ import com.example.speedotansfer.model.Account;
 import com.example.speedotansfer.model.User;
 import com.example.speedotansfer.repository.AccountRepository;
 import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
 import com.example.speedotansfer.service.impl.AccountService;
+import com.example.speedotansfer.service.impl.CacheService;
 import com.example.speedotansfer.service.impl.RedisService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.core.AuthenticationException;
 
@@ -41,6 +44,15 @@ public class AccountServiceTest {
     @Mock
     private RedisService redisService;
 
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private AccountDirectory accountDirectory;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -127,6 +139,7 @@ public class AccountServiceTest {
 
         assertNotNull(response);
         assertEquals("User Name", response.getCardholderName());
+        verify(cacheService, times(1)).evictAccounts(1L);
     }
 
 
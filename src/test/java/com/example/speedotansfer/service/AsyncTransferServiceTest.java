@@ -0,0 +1,209 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.contoller.TransferController;
+import com.example.speedotansfer.dto.transactionDTOs.AsyncTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.AsyncTransferStatus;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.TransferNotFoundException;
+import com.example.speedotansfer.exception.custom.TransferQueueFullException;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.AsyncTransferService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitConfig
+@TestPropertySource(properties = {
+        "app.transfers.async.workers=2",
+        "app.transfers.async.queue-capacity=3"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AsyncTransferServiceTest {
+
+    @Configuration
+    @Import(AsyncTransferService.class)
+    static class Config {
+        // Binds values such as 10m the way a Boot context would
+        @Bean
+        public static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private TransferService transferService;
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private AsyncTransferService asyncTransferService;
+
+    @BeforeEach
+    public void setUp() {
+        when(redisService.exists("alice")).thenReturn(true);
+        when(redisService.getUserIdByToken("alice")).thenReturn(1L);
+        when(redisService.exists("bob")).thenReturn(true);
+        when(redisService.getUserIdByToken("bob")).thenReturn(2L);
+    }
+
+    @Test
+    public void completedTransfersReportTheirResult() throws Exception {
+        TransferResponseDTO result = TransferResponseDTO.builder().transactionId(7).amount(10).status(true).build();
+        when(transferService.transferFromUser(eq(1L), any())).thenReturn(result);
+
+        AsyncTransferDTO accepted = asyncTransferService.submit("Bearer alice", details(10));
+        assertEquals(AsyncTransferStatus.QUEUED, accepted.getStatus());
+
+        AsyncTransferDTO done = awaitDone("Bearer alice", accepted.getTransferId());
+        assertEquals(AsyncTransferStatus.COMPLETED, done.getStatus());
+        assertEquals(result, done.getResult());
+        assertNotNull(done.getCompletedAt());
+    }
+
+    @Test
+    public void businessFailuresAreReportedNotThrown() throws Exception {
+        when(transferService.transferFromUser(anyLong(), any())).thenThrow(new InsufficientAmountException("Insufficient funds"));
+
+        AsyncTransferDTO done = awaitDone("Bearer alice", asyncTransferService.submit("Bearer alice", details(10)).getTransferId());
+
+        assertEquals(AsyncTransferStatus.FAILED, done.getStatus());
+        assertEquals("Insufficient funds", done.getError());
+    }
+
+    @Test
+    public void transfersFromOneAccountRunInSubmissionOrder() throws Exception {
+        List<Double> executed = new CopyOnWriteArrayList<>();
+        when(transferService.transferFromUser(eq(1L), any())).thenAnswer(invocation -> {
+            SendMoneyWithAccNumberDTO details = invocation.getArgument(1);
+            Thread.sleep(5);
+            executed.add(details.getAmount());
+            return TransferResponseDTO.builder().status(true).build();
+        });
+
+        UUID last = null;
+        for (int i = 1; i <= 4; i++) {
+            last = asyncTransferService.submit("Bearer alice", details(i)).getTransferId();
+        }
+        awaitDone("Bearer alice", last);
+
+        assertEquals(List.of(1.0, 2.0, 3.0, 4.0), executed);
+    }
+
+    @Test
+    public void aFullPartitionRefusesInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(transferService.transferFromUser(anyLong(), any())).thenAnswer(invocation -> {
+            release.await();
+            return TransferResponseDTO.builder().status(true).build();
+        });
+
+        try {
+            // One running, three waiting
+            for (int i = 0; i < 4; i++) {
+                asyncTransferService.submit("Bearer alice", details(1));
+            }
+            assertThrows(TransferQueueFullException.class, () -> asyncTransferService.submit("Bearer alice", details(1)));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void otherUsersCannotSeeATransfer() throws Exception {
+        when(transferService.transferFromUser(anyLong(), any())).thenReturn(TransferResponseDTO.builder().build());
+        UUID transferId = asyncTransferService.submit("Bearer alice", details(1)).getTransferId();
+
+        assertThrows(TransferNotFoundException.class, () -> asyncTransferService.getStatus("Bearer bob", transferId));
+    }
+
+    @Test
+    public void acceptedWith202AndTheOutcomeIsStreamed() throws Exception {
+        when(transferService.transferFromUser(anyLong(), any())).thenReturn(TransferResponseDTO.builder().transactionId(9).status(true).build());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TransferController(transferService, asyncTransferService)).build();
+
+        MvcResult accepted = mockMvc.perform(post("/api/transfer/async")
+                        .header("Authorization", "Bearer alice")
+                        .contentType("application/json")
+                        .content("{\"accountNumber\":\"100000000000002\",\"amount\":5,\"sendCurrency\":\"USD\",\"receiveCurrency\":\"USD\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+        String location = accepted.getResponse().getHeader("Location");
+
+        MvcResult stream = mockMvc.perform(get(location + "/events").header("Authorization", "Bearer alice"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        stream.getAsyncResult(TimeUnit.SECONDS.toMillis(5));
+        mockMvc.perform(asyncDispatch(stream))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("event:completed")))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("\"transactionId\":9")));
+    }
+
+    private AsyncTransferDTO awaitDone(String token, UUID transferId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            AsyncTransferDTO state = asyncTransferService.getStatus(token, transferId);
+            if (state.getStatus() == AsyncTransferStatus.COMPLETED || state.getStatus() == AsyncTransferStatus.FAILED) {
+                return state;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Transfer " + transferId + " did not finish");
+    }
+
+    private static SendMoneyWithAccNumberDTO details(double amount) {
+        SendMoneyWithAccNumberDTO details = new SendMoneyWithAccNumberDTO();
+        details.setAccountNumber("100000000000002");
+        details.setAmount(amount);
+        details.setSendCurrency(Currency.USD);
+        details.setReceiveCurrency(Currency.USD);
+        return details;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.accountDTO.AccountDTO;
+import com.example.speedotansfer.dto.favoriteDTOs.CreateFavouriteDTO;
+import com.example.speedotansfer.dto.userDTOs.UpdateUserDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.Favourite;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.FavouriteRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.example.speedotansfer.config.CacheConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+public class CacheServiceTest {
+
+    @Configuration
+    @EnableCaching
+    @Import({CacheService.class, UserService.class, AccountService.class, FavouriteService.class})
+    static class Config {
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(USERS, ACCOUNTS, FAVOURITES, USERNAMES);
+        }
+    }
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private AccountRepository accountRepository;
+
+    @MockBean
+    private FavouriteRepository favouriteRepository;
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private FavouriteService favouriteService;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User user;
+    private User favUser;
+    private List<Account> accounts;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        user = User.builder()
+                .internalId(1L)
+                .externalId(UUID.randomUUID())
+                .email("user@example.com")
+                .fullName("Old Name")
+                .phoneNumber("01111111111")
+                .username("username")
+                .build();
+
+        favUser = User.builder()
+                .internalId(2L)
+                .externalId(UUID.randomUUID())
+                .email("fav@example.com")
+                .fullName("Fav Name")
+                .phoneNumber("01222222222")
+                .username("favUsername")
+                .build();
+
+        accounts = new ArrayList<>();
+        accounts.add(Account.builder()
+                .accountNumber("123456789012345")
+                .balance(100.0)
+                .currency(Currency.EGY)
+                .cardNumber("1111222233334444")
+                .cardholderName("User Name")
+                .cvv(321)
+                .expirationDate("11/27")
+                .user(user)
+                .build());
+
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
+        when(userRepository.findUserByInternalId(1L)).thenReturn(Optional.of(user));
+        when(accountRepository.findAllByUserid(1L)).thenAnswer(invocation -> new ArrayList<>(accounts));
+        when(authService.generateToken(any(User.class))).thenReturn("newToken");
+    }
+
+    @Test
+    public void getUserById_IsServedFromCacheUntilUpdate() throws Exception {
+        assertEquals("Old Name", userService.getUserById("Bearer token").getFullName());
+        assertEquals("Old Name", userService.getUserById("Bearer token").getFullName());
+        verify(userRepository, times(1)).findUserByInternalId(1L);
+
+        userService.updateUser("Bearer token", UpdateUserDTO.builder().fullName("New Name").build());
+
+        assertEquals("New Name", userService.getUserById("Bearer token").getFullName());
+    }
+
+    @Test
+    public void getUserIdByUsername_IsServedFromCacheUntilRename() throws Exception {
+        when(userRepository.findInternalIdByUsername("username")).thenReturn(Optional.of(1L));
+
+        assertEquals(1L, cacheService.getUserIdByUsername("username"));
+        assertEquals(1L, cacheService.getUserIdByUsername("username"));
+        verify(userRepository, times(1)).findInternalIdByUsername("username");
+
+        userService.updateUser("Bearer token", UpdateUserDTO.builder().username("renamed").build());
+        when(userRepository.findInternalIdByUsername("username")).thenReturn(Optional.empty());
+
+        assertNull(cacheService.getUserIdByUsername("username"));
+    }
+
+    @Test
+    public void getUserIdByUsername_DoesNotCacheMisses() {
+        when(userRepository.findInternalIdByUsername("newcomer")).thenReturn(Optional.empty());
+        assertNull(cacheService.getUserIdByUsername("newcomer"));
+
+        when(userRepository.findInternalIdByUsername("newcomer")).thenReturn(Optional.of(3L));
+        assertEquals(3L, cacheService.getUserIdByUsername("newcomer"));
+    }
+
+    @Test
+    public void getAccounts_IsEvictedByAddAccount() throws Exception {
+        assertEquals(1, userService.getAccounts("Bearer token").size());
+        assertEquals(1, userService.getAccounts("Bearer token").size());
+        verify(accountRepository, times(1)).findAllByUserid(1L);
+
+        when(accountRepository.findByCardNumber(anyString())).thenReturn(Optional.empty());
+        when(accountRepository.findAccountByUserIdSameCurrencyOrCardNumber(anyLong(), anyString(), anyString()))
+                .thenReturn(Optional.empty());
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
+            accounts.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        accountService.addAccount("Bearer token", AccountDTO.builder()
+                .cardNumber("5555666677778888")
+                .currency(Currency.USD)
+                .cardholderName("User Name")
+                .cvv(123)
+                .expirationDate("12/25")
+                .build());
+
+        assertEquals(2, userService.getAccounts("Bearer token").size());
+    }
+
+    @Test
+    public void getAllFavourites_IsEvictedByAddAndRemove() throws Exception {
+        List<Favourite> favourites = new ArrayList<>();
+        when(favouriteRepository.getAllByUser(user)).thenAnswer(invocation -> new ArrayList<>(favourites));
+
+        assertTrue(favouriteService.getAllFavourites("Bearer token").isEmpty());
+        assertTrue(favouriteService.getAllFavourites("Bearer token").isEmpty());
+        verify(favouriteRepository, times(1)).getAllByUser(user);
+
+        Favourite favourite = Favourite.builder().id(10L).user(user).favouriteUser(favUser).build();
+        when(userRepository.getUserFromAccountNumber("987654321098765")).thenReturn(Optional.of(favUser));
+        when(favouriteRepository.save(any(Favourite.class))).thenAnswer(invocation -> {
+            favourites.add(favourite);
+            return favourite;
+        });
+
+        CreateFavouriteDTO createFavouriteDTO = new CreateFavouriteDTO();
+        createFavouriteDTO.setFullName("Fav Name");
+        createFavouriteDTO.setAccountNumber("987654321098765");
+        favouriteService.addToFavourites("Bearer token", createFavouriteDTO);
+
+        assertEquals(1, favouriteService.getAllFavourites("Bearer token").size());
+
+        when(favouriteRepository.findById(10L)).thenReturn(Optional.of(favourite));
+        doAnswer(invocation -> favourites.remove(favourite)).when(favouriteRepository).delete(favourite);
+
+        favouriteService.removeFromFavourites("Bearer token", 10L);
+
+        assertTrue(favouriteService.getAllFavourites("Bearer token").isEmpty());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.userDTOs.UpdateUserDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.Favourite;
+import com.example.speedotansfer.model.Transaction;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.FavouriteRepository;
+import com.example.speedotansfer.repository.StatementRollups;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.AuthService;
+import com.example.speedotansfer.service.impl.CacheService;
+import com.example.speedotansfer.service.impl.FavouriteService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.TransactionService;
+import com.example.speedotansfer.service.impl.UserService;
+import com.example.speedotansfer.sql.StatementRecorder;
+import com.example.speedotansfer.sql.StatementRecorderConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.speedotansfer.TestFixtures.account;
+import static com.example.speedotansfer.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// Statement budgets for the read paths that used to load each row's users one query at a time. The
+// second-level cache is off, as on a cold instance, so every entity read shows up as a statement.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:budgets;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StatementRecorderConfig.class, TransactionService.class, StatementRollups.class, FavouriteService.class, UserService.class, CacheService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class QueryBudgetTest {
+
+    private static final String TOKEN = "Bearer token";
+    private static final int PEERS = 8;
+    private static final Duration SLOW = Duration.ofMillis(500);
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private FavouriteService favouriteService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+
+    private User owner;
+
+    @BeforeEach
+    public void setUp() {
+        owner = userRepository.save(user("owner", 0));
+        Account ownerAccount = accountRepository.save(account(owner, String.format("1%014d", 0), Currency.USD, 100));
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 1; i <= PEERS; i++) {
+            User peer = userRepository.save(user("peer" + i, i));
+            Account peerAccount = accountRepository.save(account(peer, String.format("1%014d", i), Currency.USD, 100));
+            transactions.add(transaction(owner, ownerAccount, peer, peerAccount));
+            transactions.add(transaction(peer, peerAccount, owner, ownerAccount));
+            favouriteRepository.save(Favourite.builder().user(owner).favouriteUser(peer).addedAt(LocalDateTime.now()).build());
+        }
+        transactionRepository.saveAll(transactions);
+
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(owner.getInternalId());
+        when(authService.generateToken(any())).thenReturn("new-token");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favouriteRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void historyDoesNotLoadCounterpartiesOneByOne() throws Throwable {
+        StatementRecorder.Statements statements = statementRecorder.record(() ->
+                assertEquals(2 * PEERS, transactionService.getHistory(TOKEN).getTransactions().size()));
+
+        // The owner, then each side of the history with both users joined in
+        statements.assertAtMost(3).assertNoneSlowerThan(SLOW);
+    }
+
+    @Test
+    public void favouritesComeWithTheirUsers() throws Throwable {
+        StatementRecorder.Statements all = statementRecorder.record(() ->
+                favouriteService.getAllFavourites(TOKEN).forEach(favourite -> assertNotNull(favourite.getFavouriteUser().getFullName())));
+        StatementRecorder.Statements page = statementRecorder.record(() ->
+                favouriteService.getAllFavourites(TOKEN, 0, 5).forEach(favourite -> assertNotNull(favourite.getFavouriteUser().getFullName())));
+
+        all.assertAtMost(2).assertNoneSlowerThan(SLOW);
+        page.assertAtMost(2).assertNoneSlowerThan(SLOW);
+    }
+
+    @Test
+    public void profileReadsAndUpdatesStayFlat() throws Throwable {
+        UpdateUserDTO update = UpdateUserDTO.builder().fullName("Owner Renamed").build();
+
+        statementRecorder.record(() -> userService.getUserById(TOKEN)).assertAtMost(1);
+        statementRecorder.record(() -> userService.getAccounts(TOKEN)).assertAtMost(2);
+        // Lookup, three uniqueness checks and the update
+        statementRecorder.record(() -> userService.updateUser(TOKEN, update)).assertAtMost(5).assertNoneSlowerThan(SLOW);
+    }
+
+    private static Transaction transaction(User sender, Account senderAccount, User receiver, Account receiverAccount) {
+        return Transaction.builder()
+                .status(true)
+                .sender(sender)
+                .receiver(receiver)
+                .senderAccount(senderAccount)
+                .receiverAccount(receiverAccount)
+                .amount(1)
+                .receivedAmount(1.0)
+                .currency(Currency.USD)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.accountDTO.RecipientDTO;
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Gender;
+import com.example.speedotansfer.event.AccountCreatedEvent;
+import com.example.speedotansfer.exception.custom.AccountNotFoundException;
+import com.example.speedotansfer.exception.custom.AuthenticationErrorException;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.RecipientService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.helpers.AccountIndex;
+import com.example.speedotansfer.service.impl.helpers.NameMasker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:recipients;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RecipientService.class)
+public class RecipientServiceTest {
+
+    private static final String TOKEN = "Bearer token";
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private RecipientService recipientService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private User owner;
+    private Account account;
+
+    @BeforeEach
+    public void setUp() {
+        when(redisService.exists("token")).thenReturn(true);
+
+        owner = userRepository.save(User.builder()
+                .externalId(UUID.randomUUID())
+                .fullName("Mohamed Ali")
+                .username("mohamed")
+                .password("password")
+                .email("mohamed@example.com")
+                .gender(Gender.MALE)
+                .phoneNumber("01111111111")
+                .country(Country.EG)
+                .birthdate(LocalDate.of(2000, 1, 1))
+                .build());
+        account = save("200000000000001", Currency.USD);
+    }
+
+    @Test
+    public void duplicatesCollapseAndUnknownNumbersAreReported() {
+        List<RecipientDTO> recipients = recipientService.preview(TOKEN, List.of("999999999999999", account.getAccountNumber(), "999999999999999"));
+
+        assertEquals(2, recipients.size());
+        assertEquals("999999999999999", recipients.get(0).getAccountNumber());
+        assertFalse(recipients.get(0).isFound());
+        assertEquals(new RecipientDTO(account.getAccountNumber(), true, "Mo***** A**", Currency.USD), recipients.get(1));
+    }
+
+    @Test
+    public void directoryHitsResolveTheOwnerById() throws Exception {
+        when(accountDirectory.find(account.getAccountNumber()))
+                .thenReturn(Optional.of(new AccountIndex.Entry(account.getId(), owner.getInternalId(), Currency.USD)));
+
+        assertEquals("Mo***** A**", recipientService.preview(TOKEN, account.getAccountNumber()).getOwnerName());
+    }
+
+    @Test
+    public void unknownNumbersAreRememberedUntilTheAccountIsCreated() {
+        assertThrows(AccountNotFoundException.class, () -> recipientService.preview(TOKEN, "300000000000001"));
+
+        // Not published as an event, so the negative entry still answers
+        Account created = save("300000000000001", Currency.EUR);
+        assertThrows(AccountNotFoundException.class, () -> recipientService.preview(TOKEN, "300000000000001"));
+
+        recipientService.onAccountCreated(new AccountCreatedEvent(created.getAccountNumber(), created.getId(), owner.getInternalId(), Currency.EUR));
+        assertDoesNotThrow(() -> recipientService.preview(TOKEN, "300000000000001"));
+    }
+
+    @Test
+    public void directoryRejectionsNeverReachTheDatabase() {
+        when(accountDirectory.rejects(account.getAccountNumber())).thenReturn(true);
+
+        assertFalse(recipientService.preview(TOKEN, List.of(account.getAccountNumber())).get(0).isFound());
+    }
+
+    @Test
+    public void requiresAValidToken() {
+        when(redisService.exists(anyString())).thenReturn(false);
+
+        assertThrows(AuthenticationErrorException.class, () -> recipientService.preview(TOKEN, List.of(account.getAccountNumber())));
+    }
+
+    @Test
+    public void legacyOwnerLookupJoinsOnTheRealColumn() {
+        assertEquals(owner.getInternalId(), userRepository.getUserFromAccountNumber(account.getAccountNumber()).orElseThrow().getInternalId());
+    }
+
+    @Test
+    public void namesKeepOnlyLeadingLetters() {
+        assertEquals("Sa** Ib*****", NameMasker.mask("Sara Ibrahim"));
+        assertEquals("A* B*", NameMasker.mask(" Al  Bo "));
+        assertEquals("J", NameMasker.mask("J"));
+    }
+
+    private Account save(String accountNumber, Currency currency) {
+        return accountRepository.save(Account.builder()
+                .accountNumber(accountNumber)
+                .balance(100)
+                .currency(currency)
+                .user(owner)
+                .cardNumber("4" + accountNumber)
+                .cardholderName(owner.getFullName())
+                .cvv(123)
+                .expirationDate("12/30")
+                .build());
+    }
+}
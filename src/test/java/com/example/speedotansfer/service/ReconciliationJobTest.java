@@ -0,0 +1,215 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.reconciliationDTOs.ReconciliationRunDTO;
+import com.example.speedotansfer.enums.Country;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Gender;
+import com.example.speedotansfer.enums.ReconciliationStatus;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.ReconciliationDiscrepancy;
+import com.example.speedotansfer.model.ReconciliationPartition;
+import com.example.speedotansfer.model.ReconciliationRun;
+import com.example.speedotansfer.model.Transaction;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.ReconciliationDiscrepancyRepository;
+import com.example.speedotansfer.repository.ReconciliationPartitionRepository;
+import com.example.speedotansfer.repository.ReconciliationRunRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.ReconciliationJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:reconciliation;DB_CLOSE_DELAY=-1",
+        "app.reconciliation.job.partition-size=4",
+        "app.reconciliation.job.parallelism=3"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReconciliationJob.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReconciliationJobTest {
+
+    private static final int ACCOUNTS = 10;
+
+    @Autowired
+    private ReconciliationJob reconciliationJob;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationPartitionRepository partitionRepository;
+
+    @Autowired
+    private ReconciliationDiscrepancyRepository discrepancyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        User user = userRepository.save(User.builder()
+                .externalId(UUID.randomUUID())
+                .fullName("Ledger User")
+                .username("ledger")
+                .password("password")
+                .email("ledger@example.com")
+                .gender(Gender.MALE)
+                .phoneNumber("01111111111")
+                .country(Country.EG)
+                .birthdate(LocalDate.of(2000, 1, 1))
+                .build());
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(Account.builder()
+                    .accountNumber(String.format("1%014d", i))
+                    .balance(100)
+                    .openingBalance(100.0)
+                    .currency(Currency.EGY)
+                    .user(user)
+                    .cardNumber(String.format("4%015d", i))
+                    .cardholderName("Ledger User")
+                    .cvv(123)
+                    .expirationDate("12/30")
+                    .build());
+        }
+        accountRepository.saveAll(accounts);
+
+        // A chain of transfers 0 -> 1 -> ... -> 9, applied to balances the way TransferService does
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i + 1 < ACCOUNTS; i++) {
+            Account from = accounts.get(i);
+            Account to = accounts.get(i + 1);
+            from.setBalance(from.getBalance() - 10);
+            to.setBalance(to.getBalance() + 10);
+            transactions.add(Transaction.builder()
+                    .status(true)
+                    .sender(user)
+                    .receiver(user)
+                    .senderAccount(from)
+                    .receiverAccount(to)
+                    .amount(10)
+                    .receivedAmount(10.0)
+                    .currency(Currency.EGY)
+                    .build());
+        }
+        // Failed transfers never moved money and must be ignored
+        transactions.add(Transaction.builder()
+                .status(false)
+                .sender(user)
+                .receiver(user)
+                .senderAccount(accounts.get(0))
+                .receiverAccount(accounts.get(1))
+                .amount(1_000)
+                .currency(Currency.EGY)
+                .build());
+        accountRepository.saveAll(accounts);
+        transactionRepository.saveAll(transactions);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        discrepancyRepository.deleteAll();
+        partitionRepository.deleteAll();
+        runRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void consistentLedgerHasNoDiscrepancies() {
+        ReconciliationRunDTO run = reconciliationJob.run();
+
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        assertEquals(3, run.getPartitions());
+        assertEquals(ACCOUNTS, run.getAccountsChecked());
+        assertEquals(0, run.getDiscrepancies());
+        assertTrue(discrepancyRepository.findAllByRunId(run.getRunId()).isEmpty());
+    }
+
+    @Test
+    public void driftedAccountsAreWrittenToTheReport() {
+        Account tampered = accounts.get(5);
+        tamper(tampered, 7);
+
+        ReconciliationRunDTO run = reconciliationJob.run();
+
+        List<ReconciliationDiscrepancy> found = discrepancyRepository.findAllByRunId(run.getRunId());
+        assertEquals(1, run.getDiscrepancies());
+        assertEquals(1, found.size());
+        assertEquals(tampered.getAccountNumber(), found.get(0).getAccountNumber());
+        assertEquals(100.0, found.get(0).getExpected(), 0.001);
+        assertEquals(107.0, found.get(0).getBalance(), 0.001);
+    }
+
+    @Test
+    public void resumedRunSkipsCheckpointedPartitions() {
+        long firstId = accounts.get(0).getId();
+        ReconciliationRun interrupted = runRepository.save(ReconciliationRun.builder()
+                .status(ReconciliationStatus.RUNNING)
+                .startedAt(LocalDateTime.now())
+                .partitionSize(4)
+                .partitions(3)
+                .build());
+        for (int i = 0; i < 3; i++) {
+            partitionRepository.save(ReconciliationPartition.builder()
+                    .runId(interrupted.getId())
+                    .fromAccountId(firstId + i * 4L)
+                    .toAccountId(firstId + (i + 1) * 4L)
+                    .completedAt(i == 0 ? LocalDateTime.now() : null)
+                    .accountsChecked(i == 0 ? 4 : 0)
+                    .build());
+        }
+        // Drift inside the checkpointed range was not there when it was checked
+        tamper(accounts.get(1), 3);
+        tamper(accounts.get(9), 3);
+
+        ReconciliationRunDTO run = reconciliationJob.run();
+
+        assertEquals(interrupted.getId(), run.getRunId());
+        assertEquals(ACCOUNTS, run.getAccountsChecked());
+        assertEquals(List.of(accounts.get(9).getAccountNumber()),
+                discrepancyRepository.findAllByRunId(run.getRunId()).stream().map(ReconciliationDiscrepancy::getAccountNumber).toList());
+
+        // A completed run is not executed again
+        ReconciliationRunDTO resumed = reconciliationJob.resume(run.getRunId());
+        assertEquals(ReconciliationStatus.COMPLETED, resumed.getStatus());
+        assertEquals(1, discrepancyRepository.findAllByRunId(run.getRunId()).size());
+    }
+
+    private void tamper(Account account, double by) {
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + ? WHERE id = ?", by, account.getId());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.transactionDTOs.SplitLegDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.Transaction;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.CacheService;
+import com.example.speedotansfer.service.impl.DatabaseTransferService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.TransferService;
+import com.example.speedotansfer.service.impl.helpers.CurrencyExchangeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static com.example.speedotansfer.TestFixtures.account;
+import static com.example.speedotansfer.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:split;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransferService.class, DatabaseTransferService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SplitTransferTest {
+
+    private static final String TOKEN = "Bearer token";
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private CacheService cacheService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User sender;
+    private User friend;
+    private Account senderAccount;
+    private Account friendUsd;
+    private Account friendEgy;
+    private Account otherUsd;
+
+    @BeforeEach
+    public void setUp() {
+        sender = userRepository.save(user("sender", 1));
+        friend = userRepository.save(user("friend", 2));
+        User other = userRepository.save(user("other", 3));
+        senderAccount = accountRepository.save(account(sender, "100000000000001", Currency.USD, 100));
+        friendUsd = accountRepository.save(account(friend, "100000000000002", Currency.USD, 0));
+        friendEgy = accountRepository.save(account(friend, "200000000000002", Currency.EGY, 0));
+        otherUsd = accountRepository.save(account(other, "100000000000003", Currency.USD, 0));
+
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(sender.getInternalId());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void everyLegIsCreditedAndTheSenderDebitedOnce() throws Exception {
+        SplitTransferResponseDTO response = transferService.splitTransfer(TOKEN, split(
+                leg(friendUsd, 30, Currency.USD),
+                leg(friendEgy, 20, Currency.EGY),
+                leg(otherUsd, 25, Currency.USD)));
+
+        assertEquals(75, response.getTotalAmount());
+        assertEquals(3, response.getLegs().size());
+        assertTrue(response.getLegs().stream().allMatch(leg -> leg.isStatus() && leg.getTransactionId() > 0));
+
+        assertEquals(25, balance(senderAccount), 0.0001);
+        assertEquals(30, balance(friendUsd), 0.0001);
+        assertEquals(20 * CurrencyExchangeService.getExchangeRate(Currency.USD, Currency.EGY), balance(friendEgy), 0.0001);
+        assertEquals(25, balance(otherUsd), 0.0001);
+
+        List<Transaction> rows = transactionRepository.findAllBySenderInternalId(sender.getInternalId());
+        assertEquals(3, rows.size());
+        assertEquals(75, rows.stream().mapToDouble(Transaction::getAmount).sum(), 0.0001);
+        verify(cacheService).evictAccounts(friend.getInternalId());
+    }
+
+    @Test
+    public void notEnoughForTheTotalMovesNothing() {
+        assertThrows(InsufficientAmountException.class, () -> transferService.splitTransfer(TOKEN, split(
+                leg(friendUsd, 60, Currency.USD),
+                leg(otherUsd, 60, Currency.USD))));
+
+        assertEquals(100, balance(senderAccount));
+        assertEquals(0, balance(friendUsd));
+        // Each leg is still on record as a failed transfer
+        assertEquals(2, transactionRepository.findAll().stream().filter(t -> !t.isStatus()).count());
+    }
+
+    @Test
+    public void oneMismatchedCurrencyFailsTheWholeSplit() {
+        assertThrows(InvalidTransferException.class, () -> transferService.splitTransfer(TOKEN, split(
+                leg(friendUsd, 10, Currency.USD),
+                leg(friendEgy, 10, Currency.USD))));
+
+        assertEquals(100, balance(senderAccount));
+        assertEquals(0, balance(friendUsd));
+    }
+
+    @Test
+    public void unknownReceiversAreRejectedBeforeAnythingIsLocked() {
+        SplitLegDTO unknown = SplitLegDTO.builder().accountNumber("999999999999999").amount(5.0).receiveCurrency(Currency.USD).build();
+
+        assertThrows(UserNotFoundException.class, () -> transferService.splitTransfer(TOKEN, split(leg(friendUsd, 5, Currency.USD), unknown)));
+
+        assertEquals(0, transactionRepository.count());
+        assertEquals(100, balance(senderAccount));
+    }
+
+    private SplitTransferDTO split(SplitLegDTO... legs) {
+        return SplitTransferDTO.builder().sendCurrency(Currency.USD).legs(List.of(legs)).build();
+    }
+
+    private SplitLegDTO leg(Account account, double amount, Currency receiveCurrency) {
+        return SplitLegDTO.builder().accountNumber(account.getAccountNumber()).amount(amount).receiveCurrency(receiveCurrency).build();
+    }
+
+    private double balance(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.Frequency;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.StandingOrder;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.StandingOrderRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.CacheService;
+import com.example.speedotansfer.service.impl.DatabaseTransferService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.StandingOrderScheduler;
+import com.example.speedotansfer.service.impl.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.example.speedotansfer.TestFixtures.account;
+import static com.example.speedotansfer.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        // H2 has no SKIP LOCKED, so parallel claims wait on each other instead
+        "spring.datasource.url=jdbc:h2:mem:standingorders;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "app.standing-orders.batch-size=5",
+        "app.standing-orders.max-attempts=3",
+        "app.standing-orders.backoff=1h"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StandingOrderScheduler.class, TransferService.class, DatabaseTransferService.class, StandingOrderSchedulerTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StandingOrderSchedulerTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private CacheService cacheService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private StandingOrderScheduler scheduler;
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User sender;
+    private Account senderAccount;
+    private Account receiverAccount;
+
+    @BeforeEach
+    public void setUp() {
+        sender = userRepository.save(user("sender", 1));
+        senderAccount = accountRepository.save(account(sender, "100000000000001", Currency.USD, 250));
+        receiverAccount = accountRepository.save(account(userRepository.save(user("receiver", 2)), "100000000000002", Currency.USD, 0));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        standingOrderRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void dueOrdersRunOnceAndMoveToTheNextOccurrence() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+        StandingOrder order = order(start, 100);
+
+        scheduler.runDue();
+        scheduler.runDue();
+
+        StandingOrder after = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(1, after.getRuns());
+        assertEquals(start.plusMonths(1), after.getNextRunAt());
+        assertEquals(after.getNextRunAt(), after.getDueAt());
+        assertEquals(150, balance(senderAccount));
+        assertEquals(100, balance(receiverAccount));
+        assertEquals(1, transactionRepository.count());
+        assertEquals(0, meterRegistry.get(StandingOrderScheduler.LAG).gauge().value());
+    }
+
+    @Test
+    public void insufficientFundsBackOffThenSkipTheOccurrence() {
+        StandingOrder order = order(LocalDateTime.now().minusMinutes(1), 1_000);
+
+        scheduler.runDue();
+        StandingOrder retrying = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(1, retrying.getAttempts());
+        assertTrue(retrying.getDueAt().isAfter(LocalDateTime.now().plusMinutes(59)));
+
+        // Not due yet, so nothing happens
+        scheduler.runDue();
+        assertEquals(1, transactionRepository.count());
+
+        for (int i = 0; i < 2; i++) {
+            StandingOrder due = standingOrderRepository.findById(order.getId()).orElseThrow();
+            due.setDueAt(LocalDateTime.now().minusSeconds(1));
+            standingOrderRepository.save(due);
+            scheduler.runDue();
+        }
+
+        StandingOrder skipped = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(1, skipped.getRuns());
+        assertEquals(0, skipped.getAttempts());
+        assertEquals("Insufficient funds", skipped.getLastError());
+        assertTrue(skipped.isActive());
+        assertEquals(3, transactionRepository.count());
+        assertEquals(250, balance(senderAccount));
+    }
+
+    @Test
+    public void parallelSchedulersNeverRunAnOccurrenceTwice() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            order(LocalDateTime.now().minusMinutes(1), 10);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Callable<Void>> nodes = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                nodes.add(() -> {
+                    scheduler.runDue();
+                    return null;
+                });
+            }
+            for (Future<Void> node : executor.invokeAll(nodes)) {
+                node.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(12, transactionRepository.count());
+        assertTrue(standingOrderRepository.findAll().stream().allMatch(order -> order.getRuns() == 1));
+        assertEquals(130, balance(senderAccount));
+    }
+
+    @Test
+    public void closedReceiverAccountsStopTheOrder() {
+        StandingOrder order = order(LocalDateTime.now().minusMinutes(1), 10);
+        order.setAccountNumber("999999999999999");
+        standingOrderRepository.save(order);
+
+        scheduler.runDue();
+
+        StandingOrder stopped = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertFalse(stopped.isActive());
+        assertEquals(0, stopped.getRuns());
+    }
+
+    @Test
+    public void monthlyOccurrencesKeepTheStartDay() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 31, 9, 0);
+
+        assertEquals(LocalDateTime.of(2024, 2, 29, 9, 0), Frequency.MONTHLY.occurrence(start, 1));
+        assertEquals(LocalDateTime.of(2024, 3, 31, 9, 0), Frequency.MONTHLY.occurrence(start, 2));
+        assertEquals(LocalDateTime.of(2024, 2, 14, 9, 0), Frequency.WEEKLY.occurrence(start, 2));
+    }
+
+    private StandingOrder order(LocalDateTime start, double amount) {
+        return standingOrderRepository.save(StandingOrder.builder()
+                .user(sender)
+                .accountNumber(receiverAccount.getAccountNumber())
+                .amount(amount)
+                .sendCurrency(Currency.USD)
+                .receiveCurrency(Currency.USD)
+                .frequency(Frequency.MONTHLY)
+                .startAt(start)
+                .nextRunAt(start)
+                .dueAt(start)
+                .active(true)
+                .build());
+    }
+
+    private double balance(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+}
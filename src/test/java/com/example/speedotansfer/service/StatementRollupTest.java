@@ -0,0 +1,199 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitLegDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferDTO;
+import com.example.speedotansfer.dto.transactionDTOs.StatementDTO;
+import com.example.speedotansfer.dto.transactionDTOs.StatementLineDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.enums.StatementDirection;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.StatementRollups;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.CacheService;
+import com.example.speedotansfer.service.impl.DatabaseTransferService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.StatementRollupRebuilder;
+import com.example.speedotansfer.service.impl.StatementRollupWriter;
+import com.example.speedotansfer.service.impl.TransactionService;
+import com.example.speedotansfer.service.impl.TransferService;
+import com.example.speedotansfer.service.impl.helpers.CurrencyExchangeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+
+import static com.example.speedotansfer.TestFixtures.account;
+import static com.example.speedotansfer.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransferService.class, DatabaseTransferService.class, TransactionService.class, StatementRollups.class, StatementRollupWriter.class, StatementRollupRebuilder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StatementRollupTest {
+
+    private static final String TOKEN = "Bearer token";
+    private static final YearMonth NOW = YearMonth.now();
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private CacheService cacheService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private StatementRollups rollups;
+
+    @Autowired
+    private StatementRollupRebuilder rebuilder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User sender;
+    private User friend;
+    private Account senderAccount;
+    private Account friendUsd;
+    private Account friendEgy;
+
+    @BeforeEach
+    public void setUp() {
+        sender = userRepository.save(user("sender", 1));
+        friend = userRepository.save(user("friend", 2));
+        senderAccount = accountRepository.save(account(sender, "100000000000001", Currency.USD, 100));
+        friendUsd = accountRepository.save(account(friend, "100000000000002", Currency.USD, 0));
+        friendEgy = accountRepository.save(account(friend, "200000000000002", Currency.EGY, 0));
+
+        when(redisService.exists(anyString())).thenReturn(true);
+        as(sender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM statement_rollups");
+        jdbcTemplate.update("DELETE FROM transaction_archives");
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void everyCompletedTransferIsAddedToBothStatements() throws Exception {
+        transferService.transferFromUser(sender.getInternalId(), send(friendUsd, 10, Currency.USD));
+        transferService.splitTransfer(TOKEN, SplitTransferDTO.builder().sendCurrency(Currency.USD).legs(List.of(
+                leg(friendUsd, 30, Currency.USD),
+                leg(friendEgy, 20, Currency.EGY))).build());
+        // Failed transfers are on record but move no money
+        assertThrows(InsufficientAmountException.class,
+                () -> transferService.transferFromUser(sender.getInternalId(), send(friendUsd, 500, Currency.USD)));
+
+        StatementDTO sent = transactionService.getStatement(TOKEN, NOW);
+        assertEquals(NOW, sent.getMonth());
+        assertEquals(List.of(line(Currency.USD, 60, 3, 0, 0)), sent.getCurrencies());
+
+        as(friend);
+        StatementDTO received = transactionService.getStatement(TOKEN, NOW);
+        assertEquals(List.of(
+                line(Currency.EGY, 0, 0, 20 * CurrencyExchangeService.getExchangeRate(Currency.USD, Currency.EGY), 1),
+                line(Currency.USD, 0, 0, 40, 2)), received.getCurrencies());
+
+        assertTrue(transactionService.getStatement(TOKEN, NOW.minusMonths(1)).getCurrencies().isEmpty());
+    }
+
+    @Test
+    public void rebuildRegeneratesTheRollupsFromTransactions() throws Exception {
+        transferService.transferFromUser(sender.getInternalId(), send(friendUsd, 10, Currency.USD));
+        transferService.transferFromUser(sender.getInternalId(), send(friendEgy, 5, Currency.EGY));
+        List<StatementRollups.Rollup> senders = rollups.find(sender.getInternalId(), NOW);
+        List<StatementRollups.Rollup> friends = rollups.find(friend.getInternalId(), NOW);
+
+        // Rows written before the rollups existed, and a month that has since been archived
+        insert(NOW.minusMonths(2), 7);
+        jdbcTemplate.update("INSERT INTO transaction_archives (month_start, path, row_count, bytes, archived_at) VALUES (?, 'archive', 1, 1, ?)",
+                Date.valueOf(NOW.minusMonths(20).atDay(1)), Timestamp.valueOf(NOW.atDay(1).atStartOfDay()));
+        jdbcTemplate.update("INSERT INTO statement_rollups (user_id, month_start, currency, direction, total, transfers) VALUES (?, ?, 'USD', 'SENT', 99, 4)",
+                sender.getInternalId(), Date.valueOf(NOW.minusMonths(20).atDay(1)));
+        jdbcTemplate.update("UPDATE statement_rollups SET total = total * 2 WHERE month_start = ?", Date.valueOf(NOW.atDay(1)));
+
+        // One user per range, so ranges are rebuilt side by side
+        ReflectionTestUtils.setField(rebuilder, "rangeSize", 1);
+        assertEquals(5, rebuilder.rebuild());
+
+        assertEquals(senders, rollups.find(sender.getInternalId(), NOW));
+        assertEquals(friends, rollups.find(friend.getInternalId(), NOW));
+        assertEquals(List.of(new StatementRollups.Rollup(Currency.USD, StatementDirection.SENT, 7, 1)),
+                rollups.find(sender.getInternalId(), NOW.minusMonths(2)));
+        assertEquals(99, rollups.find(sender.getInternalId(), NOW.minusMonths(20)).get(0).total());
+    }
+
+    private void as(User user) {
+        when(redisService.getUserIdByToken(anyString())).thenReturn(user.getInternalId());
+    }
+
+    // A transfer from before transactions recorded their account legs
+    private void insert(YearMonth month, double amount) {
+        jdbcTemplate.update("INSERT INTO transactions (amount, currency, status, time_stamp, sender_id, receiver_id) " +
+                        "VALUES (?, 'USD', TRUE, ?, ?, ?)",
+                amount, Timestamp.valueOf(month.atDay(3).atTime(9, 0)), sender.getInternalId(), friend.getInternalId());
+    }
+
+    private static StatementLineDTO line(Currency currency, double sent, long sentTransfers, double received, long receivedTransfers) {
+        return new StatementLineDTO(currency, sent, sentTransfers, received, receivedTransfers);
+    }
+
+    private static SendMoneyWithAccNumberDTO send(Account to, double amount, Currency receiveCurrency) {
+        SendMoneyWithAccNumberDTO dto = new SendMoneyWithAccNumberDTO();
+        dto.setAccountNumber(to.getAccountNumber());
+        dto.setAmount(amount);
+        dto.setSendCurrency(Currency.USD);
+        dto.setReceiveCurrency(receiveCurrency);
+        return dto;
+    }
+
+    private static SplitLegDTO leg(Account account, double amount, Currency receiveCurrency) {
+        return SplitLegDTO.builder().accountNumber(account.getAccountNumber()).amount(amount).receiveCurrency(receiveCurrency).build();
+    }
+}
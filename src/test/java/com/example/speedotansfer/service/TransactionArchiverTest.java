@@ -0,0 +1,242 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.archive.ArchivedTransaction;
+import com.example.speedotansfer.archive.TransactionArchiveFile;
+import com.example.speedotansfer.dto.reconciliationDTOs.CurrencyTotalsDTO;
+import com.example.speedotansfer.dto.reconciliationDTOs.ReconciliationReportDTO;
+import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.TransactionArchive;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.StatementRollups;
+import com.example.speedotansfer.repository.TransactionArchiveRepository;
+import com.example.speedotansfer.repository.TransactionPartitions;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.ReconciliationJob;
+import com.example.speedotansfer.service.impl.ReconciliationService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.TransactionArchiver;
+import com.example.speedotansfer.service.impl.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static com.example.speedotansfer.TestFixtures.account;
+import static com.example.speedotansfer.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// H2 keeps transactions as a single table, so months are archived through the row-deleting path;
+// the archive files and the reads that merge them with the table are the same as on Postgres
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1",
+        "app.archive.retention-months=12"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionArchiver.class, TransactionPartitions.class, TransactionService.class, StatementRollups.class,
+        ReconciliationService.class, ReconciliationJob.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransactionArchiverTest {
+
+    private static final String TOKEN = "Bearer token";
+    private static final YearMonth NOW = YearMonth.now();
+
+    @TempDir
+    private Path dir;
+
+    @MockBean
+    private RedisService redisService;
+
+    @Autowired
+    private TransactionArchiver archiver;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private ReconciliationJob reconciliationJob;
+
+    @Autowired
+    private TransactionArchiveRepository archiveRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User alice;
+    private User bob;
+    private Account aliceAccount;
+    private Account bobAccount;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(archiver, "directory", dir);
+        alice = userRepository.save(user("alice", 1));
+        bob = userRepository.save(user("bob", 2));
+        aliceAccount = accountRepository.save(account(alice, String.format("1%014d", 1), Currency.USD, 100));
+        bobAccount = accountRepository.save(account(bob, String.format("1%014d", 2), Currency.USD, 100));
+
+        insert(NOW.minusMonths(14), 3, alice, aliceAccount, bob, bobAccount, 10);
+        // Written before transfers recorded their account legs
+        insert(NOW.minusMonths(14), 5, bob, null, alice, null, 20);
+        insert(NOW.minusMonths(13), 7, alice, aliceAccount, bob, bobAccount, 30);
+        insert(NOW.minusMonths(1), 9, bob, bobAccount, alice, aliceAccount, 40);
+        insert(NOW, 1, alice, aliceAccount, bob, bobAccount, 50);
+
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(alice.getInternalId());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        archiveRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void monthsPastRetentionMoveToArchiveFiles() throws Exception {
+        List<TransactionArchive> archived = archiver.archive();
+
+        assertEquals(List.of(NOW.minusMonths(14).atDay(1), NOW.minusMonths(13).atDay(1)),
+                archived.stream().map(TransactionArchive::getMonthStart).toList());
+        assertEquals(List.of(2L, 1L), archived.stream().map(TransactionArchive::getRowCount).toList());
+        for (TransactionArchive archive : archived) {
+            assertEquals(archive.getBytes(), Files.size(Path.of(archive.getPath())));
+        }
+        assertEquals(2, transactionRepository.count());
+        try (Stream<Path> leftovers = Files.list(dir)) {
+            assertEquals(2, leftovers.count());
+        }
+
+        // Nothing older than the retention window is left
+        assertTrue(archiver.archive().isEmpty());
+    }
+
+    @Test
+    public void archivedMonthsStayReadableAlongsideTheTable() throws Exception {
+        archiver.archive();
+
+        // The hot history is the retention window only
+        assertEquals(List.of(40.0, 50.0), amounts(transactionService.getHistory(TOKEN).getTransactions()));
+
+        List<TransferResponseDTO> all = transactionService.getHistory(TOKEN, NOW.minusMonths(15), NOW).getTransactions();
+        assertEquals(List.of(10.0, 20.0, 30.0, 40.0, 50.0), amounts(all));
+        TransferResponseDTO legacy = all.get(1);
+        assertEquals("bob", legacy.getFromAccount());
+        assertEquals("alice", legacy.getToAccount());
+        assertEquals(start(NOW.minusMonths(14), 5), legacy.getTimestamp());
+
+        assertEquals(List.of(30.0), amounts(transactionService.getHistory(TOKEN, NOW.minusMonths(13), NOW.minusMonths(13)).getTransactions()));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getHistory(TOKEN, NOW, NOW.minusMonths(1)));
+    }
+
+    @Test
+    public void archivedMonthsStillReconcile() throws Exception {
+        // The balances the transfers with account legs leave behind
+        jdbcTemplate.update("UPDATE accounts SET balance = ? WHERE id = ?", 100 - 10 - 30 + 40 - 50, aliceAccount.getId());
+        jdbcTemplate.update("UPDATE accounts SET balance = ? WHERE id = ?", 100 + 10 + 30 - 40 + 50, bobAccount.getId());
+        assertReconciled();
+
+        archiver.archive();
+
+        assertReconciled();
+        // The archived months' transfers now start the accounts off
+        assertEquals(60, accountRepository.findById(aliceAccount.getId()).orElseThrow().getOpeningBalance(), 0.001);
+        assertEquals(140, accountRepository.findById(bobAccount.getId()).orElseThrow().getOpeningBalance(), 0.001);
+    }
+
+    @Test
+    public void archiveFilesRoundTripEveryColumn() throws Exception {
+        Random random = new Random(7);
+        List<ArchivedTransaction> rows = new ArrayList<>();
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 0, 0);
+        for (long id = 1; id <= 5_000; id++) {
+            // Ids are in order but timestamps aren't quite, as with ledger snapshots written after the fact
+            time = time.plusNanos((random.nextInt(2_000_000) - 500_000) * 1_000L);
+            boolean legacy = random.nextInt(10) == 0;
+            rows.add(new ArchivedTransaction(id * 3, time, random.nextInt(100_000) / 100.0,
+                    Currency.values()[random.nextInt(Currency.values().length)], random.nextBoolean(),
+                    1 + random.nextInt(50), 1 + random.nextInt(50),
+                    legacy ? null : 1L + random.nextInt(1_000_000), legacy ? null : 1L + random.nextInt(1_000_000),
+                    legacy ? null : random.nextDouble()));
+        }
+
+        Path file = dir.resolve("round-trip" + TransactionArchiveFile.SUFFIX);
+        try (TransactionArchiveFile.Writer writer = TransactionArchiveFile.writer(file)) {
+            for (ArchivedTransaction row : rows) {
+                writer.append(row);
+            }
+            writer.finish();
+        }
+
+        for (long user : new long[]{1, 17, 50}) {
+            assertEquals(rows.stream().filter(row -> row.senderId() == user || row.receiverId() == user).toList(),
+                    TransactionArchiveFile.readByUser(file, user));
+        }
+        assertTrue(TransactionArchiveFile.readByUser(file, 51).isEmpty());
+    }
+
+    private void assertReconciled() {
+        ReconciliationReportDTO report = reconciliationService.reconcile();
+        assertTrue(report.getDriftedAccounts().isEmpty(), () -> "drifted: " + report.getDriftedAccounts());
+        for (CurrencyTotalsDTO totals : report.getCurrencies()) {
+            assertEquals(totals.getBalance(), totals.getOpening() + totals.getReceived() - totals.getSent(), 0.001);
+        }
+        assertEquals(0, reconciliationJob.run().getDiscrepancies());
+    }
+
+    private static List<Double> amounts(List<TransferResponseDTO> transfers) {
+        return transfers.stream().map(TransferResponseDTO::getAmount).sorted().toList();
+    }
+
+    private static LocalDateTime start(YearMonth month, int day) {
+        return month.atDay(day).atTime(12, 30);
+    }
+
+    private void insert(YearMonth month, int day, User sender, Account senderAccount, User receiver, Account receiverAccount, double amount) {
+        jdbcTemplate.update("INSERT INTO transactions (amount, currency, status, time_stamp, sender_id, receiver_id, " +
+                        "sender_account_id, receiver_account_id, received_amount) VALUES (?, 'USD', TRUE, ?, ?, ?, ?, ?, ?)",
+                amount, Timestamp.valueOf(start(month, day)), sender.getInternalId(), receiver.getInternalId(),
+                senderAccount == null ? null : senderAccount.getId(), receiverAccount == null ? null : receiverAccount.getId(),
+                senderAccount == null ? null : amount);
+    }
+}
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -83,8 +84,8 @@ public class TransactionServiceTest {
         when(redisService.exists(anyString())).thenReturn(true);
         when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
         when(userRepository.findUserByInternalId(anyLong())).thenReturn(Optional.of(user));
-        when(transactionRepository.findAllBySenderInternalId(anyLong())).thenReturn(sentTransactions);
-        when(transactionRepository.findAllByReceiverInternalId(anyLong())).thenReturn(receivedTransactions);
+        when(transactionRepository.findSentBetween(anyLong(), any(), any())).thenReturn(sentTransactions);
+        when(transactionRepository.findReceivedBetween(anyLong(), any(), any())).thenReturn(receivedTransactions);
 
         AllTransactionsDTO response = transactionService.getHistory("Bearer token");
 
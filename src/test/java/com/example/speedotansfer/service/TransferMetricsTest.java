@@ -0,0 +1,170 @@
+package com.example.speedotansfer.service;
+
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithUsernameDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitLegDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SplitTransferDTO;
+import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
+import com.example.speedotansfer.exception.custom.UserNotFoundException;
+import com.example.speedotansfer.metrics.TransferMetricsAspect;
+import com.example.speedotansfer.model.Account;
+import com.example.speedotansfer.model.User;
+import com.example.speedotansfer.repository.AccountRepository;
+import com.example.speedotansfer.repository.TransactionRepository;
+import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.CacheService;
+import com.example.speedotansfer.service.impl.DatabaseTransferService;
+import com.example.speedotansfer.service.impl.RedisService;
+import com.example.speedotansfer.service.impl.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+public class TransferMetricsTest {
+
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import({TransferService.class, DatabaseTransferService.class, TransferMetricsAspect.class})
+    static class Config {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private TransactionRepository transactionRepository;
+
+    @MockBean
+    private AccountRepository accountRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private RedisService redisService;
+
+    @MockBean
+    private CacheService cacheService;
+
+    @MockBean
+    private AccountDirectory accountDirectory;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Account receiverAccount;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry.clear();
+
+        User sender = User.builder().internalId(1L).username("sender").build();
+        User receiver = User.builder().internalId(2L).username("receiver").build();
+        Account senderAccount = Account.builder().id(10L).accountNumber("123456789012345").currency(Currency.USD).balance(500.0).user(sender).build();
+        receiverAccount = Account.builder().id(20L).accountNumber("987654321098765").currency(Currency.USD).balance(100.0).user(receiver).build();
+
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
+        when(userRepository.findUserByInternalId(1L)).thenReturn(Optional.of(sender));
+        when(accountRepository.findAccountByAccountNumber("987654321098765")).thenReturn(Optional.of(receiverAccount));
+        when(accountRepository.findAccountByCurrencyAndUserid("USD", 1L)).thenReturn(Optional.of(senderAccount));
+        when(userRepository.findUserByAccount(receiverAccount)).thenReturn(Optional.of(receiver));
+    }
+
+    @Test
+    public void successIsTimedWithPairAndBucket() throws Exception {
+        transferService.transferUsingAccNumber("Bearer token", request(150.0, Currency.USD, Currency.USD));
+
+        assertEquals(1, timer("success", "USD_USD", "100_1k").count());
+        assertEquals(150.0, meterRegistry.get(TransferMetricsAspect.TRANSFER_VOLUME).tag("currency", "USD").counter().count());
+    }
+
+    @Test
+    public void failuresAreTaggedByOutcome() {
+        assertThrows(InsufficientAmountException.class,
+                () -> transferService.transferUsingAccNumber("Bearer token", request(5_000.0, Currency.USD, Currency.USD)));
+        assertThrows(InvalidTransferException.class,
+                () -> transferService.transferUsingAccNumber("Bearer token", request(50.0, Currency.USD, Currency.EUR)));
+
+        when(accountDirectory.rejects("987654321098765")).thenReturn(true);
+        assertThrows(UserNotFoundException.class,
+                () -> transferService.transferUsingAccNumber("Bearer token", request(50.0, Currency.USD, Currency.USD)));
+
+        assertEquals(1, timer("insufficient_funds", "USD_USD", "1k_10k").count());
+        assertEquals(1, timer("currency_mismatch", "USD_EUR", "lt_100").count());
+        assertEquals(1, timer("not_found", "USD_USD", "lt_100").count());
+        assertTrue(meterRegistry.find(TransferMetricsAspect.TRANSFER_VOLUME).counters().isEmpty());
+    }
+
+    @Test
+    public void everyEntryPointIsTimedByKind() throws Exception {
+        when(cacheService.getUserIdByUsername("receiver")).thenReturn(2L);
+        when(accountRepository.findAccountByCurrencyAndUserid("USD", 2L)).thenReturn(Optional.of(receiverAccount));
+        when(accountRepository.findAllByAccountNumberIn(anySet())).thenReturn(List.of(receiverAccount));
+
+        transferService.transferFromUser(1L, request(150.0, Currency.USD, Currency.USD));
+        SendMoneyWithUsernameDTO byUsername = new SendMoneyWithUsernameDTO();
+        byUsername.setUsername("receiver");
+        byUsername.setAmount(20.0);
+        byUsername.setSendCurrency(Currency.USD);
+        byUsername.setReceiveCurrency(Currency.USD);
+        transferService.transferUsingUsername("Bearer token", byUsername);
+        transferService.splitTransfer("Bearer token", SplitTransferDTO.builder()
+                .sendCurrency(Currency.USD)
+                .legs(List.of(new SplitLegDTO(receiverAccount.getAccountNumber(), 30.0, Currency.USD),
+                        new SplitLegDTO(receiverAccount.getAccountNumber(), 20.0, Currency.USD)))
+                .build());
+
+        assertEquals(1, timer("account_number", "success", "USD_USD", "100_1k").count());
+        assertEquals(1, timer("username", "success", "USD_USD", "lt_100").count());
+        assertEquals(1, timer("split", "success", "USD_USD", "lt_100").count());
+        assertEquals(220.0, meterRegistry.get(TransferMetricsAspect.TRANSFER_VOLUME).tag("currency", "USD").counter().count());
+    }
+
+    private Timer timer(String outcome, String currencyPair, String amountBucket) {
+        return timer("account_number", outcome, currencyPair, amountBucket);
+    }
+
+    private Timer timer(String kind, String outcome, String currencyPair, String amountBucket) {
+        return meterRegistry.get(TransferMetricsAspect.TRANSFER_TIMER)
+                .tag("kind", kind)
+                .tag("outcome", outcome)
+                .tag("currency_pair", currencyPair)
+                .tag("amount_bucket", amountBucket)
+                .timer();
+    }
+
+    private SendMoneyWithAccNumberDTO request(double amount, Currency send, Currency receive) {
+        SendMoneyWithAccNumberDTO dto = new SendMoneyWithAccNumberDTO();
+        dto.setAccountNumber(receiverAccount.getAccountNumber());
+        dto.setAmount(amount);
+        dto.setSendCurrency(send);
+        dto.setReceiveCurrency(receive);
+        return dto;
+    }
+}
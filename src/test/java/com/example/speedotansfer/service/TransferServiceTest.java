@@ -1,10 +1,13 @@
 package com.example.speedotansfer.service;
 
 import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithAccNumberDTO;
+import com.example.speedotansfer.dto.transactionDTOs.SendMoneyWithUsernameDTO;
 import com.example.speedotansfer.dto.transactionDTOs.TransferResponseDTO;
 import com.example.speedotansfer.enums.Currency;
+import com.example.speedotansfer.event.TransferCompletedEvent;
 import com.example.speedotansfer.exception.custom.AccountNotFoundException;
 import com.example.speedotansfer.exception.custom.InsufficientAmountException;
+import com.example.speedotansfer.exception.custom.InvalidTransferException;
 import com.example.speedotansfer.exception.custom.UserNotFoundException;
 import com.example.speedotansfer.model.Account;
 import com.example.speedotansfer.model.Transaction;
@@ -12,6 +15,8 @@ import com.example.speedotansfer.model.User;
 import com.example.speedotansfer.repository.AccountRepository;
 import com.example.speedotansfer.repository.TransactionRepository;
 import com.example.speedotansfer.repository.UserRepository;
+import com.example.speedotansfer.service.impl.AccountDirectory;
+import com.example.speedotansfer.service.impl.CacheService;
 import com.example.speedotansfer.service.impl.RedisService;
 import com.example.speedotansfer.service.impl.TransferService;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -42,6 +48,15 @@ public class TransferServiceTest {
     @Mock
     private RedisService redisService;
 
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private AccountDirectory accountDirectory;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TransferService transferService;
 
@@ -50,6 +65,7 @@ public class TransferServiceTest {
     private Account senderAccount;
     private Account receiverAccount;
     private SendMoneyWithAccNumberDTO sendMoneyWithAccNumberDTO;
+    private SendMoneyWithUsernameDTO sendMoneyWithUsernameDTO;
 
     @BeforeEach
     public void setUp() {
@@ -88,10 +104,16 @@ public class TransferServiceTest {
         sendMoneyWithAccNumberDTO.setAmount(100.0);
         sendMoneyWithAccNumberDTO.setSendCurrency(Currency.USD);
         sendMoneyWithAccNumberDTO.setReceiveCurrency(Currency.USD);
+
+        sendMoneyWithUsernameDTO = new SendMoneyWithUsernameDTO();
+        sendMoneyWithUsernameDTO.setUsername("receiverUsername");
+        sendMoneyWithUsernameDTO.setAmount(100.0);
+        sendMoneyWithUsernameDTO.setSendCurrency(Currency.USD);
+        sendMoneyWithUsernameDTO.setReceiveCurrency(Currency.USD);
     }
 
     @Test
-    public void testTransferUsingAccNumber_Success() throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException {
+    public void testTransferUsingAccNumber_Success() throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
         when(redisService.exists(anyString())).thenReturn(true);
         when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
         when(userRepository.findUserByInternalId(1L)).thenReturn(Optional.of(sender));
@@ -108,6 +130,7 @@ public class TransferServiceTest {
         verify(accountRepository, times(1)).save(senderAccount);
         verify(accountRepository, times(1)).save(receiverAccount);
         verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(eventPublisher, times(1)).publishEvent(any(TransferCompletedEvent.class));
     }
 
     @Test
@@ -125,6 +148,25 @@ public class TransferServiceTest {
             transferService.transferUsingAccNumber("Bearer token", sendMoneyWithAccNumberDTO);
         });
 
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(eventPublisher, never()).publishEvent(any(TransferCompletedEvent.class));
+    }
+
+    @Test
+    public void testTransferUsingAccNumber_CurrencyMismatch() {
+        sendMoneyWithAccNumberDTO.setReceiveCurrency(Currency.EUR);
+
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
+        when(userRepository.findUserByInternalId(1L)).thenReturn(Optional.of(sender));
+        when(accountRepository.findAccountByAccountNumber("987654321")).thenReturn(Optional.of(receiverAccount));
+        when(accountRepository.findAccountByCurrencyAndUserid("USD", 1L)).thenReturn(Optional.of(senderAccount));
+        when(userRepository.findUserByAccount(receiverAccount)).thenReturn(Optional.of(receiver));
+
+        assertThrows(InvalidTransferException.class, () -> {
+            transferService.transferUsingAccNumber("Bearer token", sendMoneyWithAccNumberDTO);
+        });
+
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
@@ -157,5 +199,53 @@ public class TransferServiceTest {
 
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
-}
 
+    @Test
+    public void testTransferUsingUsername_Success() throws InsufficientAmountException, UserNotFoundException, AccountNotFoundException, InvalidTransferException {
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
+        when(userRepository.findUserByInternalId(1L)).thenReturn(Optional.of(sender));
+        when(cacheService.getUserIdByUsername("receiverUsername")).thenReturn(2L);
+        when(accountRepository.findAccountByCurrencyAndUserid("USD", 2L)).thenReturn(Optional.of(receiverAccount));
+        when(accountRepository.findAccountByCurrencyAndUserid("USD", 1L)).thenReturn(Optional.of(senderAccount));
+
+        TransferResponseDTO response = transferService.transferUsingUsername("Bearer token", sendMoneyWithUsernameDTO);
+
+        assertTrue(response.isStatus());
+        assertEquals(400.0, senderAccount.getBalance());
+        assertEquals(200.0, receiverAccount.getBalance());
+        verify(userRepository, never()).findUserByAccount(any(Account.class));
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+
+    @Test
+    public void testTransferUsingUsername_UnknownUsername() {
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
+        when(userRepository.findUserByInternalId(1L)).thenReturn(Optional.of(sender));
+        when(cacheService.getUserIdByUsername("receiverUsername")).thenReturn(null);
+
+        assertThrows(UserNotFoundException.class, () -> {
+            transferService.transferUsingUsername("Bearer token", sendMoneyWithUsernameDTO);
+        });
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    public void testTransferUsingUsername_ReceiverHasNoAccountInCurrency() {
+        sendMoneyWithUsernameDTO.setReceiveCurrency(Currency.EUR);
+
+        when(redisService.exists(anyString())).thenReturn(true);
+        when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
+        when(userRepository.findUserByInternalId(1L)).thenReturn(Optional.of(sender));
+        when(cacheService.getUserIdByUsername("receiverUsername")).thenReturn(2L);
+        when(accountRepository.findAccountByCurrencyAndUserid("EUR", 2L)).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> {
+            transferService.transferUsingUsername("Bearer token", sendMoneyWithUsernameDTO);
+        });
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+}
@@ -15,6 +15,7 @@ import com.example.speedotansfer.repository.AccountRepository;
 import com.example.speedotansfer.repository.UserRepository;
 
 import com.example.speedotansfer.service.impl.AuthService;
+import com.example.speedotansfer.service.impl.CacheService;
 import com.example.speedotansfer.service.impl.RedisService;
 import com.example.speedotansfer.service.impl.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -51,6 +52,9 @@ class UserServiceTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private CacheService cacheService;
+
     @InjectMocks
     private UserService userService;
 
@@ -116,6 +120,7 @@ class UserServiceTest {
         assertTrue(response.getDetails().contains("Phone number updated successfully"));
 
         verify(userRepository, times(1)).save(existingUser);
+        verify(cacheService, times(1)).evictUser(1L);
         verify(redisService, times(1)).deleteToken(anyString());
         verify(redisService, times(1)).storeToken(anyString(), anyLong());
     }
@@ -135,6 +140,7 @@ class UserServiceTest {
         when(redisService.exists(anyString())).thenReturn(true);
         when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
         when(userRepository.findUserByInternalId(1L)).thenReturn(Optional.of(user));
+        when(cacheService.getUser(1L)).thenReturn(user.toDTO());
 
         UserDTO response = userService.getUserById("blablablatoken");
 
@@ -185,6 +191,7 @@ class UserServiceTest {
         when(redisService.exists(anyString())).thenReturn(true);
         when(redisService.getUserIdByToken(anyString())).thenReturn(1L);
         when(accountRepository.findAllByUserid(anyLong())).thenReturn(accounts);
+        when(cacheService.getAccounts(1L)).thenReturn(accounts.stream().map(Account::toDTO).toList());
 
         // Act
         List<AccountDTO> accountDTOList = userService.getAccounts(token);
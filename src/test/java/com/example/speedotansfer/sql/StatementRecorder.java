@@ -0,0 +1,119 @@
+package com.example.speedotansfer.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.function.Executable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Collects the statements a call runs on the calling thread, e.g. a service method or a MockMvc request.
+// Import StatementRecorderConfig to have the test's DataSource report to it.
+public class StatementRecorder implements QueryExecutionListener {
+
+    private static final String STARTED = StatementRecorder.class.getName() + ".started";
+
+    private final ThreadLocal<List<Statement>> recording = new ThreadLocal<>();
+
+    // Parameters are those of the first execution when the statement ran as a batch
+    public record Statement(String sql, List<Object> parameters, Duration elapsed) {
+    }
+
+    public Statements record(Executable call) throws Throwable {
+        List<Statement> outer = recording.get();
+        List<Statement> statements = new ArrayList<>();
+        recording.set(statements);
+        try {
+            call.execute();
+        } finally {
+            if (outer == null) {
+                recording.remove();
+            } else {
+                outer.addAll(statements);
+                recording.set(outer);
+            }
+        }
+        return new Statements(statements);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (recording.get() != null) {
+            execInfo.addCustomValue(STARTED, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<Statement> statements = recording.get();
+        Long started = execInfo.getCustomValue(STARTED, Long.class);
+        if (statements != null && started != null) {
+            String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+            statements.add(new Statement(sql, parameters(queryInfoList), Duration.ofNanos(System.nanoTime() - started)));
+        }
+    }
+
+    private static List<Object> parameters(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty() || queryInfoList.get(0).getParametersList().isEmpty()) {
+            return List.of();
+        }
+        List<Object> parameters = new ArrayList<>();
+        queryInfoList.get(0).getParametersList().get(0).stream()
+                .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                .forEach(operation -> parameters.add(value(operation)));
+        return parameters;
+    }
+
+    // setNull's second argument is the SQL type, not a value
+    private static Object value(ParameterSetOperation operation) {
+        return operation.getMethod().getName().equals("setNull") ? null : operation.getArgs()[1];
+    }
+
+    public static class Statements {
+
+        private final List<Statement> statements;
+
+        Statements(List<Statement> statements) {
+            this.statements = statements;
+        }
+
+        public int count() {
+            return statements.size();
+        }
+
+        public List<Statement> list() {
+            return statements;
+        }
+
+        // A batch counts once, however many rows it carries
+        public Statements assertAtMost(int max) {
+            if (statements.size() > max) {
+                fail("Expected at most " + max + " statements but " + statements.size() + " ran:\n" + describe(statements));
+            }
+            return this;
+        }
+
+        public Statements assertNoneSlowerThan(Duration threshold) {
+            List<Statement> slow = statements.stream()
+                    .filter(statement -> statement.elapsed().compareTo(threshold) > 0)
+                    .toList();
+            if (!slow.isEmpty()) {
+                fail(slow.size() + " statements took longer than " + threshold.toMillis() + " ms:\n" + describe(slow));
+            }
+            return this;
+        }
+
+        private static String describe(List<Statement> statements) {
+            return statements.stream()
+                    .map(statement -> "\t" + statement.elapsed().toNanos() / 1_000 + " us\t" + statement.sql())
+                    .collect(Collectors.joining("\n"));
+        }
+    }
+}
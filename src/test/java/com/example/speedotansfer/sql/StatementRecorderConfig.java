@@ -0,0 +1,34 @@
+package com.example.speedotansfer.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+@TestConfiguration
+public class StatementRecorderConfig {
+
+    private static final StatementRecorder RECORDER = new StatementRecorder();
+
+    @Bean
+    public static StatementRecorder statementRecorder() {
+        return RECORDER;
+    }
+
+    // Static, and sharing the recorder through a field, so the DataSource is wrapped before anything uses it
+    @Bean
+    public static BeanPostProcessor statementRecordingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource).name(beanName).listener(RECORDER).build();
+                }
+                return bean;
+            }
+        };
+    }
+}